@@ -1,22 +1,29 @@
 package ru.practicum.shareit.booking;
 
+import java.io.IOException;
+import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
 
+import jakarta.servlet.http.HttpServletResponse;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.boot.web.client.RestTemplateBuilder;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.http.client.HttpComponentsClientHttpRequestFactory;
 import org.springframework.stereotype.Service;
 import org.springframework.web.util.DefaultUriBuilderFactory;
 
 import ru.practicum.shareit.booking.dto.NewBookingRequest;
+import ru.practicum.shareit.booking.dto.BookingDecision;
 import ru.practicum.shareit.booking.dto.BookingState;
 import ru.practicum.shareit.client.BaseClient;
 
 @Service
 public class BookingClient extends BaseClient {
     private static final String API_PREFIX = "/bookings";
+    public static final MediaType NDJSON = MediaType.parseMediaType("application/x-ndjson");
 
     @Autowired
     public BookingClient(@Value("${shareit-server.url}") String serverUrl, RestTemplateBuilder builder) {
@@ -28,8 +35,16 @@ public class BookingClient extends BaseClient {
         );
     }
 
-    public ResponseEntity<Object> createBooking(long userId, NewBookingRequest requestDto) {
-        return post("", userId, requestDto);
+    public ResponseEntity<Object> createBooking(long userId, NewBookingRequest requestDto, String idempotencyKey) {
+        return post("", userId, requestDto, idempotencyKey);
+    }
+
+    public ResponseEntity<Object> holdBooking(long userId, NewBookingRequest requestDto) {
+        return post("/holds", userId, requestDto);
+    }
+
+    public ResponseEntity<Object> createBookings(long userId, List<NewBookingRequest> requests) {
+        return post("/batch", userId, requests);
     }
 
     public ResponseEntity<Object> approveBooking(Long userId, Long bookingId, Boolean approved) {
@@ -38,21 +53,61 @@ public class BookingClient extends BaseClient {
         return patch("/" + bookingId + "?approved={approved}", userId, parameters, null);
     }
 
+    public ResponseEntity<Object> cancelBooking(long userId, long bookingId) {
+        return patch("/" + bookingId + "/cancel", userId);
+    }
+
+    public ResponseEntity<Object> approveBookings(long userId, List<BookingDecision> decisions) {
+        return patch("/batch", userId, decisions);
+    }
+
     public ResponseEntity<Object> getBookingById(long userId, Long bookingId) {
         return get("/" + bookingId, userId);
     }
 
-    public ResponseEntity<Object> getBookingsByBookerId(long userId, BookingState state) {
-        Map<String, Object> parameters = Map.of(
-                "state", state.name()
-        );
-        return get("?state={state}", userId, parameters);
+    public ResponseEntity<Object> getBookingsByBookerId(long userId, BookingState state, int from, Integer size, String cursor) {
+        return get(pagedPath("", size, cursor), userId, pageParameters(state, from, size, cursor));
     }
 
-    public ResponseEntity<Object> getBookingsByOwnerId(long userId, BookingState state) {
-        Map<String, Object> parameters = Map.of(
-                "state", state.name()
-        );
-        return get("/owner" + "?state={state}", userId, parameters);
+    public ResponseEntity<Object> getBookingsByOwnerId(long userId, BookingState state, int from, Integer size, String cursor) {
+        return get(pagedPath("/owner", size, cursor), userId, pageParameters(state, from, size, cursor));
+    }
+
+    public ResponseEntity<Object> getBookingStatsByBookerId(long userId) {
+        return get("/stats", userId);
+    }
+
+    public ResponseEntity<Object> getBookingStatsByOwnerId(long userId) {
+        return get("/owner/stats", userId);
+    }
+
+    public void streamBookingsByBookerId(long userId, BookingState state, HttpServletResponse response) throws IOException {
+        stream("?state={state}", userId, Map.of("state", state.name()), NDJSON, response);
+    }
+
+    public void streamBookingsByOwnerId(long userId, BookingState state, HttpServletResponse response) throws IOException {
+        stream("/owner?state={state}", userId, Map.of("state", state.name()), NDJSON, response);
+    }
+
+    //без size сервер отдаёт список целиком
+    private static String pagedPath(String path, Integer size, String cursor) {
+        String query = "?state={state}&from={from}";
+        if (size != null) {
+            query += "&size={size}";
+        }
+        return path + (cursor == null ? query : query + "&cursor={cursor}");
+    }
+
+    private static Map<String, Object> pageParameters(BookingState state, int from, Integer size, String cursor) {
+        Map<String, Object> parameters = new HashMap<>();
+        parameters.put("state", state.name());
+        parameters.put("from", from);
+        if (size != null) {
+            parameters.put("size", size);
+        }
+        if (cursor != null) {
+            parameters.put("cursor", cursor);
+        }
+        return parameters;
     }
-}
\ No newline at end of file
+}
@@ -13,13 +13,22 @@ import org.springframework.web.bind.annotation.RequestHeader;
 import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RequestParam;
 
+import jakarta.servlet.http.HttpServletResponse;
 import jakarta.validation.Valid;
+import jakarta.validation.constraints.NotEmpty;
+import jakarta.validation.constraints.Positive;
+import jakarta.validation.constraints.PositiveOrZero;
+import jakarta.validation.constraints.Size;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.web.bind.annotation.ResponseStatus;
+import ru.practicum.shareit.booking.dto.BookingDecision;
 import ru.practicum.shareit.booking.dto.BookingState;
 import ru.practicum.shareit.booking.dto.NewBookingRequest;
 
+import java.io.IOException;
+import java.util.List;
+
 @Controller
 @RequestMapping(path = "/bookings")
 @RequiredArgsConstructor
@@ -31,9 +40,26 @@ public class BookingController {
     @PostMapping
     @ResponseStatus(HttpStatus.CREATED)
     public ResponseEntity<Object> createBooking(@RequestHeader("X-Sharer-User-Id") long userId,
+                                                @RequestHeader(name = BookingClient.IDEMPOTENCY_KEY, required = false) @Size(max = 255) String idempotencyKey,
                                                 @RequestBody @Valid NewBookingRequest requestDto) {
         log.info("Creating booking {}, userId={}", requestDto, userId);
-        return bookingClient.createBooking(userId, requestDto);
+        return bookingClient.createBooking(userId, requestDto, idempotencyKey);
+    }
+
+    @PostMapping("/holds")
+    @ResponseStatus(HttpStatus.CREATED)
+    public ResponseEntity<Object> holdBooking(@RequestHeader("X-Sharer-User-Id") long userId,
+                                              @RequestBody @Valid NewBookingRequest requestDto) {
+        log.info("Holding item {}, userId={}", requestDto.getItemId(), userId);
+        return bookingClient.holdBooking(userId, requestDto);
+    }
+
+    @PostMapping("/batch")
+    @ResponseStatus(HttpStatus.CREATED)
+    public ResponseEntity<Object> createBookings(@RequestHeader("X-Sharer-User-Id") long userId,
+                                                 @RequestBody @NotEmpty @Size(max = 100) List<@Valid NewBookingRequest> requests) {
+        log.info("Creating {} bookings, userId={}", requests.size(), userId);
+        return bookingClient.createBookings(userId, requests);
     }
 
     @PatchMapping("/{bookingId}")
@@ -44,6 +70,20 @@ public class BookingController {
         return bookingClient.approveBooking(userId, bookingId, approved);
     }
 
+    @PatchMapping("/{bookingId}/cancel")
+    public ResponseEntity<Object> cancelBooking(@RequestHeader("X-Sharer-User-Id") long userId,
+                                                @PathVariable("bookingId") long bookingId) {
+        log.info("Canceling booking {}, userId={}", bookingId, userId);
+        return bookingClient.cancelBooking(userId, bookingId);
+    }
+
+    @PatchMapping("/batch")
+    public ResponseEntity<Object> approveBookings(@RequestHeader("X-Sharer-User-Id") long userId,
+                                                  @RequestBody @NotEmpty @Size(max = 100) List<@Valid BookingDecision> decisions) {
+        log.info("Approving {} bookings, userId={}", decisions.size(), userId);
+        return bookingClient.approveBookings(userId, decisions);
+    }
+
     @GetMapping("/{bookingId}")
     public ResponseEntity<Object> getBookingById(@RequestHeader("X-Sharer-User-Id") long userId,
                                                  @PathVariable("bookingId") Long bookingId) {
@@ -53,19 +93,57 @@ public class BookingController {
 
     @GetMapping
     public ResponseEntity<Object> getBookingsByBookerId(@RequestHeader("X-Sharer-User-Id") long userId,
-                                                        @RequestParam(name = "state", required = false, defaultValue = "ALL") String stateParam) {
+                                                        @RequestParam(name = "state", required = false, defaultValue = "ALL") String stateParam,
+                                                        @RequestParam(name = "from", defaultValue = "0") @PositiveOrZero int from,
+                                                        @RequestParam(name = "size", required = false) @Positive Integer size,
+                                                        @RequestParam(name = "cursor", required = false) String cursor) {
         BookingState state = BookingState.from(stateParam)
                 .orElseThrow(() -> new IllegalArgumentException("Unknown state: " + stateParam));
-        log.info("Get bookings with state {}, userId={}", stateParam, userId);
-        return bookingClient.getBookingsByBookerId(userId, state);
+        log.info("Get bookings with state {}, userId={}, from={}, size={}, cursor={}", stateParam, userId, from, size, cursor);
+        return bookingClient.getBookingsByBookerId(userId, state, from, size, cursor);
     }
 
     @GetMapping("/owner")
     public ResponseEntity<Object> getBookingsByOwnerId(@RequestHeader("X-Sharer-User-Id") long userId,
-                                                       @RequestParam(name = "state", required = false, defaultValue = "ALL") String stateParam) {
+                                                       @RequestParam(name = "state", required = false, defaultValue = "ALL") String stateParam,
+                                                       @RequestParam(name = "from", defaultValue = "0") @PositiveOrZero int from,
+                                                       @RequestParam(name = "size", required = false) @Positive Integer size,
+                                                       @RequestParam(name = "cursor", required = false) String cursor) {
+        BookingState state = BookingState.from(stateParam)
+                .orElseThrow(() -> new IllegalArgumentException("Unknown state: " + stateParam));
+        log.info("Get bookings with state {}, ownerId={}, from={}, size={}, cursor={}", stateParam, userId, from, size, cursor);
+        return bookingClient.getBookingsByOwnerId(userId, state, from, size, cursor);
+    }
+
+    @GetMapping("/stats")
+    public ResponseEntity<Object> getBookingStatsByBookerId(@RequestHeader("X-Sharer-User-Id") long userId) {
+        log.info("Get booking stats, userId={}", userId);
+        return bookingClient.getBookingStatsByBookerId(userId);
+    }
+
+    @GetMapping("/owner/stats")
+    public ResponseEntity<Object> getBookingStatsByOwnerId(@RequestHeader("X-Sharer-User-Id") long userId) {
+        log.info("Get booking stats, ownerId={}", userId);
+        return bookingClient.getBookingStatsByOwnerId(userId);
+    }
+
+    @GetMapping(produces = "application/x-ndjson")
+    public void streamBookingsByBookerId(@RequestHeader("X-Sharer-User-Id") long userId,
+                                         @RequestParam(name = "state", required = false, defaultValue = "ALL") String stateParam,
+                                         HttpServletResponse response) throws IOException {
+        BookingState state = BookingState.from(stateParam)
+                .orElseThrow(() -> new IllegalArgumentException("Unknown state: " + stateParam));
+        log.info("Stream bookings with state {}, userId={}", stateParam, userId);
+        bookingClient.streamBookingsByBookerId(userId, state, response);
+    }
+
+    @GetMapping(path = "/owner", produces = "application/x-ndjson")
+    public void streamBookingsByOwnerId(@RequestHeader("X-Sharer-User-Id") long userId,
+                                        @RequestParam(name = "state", required = false, defaultValue = "ALL") String stateParam,
+                                        HttpServletResponse response) throws IOException {
         BookingState state = BookingState.from(stateParam)
                 .orElseThrow(() -> new IllegalArgumentException("Unknown state: " + stateParam));
-        log.info("Get bookings with state {}, ownerId={}", stateParam, userId);
-        return bookingClient.getBookingsByOwnerId(userId, state);
+        log.info("Stream bookings with state {}, ownerId={}", stateParam, userId);
+        bookingClient.streamBookingsByOwnerId(userId, state, response);
     }
-}
\ No newline at end of file
+}
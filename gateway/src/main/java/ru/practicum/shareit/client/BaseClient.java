@@ -1,8 +1,13 @@
 package ru.practicum.shareit.client;
 
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
 import java.util.List;
 import java.util.Map;
 
+import jakarta.servlet.http.HttpServletResponse;
+
 import org.springframework.http.HttpEntity;
 import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpMethod;
@@ -13,6 +18,8 @@ import org.springframework.web.client.HttpStatusCodeException;
 import org.springframework.web.client.RestTemplate;
 
 public class BaseClient {
+    public static final String IDEMPOTENCY_KEY = "Idempotency-Key";
+
     protected final RestTemplate rest;
 
     public BaseClient(RestTemplate rest) {
@@ -43,6 +50,17 @@ public class BaseClient {
         return makeAndSendRequest(HttpMethod.POST, path, userId, parameters, body);
     }
 
+    /**
+     * Ключ идемпотентности передаётся серверу как есть: повтор после таймаута вернёт сохранённый ответ.
+     */
+    protected <T> ResponseEntity<Object> post(String path, long userId, T body, @Nullable String idempotencyKey) {
+        HttpHeaders headers = defaultHeaders(userId);
+        if (idempotencyKey != null) {
+            headers.set(IDEMPOTENCY_KEY, idempotencyKey);
+        }
+        return sendRequest(HttpMethod.POST, path, headers, null, body);
+    }
+
     protected <T> ResponseEntity<Object> put(String path, long userId, T body) {
         return put(path, userId, null, body);
     }
@@ -79,8 +97,49 @@ public class BaseClient {
         return makeAndSendRequest(HttpMethod.DELETE, path, userId, parameters, null);
     }
 
+    /**
+     * Передаёт ответ сервера клиенту по мере получения, не собирая тело в памяти.
+     */
+    protected void stream(String path, long userId, Map<String, Object> parameters, MediaType accept,
+                          HttpServletResponse response) throws IOException {
+        try {
+            rest.execute(path, HttpMethod.GET, request -> {
+                request.getHeaders().setAccept(List.of(accept));
+                request.getHeaders().set("X-Sharer-User-Id", String.valueOf(userId));
+            }, shareitServerResponse -> {
+                response.setStatus(shareitServerResponse.getStatusCode().value());
+                MediaType contentType = shareitServerResponse.getHeaders().getContentType();
+                if (contentType != null) {
+                    response.setContentType(contentType.toString());
+                }
+                copy(shareitServerResponse.getBody(), response.getOutputStream());
+                return null;
+            }, parameters);
+        } catch (HttpStatusCodeException e) {
+            response.setStatus(e.getStatusCode().value());
+            MediaType contentType = e.getResponseHeaders() == null ? null : e.getResponseHeaders().getContentType();
+            if (contentType != null) {
+                response.setContentType(contentType.toString());
+            }
+            response.getOutputStream().write(e.getResponseBodyAsByteArray());
+        }
+    }
+
+    private static void copy(InputStream in, OutputStream out) throws IOException {
+        byte[] buffer = new byte[8192];
+        int read;
+        while ((read = in.read(buffer)) != -1) {
+            out.write(buffer, 0, read);
+            out.flush();
+        }
+    }
+
     private <T> ResponseEntity<Object> makeAndSendRequest(HttpMethod method, String path, Long userId, @Nullable Map<String, Object> parameters, @Nullable T body) {
-        HttpEntity<T> requestEntity = new HttpEntity<>(body, defaultHeaders(userId));
+        return sendRequest(method, path, defaultHeaders(userId), parameters, body);
+    }
+
+    private <T> ResponseEntity<Object> sendRequest(HttpMethod method, String path, HttpHeaders headers, @Nullable Map<String, Object> parameters, @Nullable T body) {
+        HttpEntity<T> requestEntity = new HttpEntity<>(body, headers);
 
         ResponseEntity<Object> shareitServerResponse;
         try {
@@ -1,5 +1,6 @@
 package ru.practicum.shareit.exception;
 
+import jakarta.validation.ConstraintViolationException;
 import org.springframework.http.HttpStatus;
 import org.springframework.web.bind.MethodArgumentNotValidException;
 import org.springframework.web.bind.annotation.ExceptionHandler;
@@ -17,5 +18,12 @@ public class ErrorHandler {
         return Map.of("error", "Ошибка валидации",
                 "errorMessage", e.getMessage());
     }
+
+    @ExceptionHandler
+    @ResponseStatus(HttpStatus.BAD_REQUEST)//400
+    public Map<String, String> handleConstraintViolationException(final ConstraintViolationException e) {
+        return Map.of("error", "Ошибка валидации",
+                "errorMessage", e.getMessage());
+    }
 // тесты постмана отрабатывают нормально и с ErrorHandler, и без него
 }
\ No newline at end of file
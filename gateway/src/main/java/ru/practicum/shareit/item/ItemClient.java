@@ -12,6 +12,8 @@ import ru.practicum.shareit.item.dto.NewItemRequest;
 import ru.practicum.shareit.user.dto.NewCommentRequest;
 import ru.practicum.shareit.user.dto.UpdateItemRequest;
 
+import java.time.LocalDateTime;
+import java.util.HashMap;
 import java.util.Map;
 
 @Service
@@ -28,8 +30,8 @@ public class ItemClient extends BaseClient {
         );
     }
 
-    public ResponseEntity<Object> createItem(long userId, NewItemRequest requestDto) {
-        return post("", userId, requestDto);
+    public ResponseEntity<Object> createItem(long userId, NewItemRequest requestDto, String idempotencyKey) {
+        return post("", userId, requestDto, idempotencyKey);
     }
 
 
@@ -45,14 +47,36 @@ public class ItemClient extends BaseClient {
         return get("/" + itemId);
     }
 
-    public ResponseEntity<Object> searchItems(long userId, String text) {
+    public ResponseEntity<Object> getAvailability(long itemId, LocalDateTime from, LocalDateTime to) {
         Map<String, Object> parameters = Map.of(
-                "text", text
+                "from", from,
+                "to", to
         );
-        return get("/search" + "?text={text}", userId, parameters);
+        return get("/" + itemId + "/availability?from={from}&to={to}", null, parameters);
     }
 
-    public ResponseEntity<Object> createComment(long userId, long itemId, NewCommentRequest requestDto) {
-        return post("/" + itemId + "/comment", userId, requestDto);
+    public ResponseEntity<Object> searchItems(long userId, String text, LocalDateTime start, LocalDateTime end, int from, Integer size) {
+        Map<String, Object> parameters = new HashMap<>();
+        parameters.put("text", text);
+        parameters.put("from", from);
+        String path = "/search?text={text}&from={from}";
+        //без size сервер отдаёт все найденные вещи
+        if (size != null) {
+            parameters.put("size", size);
+            path += "&size={size}";
+        }
+        if (start != null) {
+            parameters.put("start", start);
+            path += "&start={start}";
+        }
+        if (end != null) {
+            parameters.put("end", end);
+            path += "&end={end}";
+        }
+        return get(path, userId, parameters);
+    }
+
+    public ResponseEntity<Object> createComment(long userId, long itemId, NewCommentRequest requestDto, String idempotencyKey) {
+        return post("/" + itemId + "/comment", userId, requestDto, idempotencyKey);
     }
 }
\ No newline at end of file
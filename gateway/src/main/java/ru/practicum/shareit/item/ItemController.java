@@ -1,8 +1,12 @@
 package ru.practicum.shareit.item;
 
 import jakarta.validation.Valid;
+import jakarta.validation.constraints.Positive;
+import jakarta.validation.constraints.PositiveOrZero;
+import jakarta.validation.constraints.Size;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.format.annotation.DateTimeFormat;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.stereotype.Controller;
@@ -20,6 +24,7 @@ import ru.practicum.shareit.item.dto.NewItemRequest;
 import ru.practicum.shareit.user.dto.NewCommentRequest;
 import ru.practicum.shareit.user.dto.UpdateItemRequest;
 
+import java.time.LocalDateTime;
 
 @Controller
 @RequestMapping(path = "/items")
@@ -32,9 +37,10 @@ public class ItemController {
     @PostMapping
     @ResponseStatus(HttpStatus.CREATED)
     public ResponseEntity<Object> createItem(@RequestHeader("X-Sharer-User-Id") long userId,
+                                             @RequestHeader(name = ItemClient.IDEMPOTENCY_KEY, required = false) @Size(max = 255) String idempotencyKey,
                                              @RequestBody @Valid NewItemRequest requestDto) {
         log.info("Creating booking {}, userId={}", requestDto, userId);
-        return itemClient.createItem(userId, requestDto);
+        return itemClient.createItem(userId, requestDto, idempotencyKey);
     }
 
     @PatchMapping("/{itemId}")
@@ -57,19 +63,32 @@ public class ItemController {
         return itemClient.getItemById(itemId);
     }
 
+    @GetMapping("/{itemId}/availability")
+    public ResponseEntity<Object> getAvailability(@PathVariable("itemId") long itemId,
+                                                  @RequestParam("from") @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime from,
+                                                  @RequestParam("to") @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime to) {
+        log.info("Get availability of item {} from {} to {}", itemId, from, to);
+        return itemClient.getAvailability(itemId, from, to);
+    }
+
     @GetMapping("/search")
     public ResponseEntity<Object> searchItems(@RequestHeader("X-Sharer-User-Id") long userId,
-                                              @RequestParam("text") String text) {
-        log.info("Get items with text {}", text);
-        return itemClient.searchItems(userId, text);
+                                              @RequestParam("text") String text,
+                                              @RequestParam(name = "start", required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime start,
+                                              @RequestParam(name = "end", required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime end,
+                                              @RequestParam(name = "from", defaultValue = "0") @PositiveOrZero int from,
+                                              @RequestParam(name = "size", required = false) @Positive Integer size) {
+        log.info("Get items with text {}, start={}, end={}, from={}, size={}", text, start, end, from, size);
+        return itemClient.searchItems(userId, text, start, end, from, size);
     }
 
     @PostMapping("/{itemId}/comment")
     @ResponseStatus(HttpStatus.CREATED)
     public ResponseEntity<Object> createComment(@RequestHeader("X-Sharer-User-Id") long userId,
+                                                @RequestHeader(name = ItemClient.IDEMPOTENCY_KEY, required = false) @Size(max = 255) String idempotencyKey,
                                                 @PathVariable("itemId") long itemId,
                                                 @RequestBody @Valid NewCommentRequest requestDto) {
         log.info("Creating comment {}, itemId{}, userId={}", requestDto, itemId, userId);
-        return itemClient.createComment(userId, itemId, requestDto);
+        return itemClient.createComment(userId, itemId, requestDto, idempotencyKey);
     }
 }
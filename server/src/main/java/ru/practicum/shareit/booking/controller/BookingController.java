@@ -1,8 +1,10 @@
 package ru.practicum.shareit.booking.controller;
 
+import jakarta.servlet.http.HttpServletResponse;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.PatchMapping;
 import org.springframework.web.bind.annotation.PathVariable;
@@ -13,11 +15,20 @@ import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.ResponseStatus;
 import org.springframework.web.bind.annotation.RestController;
+import ru.practicum.shareit.booking.dto.BookingCursor;
+import ru.practicum.shareit.booking.dto.BookingDecision;
+import ru.practicum.shareit.booking.dto.BookingDecisionResult;
 import ru.practicum.shareit.booking.dto.BookingDto;
+import ru.practicum.shareit.booking.dto.BookingHoldDto;
 import ru.practicum.shareit.booking.dto.NewBookingRequest;
+import ru.practicum.shareit.booking.model.State;
 import ru.practicum.shareit.booking.service.BookingService;
+import ru.practicum.shareit.booking.service.BookingStreamService;
+import ru.practicum.shareit.idempotency.service.IdempotencyService;
 
+import java.io.IOException;
 import java.util.List;
+import java.util.Map;
 
 /**
  * TODO Sprint add-bookings.
@@ -28,13 +39,33 @@ import java.util.List;
 @RequestMapping(path = "/bookings")
 public class BookingController {
     private final BookingService bookingService;
+    private final BookingStreamService bookingStreamService;
+    private final IdempotencyService idempotencyService;
 
     @PostMapping
     @ResponseStatus(HttpStatus.CREATED)
     public BookingDto createBooking(@RequestHeader("X-Sharer-User-Id") long userId,
+                                    @RequestHeader(name = IdempotencyService.HEADER, required = false) String idempotencyKey,
                                     @RequestBody NewBookingRequest request) {
         log.info("Вызван эндпоинт создания бронирования");
-        return bookingService.createBooking(userId, request);
+        return idempotencyService.execute(userId, idempotencyKey, "POST /bookings", request, BookingDto.class,
+                () -> bookingService.createBooking(userId, request));
+    }
+
+    @PostMapping("/holds")
+    @ResponseStatus(HttpStatus.CREATED)
+    public BookingHoldDto holdBooking(@RequestHeader("X-Sharer-User-Id") long userId,
+                                      @RequestBody NewBookingRequest request) {
+        log.info("Вызван эндпоинт удержания вещи с ID {}", request.getItemId());
+        return bookingService.holdBooking(userId, request);
+    }
+
+    @PostMapping("/batch")
+    @ResponseStatus(HttpStatus.CREATED)
+    public List<BookingDto> createBookings(@RequestHeader("X-Sharer-User-Id") long userId,
+                                           @RequestBody List<NewBookingRequest> requests) {
+        log.info("Вызван эндпоинт пакетного создания {} бронирований", requests.size());
+        return bookingService.createBookings(userId, requests);
     }
 
     @PatchMapping("/{bookingId}")
@@ -45,6 +76,20 @@ public class BookingController {
         return bookingService.approveBooking(userId, bookingId, approved);
     }
 
+    @PatchMapping("/{bookingId}/cancel")
+    public BookingDto cancelBooking(@RequestHeader("X-Sharer-User-Id") long userId,
+                                    @PathVariable("bookingId") long bookingId) {
+        log.info("Вызван эндпоинт отмены бронирования с ID {}", bookingId);
+        return bookingService.cancelBooking(userId, bookingId);
+    }
+
+    @PatchMapping("/batch")
+    public List<BookingDecisionResult> approveBookings(@RequestHeader("X-Sharer-User-Id") long userId,
+                                                       @RequestBody List<BookingDecision> decisions) {
+        log.info("Вызван эндпоинт пакетного подтверждения {} бронирований", decisions.size());
+        return bookingService.approveBookings(userId, decisions);
+    }
+
     @GetMapping("/{bookingId}")
     public BookingDto getBookingById(@RequestHeader("X-Sharer-User-Id") long userId,
                                      @PathVariable("bookingId") long bookingId) {
@@ -53,16 +98,62 @@ public class BookingController {
     }
 
     @GetMapping
-    public List<BookingDto> getBookingsByBookerId(@RequestHeader("X-Sharer-User-Id") long userId,
-                                                  @RequestParam(name = "state", required = false, defaultValue = "ALL") String state) {
+    public ResponseEntity<List<BookingDto>> getBookingsByBookerId(@RequestHeader("X-Sharer-User-Id") long userId,
+                                                                  @RequestParam(name = "state", required = false, defaultValue = "ALL") String state,
+                                                                  @RequestParam(name = "from", defaultValue = "0") int from,
+                                                                  @RequestParam(name = "size", required = false) Integer size,
+                                                                  @RequestParam(name = "cursor", required = false) String cursor) {
         log.info("Вызван эндпоинт получения бронирований пользователя с ID {}", userId);
-        return bookingService.getBookingsByBookerId(userId, state);
+        return withNextCursor(bookingService.getBookingsByBookerId(userId, state, from, size, cursor), size);
     }
 
     @GetMapping("/owner")
-    public List<BookingDto> getBookingsByOwnerId(@RequestHeader("X-Sharer-User-Id") long userId,
-                                                 @RequestParam(name = "state", required = false, defaultValue = "ALL") String state) {
+    public ResponseEntity<List<BookingDto>> getBookingsByOwnerId(@RequestHeader("X-Sharer-User-Id") long userId,
+                                                                 @RequestParam(name = "state", required = false, defaultValue = "ALL") String state,
+                                                                 @RequestParam(name = "from", defaultValue = "0") int from,
+                                                                 @RequestParam(name = "size", required = false) Integer size,
+                                                                 @RequestParam(name = "cursor", required = false) String cursor) {
         log.info("Вызван эндпоинт получения бронирований вещей владельца с ID {}", userId);
-        return bookingService.getBookingsByOwnerId(userId, state);
+        return withNextCursor(bookingService.getBookingsByOwnerId(userId, state, from, size, cursor), size);
+    }
+
+    @GetMapping("/stats")
+    public Map<State, Long> getBookingStatsByBookerId(@RequestHeader("X-Sharer-User-Id") long userId) {
+        log.info("Вызван эндпоинт статистики бронирований пользователя с ID {}", userId);
+        return bookingService.getBookingStatsByBookerId(userId);
+    }
+
+    @GetMapping("/owner/stats")
+    public Map<State, Long> getBookingStatsByOwnerId(@RequestHeader("X-Sharer-User-Id") long userId) {
+        log.info("Вызван эндпоинт статистики бронирований вещей владельца с ID {}", userId);
+        return bookingService.getBookingStatsByOwnerId(userId);
+    }
+
+    @GetMapping(produces = BookingStreamService.NDJSON)
+    public void streamBookingsByBookerId(@RequestHeader("X-Sharer-User-Id") long userId,
+                                         @RequestParam(name = "state", required = false, defaultValue = "ALL") String state,
+                                         HttpServletResponse response) throws IOException {
+        log.info("Вызван эндпоинт выгрузки бронирований пользователя с ID {}", userId);
+        response.setContentType(BookingStreamService.NDJSON);
+        bookingStreamService.streamBookingsByBookerId(userId, state, response.getOutputStream());
+    }
+
+    @GetMapping(path = "/owner", produces = BookingStreamService.NDJSON)
+    public void streamBookingsByOwnerId(@RequestHeader("X-Sharer-User-Id") long userId,
+                                        @RequestParam(name = "state", required = false, defaultValue = "ALL") String state,
+                                        HttpServletResponse response) throws IOException {
+        log.info("Вызван эндпоинт выгрузки бронирований вещей владельца с ID {}", userId);
+        response.setContentType(BookingStreamService.NDJSON);
+        bookingStreamService.streamBookingsByOwnerId(userId, state, response.getOutputStream());
+    }
+
+    //курсор следующей порции отдаём в заголовке, чтобы тело ответа осталось массивом;
+    //без size список отдаётся целиком и курсор не нужен
+    private static ResponseEntity<List<BookingDto>> withNextCursor(List<BookingDto> bookings, Integer size) {
+        ResponseEntity.BodyBuilder response = ResponseEntity.ok();
+        if (size != null && !bookings.isEmpty() && bookings.size() == size) {
+            response.header(BookingCursor.HEADER, BookingCursor.after(bookings.getLast()).encode());
+        }
+        return response.body(bookings);
     }
 }
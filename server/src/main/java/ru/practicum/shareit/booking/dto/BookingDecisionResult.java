@@ -0,0 +1,19 @@
+package ru.practicum.shareit.booking.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import ru.practicum.shareit.booking.model.Status;
+
+/**
+ * Итог решения по одному бронированию из пакета: новый статус либо причина отказа
+ * (тогда статус остаётся прежним или отсутствует, если бронирования нет).
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class BookingDecisionResult {
+    private long bookingId;
+    private Status status;
+    private String error;
+}
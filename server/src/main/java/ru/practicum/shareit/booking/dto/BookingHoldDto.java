@@ -0,0 +1,21 @@
+package ru.practicum.shareit.booking.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+/**
+ * Удержание вещи на интервал: токен передаётся в holdToken при создании бронирования до expiresAt.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class BookingHoldDto {
+    private String token;
+    private long itemId;
+    private LocalDateTime start;
+    private LocalDateTime end;
+    private LocalDateTime expiresAt;
+}
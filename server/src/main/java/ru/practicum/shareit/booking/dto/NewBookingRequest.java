@@ -14,4 +14,9 @@ public class NewBookingRequest {
     private LocalDateTime start;
     private LocalDateTime end;
     private long itemId;
+    private String holdToken;
+
+    public NewBookingRequest(LocalDateTime start, LocalDateTime end, long itemId) {
+        this(start, end, itemId, null);
     }
+}
@@ -3,13 +3,22 @@ package ru.practicum.shareit.booking.mapper;
 import lombok.AccessLevel;
 import lombok.NoArgsConstructor;
 import ru.practicum.shareit.booking.dto.BookingDto;
+import ru.practicum.shareit.booking.dto.BookingHoldDto;
 import ru.practicum.shareit.booking.dto.NewBookingRequest;
+import ru.practicum.shareit.booking.model.ArchivedBooking;
 import ru.practicum.shareit.booking.model.Booking;
+import ru.practicum.shareit.booking.model.BookingHold;
+import ru.practicum.shareit.booking.model.OwnerBooking;
+import ru.practicum.shareit.booking.model.Phase;
+import ru.practicum.shareit.item.dto.ItemDto;
 import ru.practicum.shareit.item.mapper.ItemMapper;
 import ru.practicum.shareit.item.model.Item;
+import ru.practicum.shareit.user.dto.UserDto;
 import ru.practicum.shareit.user.mapper.UserMapper;
 import ru.practicum.shareit.user.model.User;
 
+import java.time.LocalDateTime;
+
 @NoArgsConstructor(access = AccessLevel.PRIVATE)
 public final class BookingMapper {
 
@@ -19,6 +28,7 @@ public final class BookingMapper {
         booking.setEnd(request.getEnd());
         booking.setBooker(booker);
         booking.setItem(item);
+        booking.setPhase(Phase.at(request.getStart(), request.getEnd(), LocalDateTime.now()));
         return booking;
     }
 
@@ -32,4 +42,63 @@ public final class BookingMapper {
         dto.setStatus(booking.getStatus());
         return dto;
     }
+
+    public static BookingDto mapToBookingDto(ArchivedBooking booking) {
+        BookingDto dto = new BookingDto();
+        dto.setId(booking.getId());
+        dto.setStart(booking.getStart());
+        dto.setEnd(booking.getEnd());
+        dto.setItem(ItemMapper.mapToItemDto(booking.getItem()));
+        dto.setBooker(UserMapper.mapToUserDto(booking.getBooker()));
+        dto.setStatus(booking.getStatus());
+        return dto;
+    }
+
+    public static OwnerBooking mapToOwnerBooking(Booking booking) {
+        Item item = booking.getItem();
+        User booker = booking.getBooker();
+        OwnerBooking ownerBooking = new OwnerBooking();
+        ownerBooking.setBookingId(booking.getId());
+        ownerBooking.setOwnerId(item.getOwner().getId());
+        ownerBooking.setStart(booking.getStart());
+        ownerBooking.setEnd(booking.getEnd());
+        ownerBooking.setStatus(booking.getStatus());
+        ownerBooking.setPhase(booking.getPhase());
+        ownerBooking.setItemId(item.getId());
+        ownerBooking.setItemName(item.getName());
+        ownerBooking.setItemDescription(item.getDescription());
+        ownerBooking.setItemAvailable(item.getAvailable());
+        if (item.getRequest() != null) {
+            ownerBooking.setItemRequestId(item.getRequest().getId());
+        }
+        ownerBooking.setBookerId(booker.getId());
+        ownerBooking.setBookerName(booker.getName());
+        ownerBooking.setBookerEmail(booker.getEmail());
+        return ownerBooking;
+    }
+
+    public static BookingDto mapToBookingDto(OwnerBooking ownerBooking) {
+        ItemDto item = new ItemDto();
+        item.setId(ownerBooking.getItemId());
+        item.setName(ownerBooking.getItemName());
+        item.setDescription(ownerBooking.getItemDescription());
+        item.setAvailable(ownerBooking.getItemAvailable());
+        item.setOwnerId(ownerBooking.getOwnerId());
+        if (ownerBooking.getItemRequestId() != null) {
+            item.setRequestId(ownerBooking.getItemRequestId());
+        }
+
+        BookingDto dto = new BookingDto();
+        dto.setId(ownerBooking.getBookingId());
+        dto.setStart(ownerBooking.getStart());
+        dto.setEnd(ownerBooking.getEnd());
+        dto.setItem(item);
+        dto.setBooker(new UserDto(ownerBooking.getBookerId(), ownerBooking.getBookerName(), ownerBooking.getBookerEmail()));
+        dto.setStatus(ownerBooking.getStatus());
+        return dto;
+    }
+
+    public static BookingHoldDto mapToBookingHoldDto(BookingHold hold) {
+        return new BookingHoldDto(hold.token(), hold.itemId(), hold.start(), hold.end(), hold.expiresAt());
+    }
 }
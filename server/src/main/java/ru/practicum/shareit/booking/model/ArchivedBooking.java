@@ -0,0 +1,59 @@
+package ru.practicum.shareit.booking.model;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.EnumType;
+import jakarta.persistence.Enumerated;
+import jakarta.persistence.FetchType;
+import jakarta.persistence.Id;
+import jakarta.persistence.ManyToOne;
+import jakarta.persistence.NamedAttributeNode;
+import jakarta.persistence.NamedEntityGraph;
+import jakarta.persistence.NamedSubgraph;
+import jakarta.persistence.Table;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import lombok.ToString;
+import ru.practicum.shareit.item.model.Item;
+import ru.practicum.shareit.user.model.User;
+
+import java.time.LocalDateTime;
+
+/**
+ * Завершённое бронирование, перенесённое из bookings в холодный слой bookings_archive.
+ * ID сохраняется прежним, поэтому ссылки на бронирование остаются действительными.
+ */
+@Entity
+@Table(name = "bookings_archive")
+@NamedEntityGraph(name = "ArchivedBooking.details", attributeNodes = {
+        @NamedAttributeNode(value = "item", subgraph = "item"),
+        @NamedAttributeNode("booker")
+}, subgraphs = @NamedSubgraph(name = "item", attributeNodes = {
+        @NamedAttributeNode("owner"),
+        @NamedAttributeNode("request")
+}))
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class ArchivedBooking {
+    @Id
+    private long id;
+
+    @Column(name = "start_date")
+    private LocalDateTime start;
+
+    @Column(name = "end_date")
+    private LocalDateTime end;
+
+    @ManyToOne(fetch = FetchType.LAZY)
+    @ToString.Exclude
+    private Item item;
+
+    @ManyToOne(fetch = FetchType.LAZY)
+    @ToString.Exclude
+    private User booker;
+
+    @Enumerated(EnumType.STRING)
+    private Status status;
+}
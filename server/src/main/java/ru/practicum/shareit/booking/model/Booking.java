@@ -9,7 +9,11 @@ import jakarta.persistence.GeneratedValue;
 import jakarta.persistence.GenerationType;
 import jakarta.persistence.Id;
 import jakarta.persistence.ManyToOne;
+import jakarta.persistence.NamedAttributeNode;
+import jakarta.persistence.NamedEntityGraph;
+import jakarta.persistence.NamedSubgraph;
 import jakarta.persistence.Table;
+import jakarta.persistence.Version;
 import lombok.AllArgsConstructor;
 import lombok.Data;
 import lombok.NoArgsConstructor;
@@ -25,6 +29,13 @@ import java.time.LocalDateTime;
  */
 @Entity
 @Table(name = "bookings")
+@NamedEntityGraph(name = "Booking.details", attributeNodes = {
+        @NamedAttributeNode(value = "item", subgraph = "item"),
+        @NamedAttributeNode("booker")
+}, subgraphs = @NamedSubgraph(name = "item", attributeNodes = {
+        @NamedAttributeNode("owner"),
+        @NamedAttributeNode("request")
+}))
 @Data
 @NoArgsConstructor
 @AllArgsConstructor
@@ -49,4 +60,14 @@ public class Booking {
 
     @Enumerated(EnumType.STRING)
     private Status status = Status.WAITING;
+
+    @Version
+    private long version;
+
+    @Enumerated(EnumType.STRING)
+    private Phase phase = Phase.UPCOMING;
+
+    public Booking(long id, LocalDateTime start, LocalDateTime end, Item item, User booker, Status status) {
+        this(id, start, end, item, booker, status, 0, Phase.UPCOMING);
+    }
 }
@@ -0,0 +1,17 @@
+package ru.practicum.shareit.booking.model;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.ToString;
+
+/**
+ * Число бронирований с одинаковыми фазой и статусом — строка агрегирующего запроса статистики.
+ */
+@Getter
+@ToString
+@AllArgsConstructor
+public class BookingGroupCount {
+    private final Phase phase;
+    private final Status status;
+    private final long count;
+}
@@ -0,0 +1,19 @@
+package ru.practicum.shareit.booking.model;
+
+import java.time.LocalDateTime;
+
+/**
+ * Удержание вещи на интервал до expiresAt; живёт только в памяти.
+ */
+public record BookingHold(String token, long bookerId, long itemId,
+                          LocalDateTime start, LocalDateTime end, LocalDateTime expiresAt) {
+
+    //интервалы полуоткрытые [start, end), как в индексе интервалов
+    public boolean overlaps(LocalDateTime otherStart, LocalDateTime otherEnd) {
+        return start.isBefore(otherEnd) && end.isAfter(otherStart);
+    }
+
+    public boolean isExpired(LocalDateTime now) {
+        return !expiresAt.isAfter(now);
+    }
+}
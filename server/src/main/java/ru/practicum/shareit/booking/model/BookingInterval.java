@@ -0,0 +1,19 @@
+package ru.practicum.shareit.booking.model;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.ToString;
+
+import java.time.LocalDateTime;
+
+/**
+ * Интервал бронирования без связанных сущностей — всё, что нужно для проверки пересечений.
+ */
+@Getter
+@ToString
+@AllArgsConstructor
+public class BookingInterval {
+    private final long id;
+    private final LocalDateTime start;
+    private final LocalDateTime end;
+}
@@ -0,0 +1,19 @@
+package ru.practicum.shareit.booking.model;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+/**
+ * Начало последнего уже начавшегося и ближайшего будущего подтверждённого бронирования вещи.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class ItemBookingDates {
+    private long itemId;
+    private LocalDateTime lastBooking;
+    private LocalDateTime nextBooking;
+}
@@ -0,0 +1,20 @@
+package ru.practicum.shareit.booking.model;
+
+import lombok.Getter;
+import lombok.ToString;
+
+import java.time.LocalDateTime;
+
+/**
+ * Интервал бронирования вместе с ID вещи — чтобы интервалы нескольких вещей читались одним запросом.
+ */
+@Getter
+@ToString(callSuper = true)
+public class ItemBookingInterval extends BookingInterval {
+    private final long itemId;
+
+    public ItemBookingInterval(long id, long itemId, LocalDateTime start, LocalDateTime end) {
+        super(id, start, end);
+        this.itemId = itemId;
+    }
+}
@@ -0,0 +1,66 @@
+package ru.practicum.shareit.booking.model;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.EnumType;
+import jakarta.persistence.Enumerated;
+import jakarta.persistence.Id;
+import jakarta.persistence.Table;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+/**
+ * Строка модели чтения для владельца: бронирование вместе с данными вещи и автора,
+ * чтобы список бронирований владельца читался из одной таблицы без соединений.
+ * Поддерживается синхронно при изменении бронирований, вещей и пользователей.
+ */
+@Entity
+@Table(name = "owner_bookings")
+@Data
+@NoArgsConstructor
+public class OwnerBooking {
+    @Id
+    @Column(name = "booking_id")
+    private long bookingId;
+
+    @Column(name = "owner_id")
+    private long ownerId;
+
+    @Column(name = "start_date")
+    private LocalDateTime start;
+
+    @Column(name = "end_date")
+    private LocalDateTime end;
+
+    @Enumerated(EnumType.STRING)
+    private Status status;
+
+    @Enumerated(EnumType.STRING)
+    private Phase phase;
+
+    @Column(name = "item_id")
+    private long itemId;
+
+    @Column(name = "item_name")
+    private String itemName;
+
+    @Column(name = "item_description")
+    private String itemDescription;
+
+    @Column(name = "item_available")
+    private Boolean itemAvailable;
+
+    @Column(name = "item_request_id")
+    private Long itemRequestId;
+
+    @Column(name = "booker_id")
+    private long bookerId;
+
+    @Column(name = "booker_name")
+    private String bookerName;
+
+    @Column(name = "booker_email")
+    private String bookerEmail;
+}
@@ -0,0 +1,17 @@
+package ru.practicum.shareit.booking.model;
+
+import java.time.LocalDateTime;
+
+public enum Phase {
+    UPCOMING, ACTIVE, FINISHED;
+    //UPCOMING — бронирование ещё не началось,
+    //ACTIVE — идёт сейчас (start <= now <= end),
+    //FINISHED — уже закончилось (end < now).
+
+    public static Phase at(LocalDateTime start, LocalDateTime end, LocalDateTime now) {
+        if (end.isBefore(now)) {
+            return FINISHED;
+        }
+        return start.isAfter(now) ? UPCOMING : ACTIVE;
+    }
+}
@@ -0,0 +1,65 @@
+package ru.practicum.shareit.booking.repository;
+
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.EntityGraph;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import ru.practicum.shareit.booking.model.ArchivedBooking;
+import ru.practicum.shareit.booking.model.BookingGroupCount;
+import ru.practicum.shareit.booking.model.Status;
+
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
+
+/**
+ * Холодный слой завершённых бронирований. Списки читаются в том же порядке (start, id) и с той же
+ * позицией курсора, что и в {@link BookingRepository}, чтобы их можно было слить с горячим слоем.
+ * Списки владельца идут через items(owner_id) и bookings_archive(item_id, start_date, id).
+ */
+public interface ArchivedBookingRepository extends JpaRepository<ArchivedBooking, Long> {
+    String ARCHIVED_BOOKING_DETAILS = "ArchivedBooking.details";
+
+    @EntityGraph(ARCHIVED_BOOKING_DETAILS)
+    @Query("select a from ArchivedBooking a where a.id = ?1")
+    Optional<ArchivedBooking> findWithDetailsById(long id);
+
+    @EntityGraph(ARCHIVED_BOOKING_DETAILS)
+    @Query("select a from ArchivedBooking a where a.booker.id = ?1 " +
+            "and (a.start > ?2 or a.start = ?2 and a.id > ?3) order by a.start, a.id")
+    List<ArchivedBooking> findBookerBookings(long bookerId, LocalDateTime afterStart, long afterId, Pageable page);
+
+    @EntityGraph(ARCHIVED_BOOKING_DETAILS)
+    @Query("select a from ArchivedBooking a where a.item.owner.id = ?1 " +
+            "and (a.start > ?2 or a.start = ?2 and a.id > ?3) order by a.start, a.id")
+    List<ArchivedBooking> findOwnerBookings(long ownerId, LocalDateTime afterStart, long afterId, Pageable page);
+
+    @EntityGraph(ARCHIVED_BOOKING_DETAILS)
+    @Query("select a from ArchivedBooking a where a.booker.id = ?1 and a.status = ?2 " +
+            "and (a.start > ?3 or a.start = ?3 and a.id > ?4) order by a.start, a.id")
+    List<ArchivedBooking> findBookerBookingsByStatus(long bookerId, Status status, LocalDateTime afterStart, long afterId, Pageable page);
+
+    @EntityGraph(ARCHIVED_BOOKING_DETAILS)
+    @Query("select a from ArchivedBooking a where a.item.owner.id = ?1 and a.status = ?2 " +
+            "and (a.start > ?3 or a.start = ?3 and a.id > ?4) order by a.start, a.id")
+    List<ArchivedBooking> findOwnerBookingsByStatus(long ownerId, Status status, LocalDateTime afterStart, long afterId, Pageable page);
+
+    boolean existsByBookerIdAndItemIdAndStatus(long bookerId, long itemId, Status status);
+
+    @Query("select new ru.practicum.shareit.booking.model.BookingGroupCount(" +
+            "ru.practicum.shareit.booking.model.Phase.FINISHED, a.status, count(a)) " +
+            "from ArchivedBooking a where a.booker.id = ?1 group by a.status")
+    List<BookingGroupCount> countBookerBookings(long bookerId);
+
+    @Query("select new ru.practicum.shareit.booking.model.BookingGroupCount(" +
+            "ru.practicum.shareit.booking.model.Phase.FINISHED, a.status, count(a)) " +
+            "from ArchivedBooking a where a.item.owner.id = ?1 group by a.status")
+    List<BookingGroupCount> countOwnerBookings(long ownerId);
+
+    @Modifying(flushAutomatically = true)
+    @Query(value = "insert into bookings_archive (id, start_date, end_date, item_id, booker_id, status) " +
+            "select id, start_date, end_date, item_id, booker_id, status from bookings where id in (?1)", nativeQuery = true)
+    int copyFromBookings(Collection<Long> ids);
+}
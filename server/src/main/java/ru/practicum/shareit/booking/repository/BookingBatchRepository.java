@@ -0,0 +1,86 @@
+package ru.practicum.shareit.booking.repository;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.jdbc.core.BatchPreparedStatementSetter;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.support.GeneratedKeyHolder;
+import org.springframework.jdbc.support.KeyHolder;
+import org.springframework.stereotype.Repository;
+import ru.practicum.shareit.booking.model.Booking;
+import ru.practicum.shareit.booking.model.OwnerBooking;
+
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.sql.Types;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Пакетная вставка бронирований одним JDBC batch вместо отдельного INSERT на каждое.
+ * Работает в транзакции вызывающего кода, поэтому пакет фиксируется или откатывается целиком.
+ */
+@Repository
+@RequiredArgsConstructor
+public class BookingBatchRepository {
+    private static final String INSERT_BOOKING = "insert into bookings " +
+            "(start_date, end_date, item_id, booker_id, status, version, phase) values (?, ?, ?, ?, ?, ?, ?)";
+    private static final String INSERT_OWNER_BOOKING = "insert into owner_bookings (booking_id, owner_id, start_date, " +
+            "end_date, status, phase, item_id, item_name, item_description, item_available, item_request_id, " +
+            "booker_id, booker_name, booker_email) values (?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?)";
+
+    private final JdbcTemplate jdbcTemplate;
+
+    /**
+     * Вставляет бронирования и проставляет им сгенерированные ID.
+     */
+    public void insertAll(List<Booking> bookings) {
+        KeyHolder keyHolder = new GeneratedKeyHolder();
+        jdbcTemplate.batchUpdate(connection -> connection.prepareStatement(INSERT_BOOKING, new String[]{"id"}),
+                new BatchPreparedStatementSetter() {
+                    @Override
+                    public void setValues(PreparedStatement ps, int i) throws SQLException {
+                        Booking booking = bookings.get(i);
+                        ps.setTimestamp(1, Timestamp.valueOf(booking.getStart()));
+                        ps.setTimestamp(2, Timestamp.valueOf(booking.getEnd()));
+                        ps.setLong(3, booking.getItem().getId());
+                        ps.setLong(4, booking.getBooker().getId());
+                        ps.setString(5, booking.getStatus().name());
+                        ps.setLong(6, booking.getVersion());
+                        ps.setString(7, booking.getPhase().name());
+                    }
+
+                    @Override
+                    public int getBatchSize() {
+                        return bookings.size();
+                    }
+                }, keyHolder);
+        List<Map<String, Object>> keys = keyHolder.getKeyList();
+        for (int i = 0; i < bookings.size(); i++) {
+            bookings.get(i).setId(((Number) keys.get(i).values().iterator().next()).longValue());
+        }
+    }
+
+    public void insertOwnerBookings(List<OwnerBooking> ownerBookings) {
+        jdbcTemplate.batchUpdate(INSERT_OWNER_BOOKING, ownerBookings, ownerBookings.size(), (ps, ownerBooking) -> {
+            ps.setLong(1, ownerBooking.getBookingId());
+            ps.setLong(2, ownerBooking.getOwnerId());
+            ps.setTimestamp(3, Timestamp.valueOf(ownerBooking.getStart()));
+            ps.setTimestamp(4, Timestamp.valueOf(ownerBooking.getEnd()));
+            ps.setString(5, ownerBooking.getStatus().name());
+            ps.setString(6, ownerBooking.getPhase().name());
+            ps.setLong(7, ownerBooking.getItemId());
+            ps.setString(8, ownerBooking.getItemName());
+            ps.setString(9, ownerBooking.getItemDescription());
+            ps.setBoolean(10, ownerBooking.getItemAvailable());
+            if (ownerBooking.getItemRequestId() == null) {
+                ps.setNull(11, Types.BIGINT);
+            } else {
+                ps.setLong(11, ownerBooking.getItemRequestId());
+            }
+            ps.setLong(12, ownerBooking.getBookerId());
+            ps.setString(13, ownerBooking.getBookerName());
+            ps.setString(14, ownerBooking.getBookerEmail());
+        });
+    }
+}
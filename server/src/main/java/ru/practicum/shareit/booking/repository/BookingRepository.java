@@ -1,45 +1,115 @@
 package ru.practicum.shareit.booking.repository;
 
-import org.springframework.data.domain.Sort;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
 import ru.practicum.shareit.booking.model.Booking;
+import ru.practicum.shareit.booking.model.BookingGroupCount;
+import ru.practicum.shareit.booking.model.BookingInterval;
+import ru.practicum.shareit.booking.model.ItemBookingInterval;
+import ru.practicum.shareit.booking.model.Phase;
 import ru.practicum.shareit.booking.model.Status;
-import ru.practicum.shareit.item.model.Item;
 
 import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
-
-
+import java.util.Optional;
+
+/**
+ * Списки бронирований читаются порциями после позиции (afterStart, afterId) в порядке (start, id),
+ * которому соответствуют индексы bookings(booker_id, start_date, id) и bookings(booker_id, phase, start_date, id).
+ * Вещь, её владелец и запрос, а также автор бронирования подтягиваются в том же запросе,
+ * поэтому страница любого размера читается одним запросом.
+ * Списки владельца читаются из модели чтения, см. {@link OwnerBookingRepository}.
+ */
 public interface BookingRepository extends JpaRepository<Booking, Long> {
+    // всё, что нужно BookingMapper, загружается одним запросом вместе с бронированиями
+    String BOOKING_DETAILS = "Booking.details";
 
-    @Query("select b from Booking b where b.item = ?1 and b.start <= ?2 and b.end >= ?3")
-    List<Booking> findCrossedBookingsByItem(Item item, LocalDateTime requestEnd, LocalDateTime requestStart);
-
-    List<Booking> findBookingsByBookerIdAndItemIdAndStatusAndEndIsBefore(long bookerId, long itemId, Status status, LocalDateTime now);
+    // статусы заданы литералами, чтобы условие совпадало с частичным индексом idx_bookings_item_active
+    String ACTIVE = "b.status in (ru.practicum.shareit.booking.model.Status.WAITING, ru.practicum.shareit.booking.model.Status.APPROVED)";
 
-    //List<Booking> findAllBookingsByBookerIdOrderByStartDesc(long bookerId);
+    @Query("select new ru.practicum.shareit.booking.model.BookingInterval(b.id, b.start, b.end) from Booking b " +
+            "where b.item.id = ?1 and " + ACTIVE + " order by b.start, b.id")
+    List<BookingInterval> findActiveIntervalsByItemId(long itemId);
 
-    List<Booking> findAllBookingsByBookerId(long bookerId, Sort sort);//через sort правильно сделала реализацию?
+    @Query("select new ru.practicum.shareit.booking.model.ItemBookingInterval(b.id, b.item.id, b.start, b.end) from Booking b " +
+            "where b.item.id in ?1 and " + ACTIVE + " order by b.start, b.id")
+    List<ItemBookingInterval> findActiveIntervalsByItemIdIn(Collection<Long> itemIds);
 
-    @Query("select b from Booking as b where b.booker.id = ?1 and CURRENT_TIMESTAMP between b.start and b.end order by b.start desc")
-    List<Booking> findCurrentBookingsByBookerIdOrderByStartDesc(long bookerId);
+    // вещи с активными бронированиями, пересекающими окно [start, end)
+    @Query("select distinct b.item.id from Booking b where " + ACTIVE + " and b.start < ?2 and b.end > ?1")
+    List<Long> findBookedItemIds(LocalDateTime start, LocalDateTime end);
 
-    List<Booking> findBookingsByBookerIdAndStartIsAfterOrderByStartDesc(long bookerId, LocalDateTime now);
+    @Query("select b from Booking b join fetch b.item where b.id in ?1")
+    List<Booking> findAllWithItemByIdIn(Collection<Long> ids);
 
-    List<Booking> findBookingsByBookerIdAndEndIsBeforeOrderByStartDesc(long bookerId, LocalDateTime now);
+    @EntityGraph(BOOKING_DETAILS)
+    @Query("select b from Booking b where b.id = ?1")
+    Optional<Booking> findWithDetailsById(long id);
 
-    List<Booking> findAllBookingsByBookerIdAndStatusOrderByStartDesc(long bookerId, Status status);
+    // переход из WAITING только для той версии, которую видел вызывающий; 0 строк — кто-то успел раньше
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @Query("update Booking b set b.status = ?3, b.version = b.version + 1 where b.id = ?1 and b.version = ?2 " +
+            "and b.status = ru.practicum.shareit.booking.model.Status.WAITING")
+    int updateWaitingStatus(long id, long version, Status status);
 
-    List<Booking> findAllBookingsByItemOwnerId(long ownerId);
+    // отменить можно только своё ещё не начавшееся бронирование, ожидающее решения или подтверждённое
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @Query("update Booking b set b.status = ru.practicum.shareit.booking.model.Status.CANCELED, b.version = b.version + 1 " +
+            "where b.id = ?1 and b.booker.id = ?2 and b.start > ?3 and " + ACTIVE)
+    int cancel(long id, long bookerId, LocalDateTime now);
 
-    @Query("select b from Booking as b where b.item.owner.id = ?1 and CURRENT_TIMESTAMP between b.start and b.end")
-    List<Booking> findCurrentBookingsByOwnerId(long owner);
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @Query("update Booking b set b.status = ?2, b.version = b.version + 1 where b.id in ?1 " +
+            "and b.status = ru.practicum.shareit.booking.model.Status.WAITING")
+    int updateWaitingStatus(Collection<Long> ids, Status status);
 
-    List<Booking> findBookingsByItemOwnerIdAndStartIsAfter(long owner, LocalDateTime now);
-
-    List<Booking> findBookingsByItemOwnerIdAndEndIsBefore(long owner, LocalDateTime now);
-
-    List<Booking> findAllBookingsByItemOwnerIdAndStatus(long owner, Status status);
+    List<Booking> findBookingsByBookerIdAndItemIdAndStatusAndEndIsBefore(long bookerId, long itemId, Status status, LocalDateTime now);
 
+    @EntityGraph(BOOKING_DETAILS)
+    @Query("select b from Booking b where b.booker.id = ?1 " +
+            "and (b.start > ?2 or b.start = ?2 and b.id > ?3) order by b.start, b.id")
+    List<Booking> findBookerBookings(long bookerId, LocalDateTime afterStart, long afterId, Pageable page);
+
+    @EntityGraph(BOOKING_DETAILS)
+    @Query("select b from Booking b where b.booker.id = ?1 and b.phase = ?2 " +
+            "and (b.start > ?3 or b.start = ?3 and b.id > ?4) order by b.start, b.id")
+    List<Booking> findBookerBookingsByPhase(long bookerId, Phase phase, LocalDateTime afterStart, long afterId, Pageable page);
+
+    @EntityGraph(BOOKING_DETAILS)
+    @Query("select b from Booking b where b.booker.id = ?1 and b.status = ?2 " +
+            "and (b.start > ?3 or b.start = ?3 and b.id > ?4) order by b.start, b.id")
+    List<Booking> findBookerBookingsByStatus(long bookerId, Status status, LocalDateTime afterStart, long afterId, Pageable page);
+
+    @Query("select new ru.practicum.shareit.booking.model.BookingGroupCount(b.phase, b.status, count(b)) " +
+            "from Booking b where b.booker.id = ?1 group by b.phase, b.status")
+    List<BookingGroupCount> countBookerBookings(long bookerId);
+
+    // item не подгружается: для индекса интервалов хватает ID из прокси
+    @Query("select b from Booking b where b.end < ?1 order by b.id")
+    List<Booking> findEndedBefore(LocalDateTime threshold, Pageable page);
+
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @Query("delete from Booking b where b.id in ?1")
+    int deleteAllByIds(Collection<Long> ids);
+
+    @Query("select new ru.practicum.shareit.booking.model.BookingInterval(b.id, b.start, b.end) from Booking b where b.phase <> ?1")
+    List<BookingInterval> findIntervalsByPhaseNot(Phase phase);
+
+    @Modifying
+    @Query("update Booking b set b.phase = ?3 where b.id in ?1 and b.phase in ?2")
+    int advancePhase(Collection<Long> ids, Collection<Phase> from, Phase to);
+
+    @Modifying
+    @Query("update Booking b set b.phase = ru.practicum.shareit.booking.model.Phase.FINISHED " +
+            "where b.phase <> ru.practicum.shareit.booking.model.Phase.FINISHED and b.end < ?1")
+    int finishEndedBefore(LocalDateTime now);
+
+    @Modifying
+    @Query("update Booking b set b.phase = ru.practicum.shareit.booking.model.Phase.ACTIVE " +
+            "where b.phase = ru.practicum.shareit.booking.model.Phase.UPCOMING and b.start <= ?1 and b.end >= ?1")
+    int activateStartedBefore(LocalDateTime now);
 }
@@ -0,0 +1,55 @@
+package ru.practicum.shareit.booking.repository;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.jdbc.core.RowCallbackHandler;
+import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.stereotype.Repository;
+import ru.practicum.shareit.booking.model.ItemBookingDates;
+
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Последнее и следующее бронирования сразу для набора вещей одним запросом: row_number() внутри
+ * каждой пары (вещь, «будущее или нет») оставляет по одной строке — самое позднее из начавшихся
+ * и самое раннее из будущих. Архив участвует в запросе, его бронирования всегда в прошлом.
+ */
+@Repository
+@RequiredArgsConstructor
+public class ItemBookingDatesRepository {
+    private static final String LAST_AND_NEXT = "select item_id, start_date, upcoming from (" +
+            "select item_id, start_date, upcoming, row_number() over (partition by item_id, upcoming " +
+            "order by case when upcoming = 1 then start_date end, start_date desc) as rn from (" +
+            "select item_id, start_date, case when start_date > :now then 1 else 0 end as upcoming " +
+            "from bookings where item_id in (:itemIds) and status = 'APPROVED' " +
+            "union all " +
+            "select item_id, start_date, 0 from bookings_archive where item_id in (:itemIds) and status = 'APPROVED'" +
+            ") b) t where rn = 1";
+
+    private final NamedParameterJdbcTemplate jdbcTemplate;
+
+    public Map<Long, ItemBookingDates> findLastAndNext(Collection<Long> itemIds, LocalDateTime now) {
+        Map<Long, ItemBookingDates> dates = new HashMap<>();
+        if (itemIds.isEmpty()) {
+            return dates;
+        }
+        MapSqlParameterSource parameters = new MapSqlParameterSource()
+                .addValue("itemIds", itemIds)
+                .addValue("now", Timestamp.valueOf(now));
+        jdbcTemplate.query(LAST_AND_NEXT, parameters, (RowCallbackHandler) rs -> {
+            ItemBookingDates itemDates = dates.computeIfAbsent(rs.getLong("item_id"),
+                    itemId -> new ItemBookingDates(itemId, null, null));
+            LocalDateTime start = rs.getTimestamp("start_date").toLocalDateTime();
+            if (rs.getInt("upcoming") == 1) {
+                itemDates.setNextBooking(start);
+            } else {
+                itemDates.setLastBooking(start);
+            }
+        });
+        return dates;
+    }
+}
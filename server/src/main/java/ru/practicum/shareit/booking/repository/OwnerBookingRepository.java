@@ -0,0 +1,68 @@
+package ru.practicum.shareit.booking.repository;
+
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import ru.practicum.shareit.booking.model.BookingGroupCount;
+import ru.practicum.shareit.booking.model.OwnerBooking;
+import ru.practicum.shareit.booking.model.Phase;
+import ru.practicum.shareit.booking.model.Status;
+
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
+
+/**
+ * Списки бронирований владельца читаются из owner_bookings диапазоном индексов
+ * owner_bookings(owner_id, start_date, booking_id), owner_bookings(owner_id, status, start_date, booking_id)
+ * и owner_bookings(owner_id, phase, start_date, booking_id).
+ */
+public interface OwnerBookingRepository extends JpaRepository<OwnerBooking, Long> {
+
+    @Query("select o from OwnerBooking o where o.ownerId = ?1 " +
+            "and (o.start > ?2 or o.start = ?2 and o.bookingId > ?3) order by o.start, o.bookingId")
+    List<OwnerBooking> findOwnerBookings(long ownerId, LocalDateTime afterStart, long afterId, Pageable page);
+
+    @Query("select o from OwnerBooking o where o.ownerId = ?1 and o.phase = ?2 " +
+            "and (o.start > ?3 or o.start = ?3 and o.bookingId > ?4) order by o.start, o.bookingId")
+    List<OwnerBooking> findOwnerBookingsByPhase(long ownerId, Phase phase, LocalDateTime afterStart, long afterId, Pageable page);
+
+    @Query("select o from OwnerBooking o where o.ownerId = ?1 and o.status = ?2 " +
+            "and (o.start > ?3 or o.start = ?3 and o.bookingId > ?4) order by o.start, o.bookingId")
+    List<OwnerBooking> findOwnerBookingsByStatus(long ownerId, Status status, LocalDateTime afterStart, long afterId, Pageable page);
+
+    @Query("select new ru.practicum.shareit.booking.model.BookingGroupCount(o.phase, o.status, count(o)) " +
+            "from OwnerBooking o where o.ownerId = ?1 group by o.phase, o.status")
+    List<BookingGroupCount> countOwnerBookings(long ownerId);
+
+    @Modifying(flushAutomatically = true)
+    @Query("delete from OwnerBooking o where o.bookingId in ?1")
+    int deleteAllByBookingIds(Collection<Long> bookingIds);
+
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @Query("update OwnerBooking o set o.status = ?2 where o.bookingId in ?1")
+    int updateStatus(Collection<Long> bookingIds, Status status);
+
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @Query("update OwnerBooking o set o.itemName = ?2, o.itemDescription = ?3, o.itemAvailable = ?4 where o.itemId = ?1")
+    int updateItem(long itemId, String name, String description, Boolean available);
+
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @Query("update OwnerBooking o set o.bookerName = ?2, o.bookerEmail = ?3 where o.bookerId = ?1")
+    int updateBooker(long bookerId, String name, String email);
+
+    @Modifying
+    @Query("update OwnerBooking o set o.phase = ?3 where o.bookingId in ?1 and o.phase in ?2")
+    int advancePhase(Collection<Long> bookingIds, Collection<Phase> from, Phase to);
+
+    @Modifying
+    @Query("update OwnerBooking o set o.phase = ru.practicum.shareit.booking.model.Phase.FINISHED " +
+            "where o.phase <> ru.practicum.shareit.booking.model.Phase.FINISHED and o.end < ?1")
+    int finishEndedBefore(LocalDateTime now);
+
+    @Modifying
+    @Query("update OwnerBooking o set o.phase = ru.practicum.shareit.booking.model.Phase.ACTIVE " +
+            "where o.phase = ru.practicum.shareit.booking.model.Phase.UPCOMING and o.start <= ?1 and o.end >= ?1")
+    int activateStartedBefore(LocalDateTime now);
+}
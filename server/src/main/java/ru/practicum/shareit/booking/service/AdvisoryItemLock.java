@@ -0,0 +1,27 @@
+package ru.practicum.shareit.booking.service;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+
+/**
+ * Блокировка вещи через транзакционный advisory lock PostgreSQL.
+ * Держится в самой БД и снимается ею при коммите или откате, даже если соединение оборвалось.
+ */
+@Component
+@RequiredArgsConstructor
+@ConditionalOnProperty(name = "shareit.booking.lock-mode", havingValue = "advisory")
+public class AdvisoryItemLock implements ItemLock {
+    private final JdbcTemplate jdbcTemplate;
+
+    @Override
+    public void lock(long itemId) {
+        jdbcTemplate.query("select pg_advisory_xact_lock(?)", rs -> null, itemId);
+    }
+
+    @Override
+    public boolean sharedAcrossInstances() {
+        return true;
+    }
+}
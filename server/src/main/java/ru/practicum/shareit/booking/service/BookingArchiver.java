@@ -0,0 +1,80 @@
+package ru.practicum.shareit.booking.service;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionTemplate;
+import ru.practicum.shareit.booking.model.Booking;
+import ru.practicum.shareit.booking.repository.ArchivedBookingRepository;
+import ru.practicum.shareit.booking.repository.BookingRepository;
+import ru.practicum.shareit.booking.repository.OwnerBookingRepository;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+/**
+ * Переносит бронирования, закончившиеся больше retention-days назад, из bookings в bookings_archive.
+ * Каждая порция переносится отдельной транзакцией: копия в архив, удаление из модели чтения
+ * владельца и из bookings. Горячие таблицы и их индексы остаются размером с актуальные бронирования.
+ */
+@Slf4j
+@Component
+public class BookingArchiver {
+    private final BookingRepository bookingRepository;
+    private final OwnerBookingRepository ownerBookingRepository;
+    private final ArchivedBookingRepository archivedBookingRepository;
+    private final BookingIntervalIndex bookingIntervalIndex;
+    private final TransactionTemplate transactionTemplate;
+    private final long retentionDays;
+    private final int chunkSize;
+
+    public BookingArchiver(BookingRepository bookingRepository,
+                           OwnerBookingRepository ownerBookingRepository,
+                           ArchivedBookingRepository archivedBookingRepository,
+                           BookingIntervalIndex bookingIntervalIndex,
+                           TransactionTemplate transactionTemplate,
+                           @Value("${shareit.booking.archive.retention-days:90}") long retentionDays,
+                           @Value("${shareit.booking.archive.chunk-size:500}") int chunkSize) {
+        this.bookingRepository = bookingRepository;
+        this.ownerBookingRepository = ownerBookingRepository;
+        this.archivedBookingRepository = archivedBookingRepository;
+        this.bookingIntervalIndex = bookingIntervalIndex;
+        this.transactionTemplate = transactionTemplate;
+        this.retentionDays = retentionDays;
+        this.chunkSize = chunkSize;
+    }
+
+    @Scheduled(initialDelayString = "${shareit.booking.archive.interval-ms:3600000}",
+            fixedDelayString = "${shareit.booking.archive.interval-ms:3600000}")
+    public void archiveFinished() {
+        int archived = archiveEndedBefore(LocalDateTime.now().minusDays(retentionDays));
+        if (archived > 0) {
+            log.info("В архив перенесено {} бронирований", archived);
+        }
+    }
+
+    public int archiveEndedBefore(LocalDateTime threshold) {
+        int total = 0;
+        int moved;
+        do {
+            moved = transactionTemplate.execute(status -> archiveChunk(threshold));
+            total += moved;
+        } while (moved == chunkSize);
+        return total;
+    }
+
+    private int archiveChunk(LocalDateTime threshold) {
+        List<Booking> bookings = bookingRepository.findEndedBefore(threshold, PageRequest.of(0, chunkSize));
+        if (bookings.isEmpty()) {
+            return 0;
+        }
+        List<Long> ids = bookings.stream().map(Booking::getId).toList();
+        bookings.forEach(booking -> bookingIntervalIndex.remove(booking.getItem().getId(), booking.getId()));
+        archivedBookingRepository.copyFromBookings(ids);
+        ownerBookingRepository.deleteAllByBookingIds(ids);
+        bookingRepository.deleteAllByIds(ids);
+        return ids.size();
+    }
+}
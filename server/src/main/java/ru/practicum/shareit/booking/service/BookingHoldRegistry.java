@@ -0,0 +1,154 @@
+package ru.practicum.shareit.booking.service;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import ru.practicum.shareit.booking.model.BookingHold;
+import ru.practicum.shareit.exception.ValidationException;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+/**
+ * Временные удержания вещей на интервал времени. Удержания вещи хранятся неизменяемым списком
+ * и заменяются через compare-and-set в ConcurrentMap без блокировок, поэтому из множества
+ * одновременных заявок на одно окно удержание получает одна, а остальным отказ приходит
+ * сразу, без транзакции и обращения к БД. Просроченные удержания не мешают новым и удаляются уборщиком.
+ */
+@Slf4j
+@Component
+public class BookingHoldRegistry {
+    private final ConcurrentMap<Long, List<BookingHold>> holdsByItem = new ConcurrentHashMap<>();
+    private final ConcurrentMap<String, Long> itemByToken = new ConcurrentHashMap<>();
+    private final Duration ttl;
+
+    public BookingHoldRegistry(@Value("${shareit.booking.hold.ttl-seconds:300}") long ttlSeconds) {
+        this.ttl = Duration.ofSeconds(ttlSeconds);
+    }
+
+    public BookingHold hold(long bookerId, long itemId, LocalDateTime start, LocalDateTime end) {
+        LocalDateTime now = LocalDateTime.now();
+        BookingHold hold = new BookingHold(UUID.randomUUID().toString(), bookerId, itemId, start, end, now.plus(ttl));
+        while (true) {
+            List<BookingHold> current = holdsByItem.get(itemId);
+            List<BookingHold> alive = alive(current, now);
+            if (alive.stream().anyMatch(other -> other.overlaps(start, end))) {
+                String message = "В это время вещь удержана другим пользователем";
+                log.error(message);
+                throw new ValidationException(message);
+            }
+            List<BookingHold> updated = new ArrayList<>(alive);
+            updated.add(hold);
+            List<BookingHold> replacement = List.copyOf(updated);
+            if (current == null ? holdsByItem.putIfAbsent(itemId, replacement) == null
+                    : holdsByItem.replace(itemId, current, replacement)) {
+                itemByToken.put(hold.token(), itemId);
+                forgetExpired(current, now);
+                log.debug("Вещь с ID {} удержана до {}", itemId, hold.expiresAt());
+                return hold;
+            }
+        }
+    }
+
+    /**
+     * Проверяет, что интервал не занят чужими живыми удержаниями. Если передан токен, он должен
+     * принадлежать бронирующему и совпадать с вещью и интервалом заявки.
+     */
+    public void check(long bookerId, long itemId, LocalDateTime start, LocalDateTime end, String token) {
+        LocalDateTime now = LocalDateTime.now();
+        List<BookingHold> alive = alive(holdsByItem.get(itemId), now);
+        if (token != null && alive.stream().noneMatch(hold -> hold.token().equals(token)
+                && hold.bookerId() == bookerId && hold.start().equals(start) && hold.end().equals(end))) {
+            String message = "Удержание не найдено, истекло или не соответствует бронированию";
+            log.error(message);
+            throw new ValidationException(message);
+        }
+        if (alive.stream().anyMatch(hold -> !hold.token().equals(token) && hold.overlaps(start, end))) {
+            String message = "В это время вещь удержана другим пользователем";
+            log.error(message);
+            throw new ValidationException(message);
+        }
+    }
+
+    /**
+     * Снимает удержание после коммита текущей транзакции: до него бронирование ещё не видно
+     * индексу интервалов, и окно должно оставаться закрытым для других.
+     */
+    public void releaseAfterCommit(String token) {
+        if (token == null) {
+            return;
+        }
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            release(token);
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                release(token);
+            }
+        });
+    }
+
+    public void release(String token) {
+        Long itemId = itemByToken.remove(token);
+        if (itemId != null) {
+            holdsByItem.computeIfPresent(itemId, (id, holds) -> {
+                List<BookingHold> remaining = holds.stream().filter(hold -> !hold.token().equals(token)).toList();
+                return remaining.isEmpty() ? null : remaining;
+            });
+        }
+    }
+
+    @Scheduled(initialDelayString = "${shareit.booking.hold.sweep-interval-ms:30000}",
+            fixedDelayString = "${shareit.booking.hold.sweep-interval-ms:30000}")
+    public void sweepExpired() {
+        int removed = sweepExpiredAt(LocalDateTime.now());
+        if (removed > 0) {
+            log.debug("Удалено {} просроченных удержаний", removed);
+        }
+    }
+
+    public int sweepExpiredAt(LocalDateTime now) {
+        int removed = 0;
+        for (Map.Entry<Long, List<BookingHold>> entry : holdsByItem.entrySet()) {
+            List<BookingHold> current = entry.getValue();
+            List<BookingHold> alive = alive(current, now);
+            if (alive.size() == current.size()) {
+                continue;
+            }
+            boolean replaced = alive.isEmpty() ? holdsByItem.remove(entry.getKey(), current)
+                    : holdsByItem.replace(entry.getKey(), current, alive);
+            // если список успели заменить, его просроченные удержания уберёт следующий проход
+            if (replaced) {
+                forgetExpired(current, now);
+                removed += current.size() - alive.size();
+            }
+        }
+        return removed;
+    }
+
+    private void forgetExpired(List<BookingHold> holds, LocalDateTime now) {
+        if (holds != null) {
+            holds.stream().filter(hold -> hold.isExpired(now)).forEach(hold -> itemByToken.remove(hold.token()));
+        }
+    }
+
+    private static List<BookingHold> alive(List<BookingHold> holds, LocalDateTime now) {
+        if (holds == null) {
+            return List.of();
+        }
+        return holds.stream().anyMatch(hold -> hold.isExpired(now))
+                ? holds.stream().filter(hold -> !hold.isExpired(now)).toList()
+                : holds;
+    }
+}
@@ -0,0 +1,409 @@
+package ru.practicum.shareit.booking.service;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import ru.practicum.shareit.booking.model.BookingInterval;
+import ru.practicum.shareit.booking.model.ItemBookingInterval;
+import ru.practicum.shareit.booking.repository.BookingRepository;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.function.BiFunction;
+import java.util.function.Function;
+import java.util.function.UnaryOperator;
+import java.util.stream.Collectors;
+
+/**
+ * Индекс интервалов активных (WAITING и APPROVED) бронирований по вещам.
+ * Интервалы вещи хранятся отсортированными по началу вместе с префиксным максимумом концов,
+ * поэтому ответ на вопрос «есть ли пересечение» — один бинарный поиск без обращения к БД.
+ * Данные вещи подгружаются из таблицы bookings при первом обращении вне блокировок карты.
+ * В индексе держится не больше maxItems вещей: при переполнении вытесняются давно не читавшиеся.
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class BookingIntervalIndex {
+    private static final int STAMP_STRIPES = 256;
+
+    private final BookingRepository bookingRepository;
+    private final ConcurrentMap<Long, ItemIntervals> intervalsByItem = new ConcurrentHashMap<>();
+    // счётчики изменений по группам вещей: загрузка, во время которой вещь менялась, в индекс не попадает
+    private final AtomicLongArray stamps = new AtomicLongArray(STAMP_STRIPES);
+    private final AtomicLong clock = new AtomicLong();
+    private final Object evictionLock = new Object();
+
+    @Value("${shareit.booking.index.max-items:10000}")
+    private int maxItems = 10000;
+
+    public boolean hasOverlap(long itemId, LocalDateTime start, LocalDateTime end) {
+        return intervals(itemId).overlaps(start, end);
+    }
+
+    /**
+     * Свободные промежутки вещи внутри окна [from, to). Границы промежутков совпадают с границами
+     * соседних бронирований или окна, и любой из них можно забронировать целиком.
+     */
+    public <T> List<T> freeSlots(long itemId, LocalDateTime from, LocalDateTime to,
+                                 BiFunction<LocalDateTime, LocalDateTime, T> slot) {
+        return intervals(itemId).freeSlots(from, to, slot);
+    }
+
+    /**
+     * Подгружает интервалы ещё не проиндексированных вещей одним запросом — для пакетных операций.
+     */
+    public void preload(Collection<Long> itemIds) {
+        List<Long> missing = itemIds.stream()
+                .distinct()
+                .filter(itemId -> !intervalsByItem.containsKey(itemId))
+                .toList();
+        if (missing.isEmpty()) {
+            return;
+        }
+        Map<Long, Long> readStamps = missing.stream().collect(Collectors.toMap(Function.identity(), this::stamp));
+        Map<Long, List<BookingInterval>> intervals = bookingRepository.findActiveIntervalsByItemIdIn(missing).stream()
+                .collect(Collectors.groupingBy(ItemBookingInterval::getItemId, Collectors.<BookingInterval>toList()));
+        log.debug("Загружены активные бронирования {} вещей", missing.size());
+        missing.forEach(itemId -> cache(itemId, readStamps.get(itemId),
+                ItemIntervals.of(intervals.getOrDefault(itemId, List.of()))));
+    }
+
+    /**
+     * Перечитывает интервалы вещей из БД одним запросом, заменяя копии в памяти. Вызывается под
+     * блокировкой вещей, общей для всех экземпляров приложения: другие экземпляры могли создать
+     * или освободить бронирования, о которых этот индекс не знает.
+     */
+    public void reload(Collection<Long> itemIds) {
+        List<Long> ids = itemIds.stream().distinct().toList();
+        ids.forEach(itemId -> stamps.incrementAndGet(stripe(itemId)));
+        Map<Long, List<BookingInterval>> intervals = bookingRepository.findActiveIntervalsByItemIdIn(ids).stream()
+                .collect(Collectors.groupingBy(ItemBookingInterval::getItemId, Collectors.<BookingInterval>toList()));
+        for (long itemId : ids) {
+            ItemIntervals fresh = ItemIntervals.of(intervals.getOrDefault(itemId, List.of()));
+            fresh.touch(clock.incrementAndGet());
+            intervalsByItem.put(itemId, fresh);
+        }
+        if (intervalsByItem.size() > maxItems) {
+            evictLeastRecentlyUsed();
+        }
+    }
+
+    public void add(long itemId, long bookingId, LocalDateTime start, LocalDateTime end) {
+        update(itemId, intervals -> intervals.with(bookingId, start, end));
+        // повтор после коммита закрывает гонку с параллельной подгрузкой, которая не видела новую строку
+        afterCompletion(itemId, () -> update(itemId, intervals -> intervals.with(bookingId, start, end)));
+    }
+
+    /**
+     * Освобождает интервал для других транзакций только после коммита: до него другой запрос мог бы
+     * занять это время, а при откате в БД остались бы два пересекающихся активных бронирования.
+     * Сама транзакция видит освобождённый интервал сразу.
+     */
+    public void remove(long itemId, long bookingId) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            update(itemId, intervals -> intervals.without(bookingId));
+            return;
+        }
+        pendingRemovals().computeIfAbsent(itemId, id -> new HashSet<>()).add(bookingId);
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                update(itemId, intervals -> intervals.without(bookingId));
+            }
+        });
+    }
+
+    public void evict(long itemId) {
+        stamps.incrementAndGet(stripe(itemId));
+        intervalsByItem.remove(itemId);
+    }
+
+    private ItemIntervals intervals(long itemId) {
+        ItemIntervals intervals = intervalsByItem.get(itemId);
+        if (intervals == null) {
+            intervals = load(itemId);
+        }
+        intervals.touch(clock.incrementAndGet());
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            return intervals;
+        }
+        @SuppressWarnings("unchecked")
+        Map<Long, Set<Long>> pending = (Map<Long, Set<Long>>) TransactionSynchronizationManager.getResource(this);
+        if (pending != null) {
+            for (long bookingId : pending.getOrDefault(itemId, Set.of())) {
+                intervals = intervals.without(bookingId);
+            }
+        }
+        return intervals;
+    }
+
+    //запрос к БД идёт вне compute, чтобы не держать блокировку корзины ConcurrentHashMap на время ввода-вывода
+    private ItemIntervals load(long itemId) {
+        long readStamp = stamp(itemId);
+        List<BookingInterval> intervals = bookingRepository.findActiveIntervalsByItemId(itemId);
+        log.debug("Загружено {} активных бронирований вещи с ID {}", intervals.size(), itemId);
+        return cache(itemId, readStamp, ItemIntervals.of(intervals));
+    }
+
+    /**
+     * Кладёт загруженные интервалы в индекс, если вещь не менялась с момента readStamp; иначе они
+     * отдаются только текущему вызову, а в индекс попадёт следующая загрузка.
+     */
+    private ItemIntervals cache(long itemId, long readStamp, ItemIntervals loaded) {
+        loaded.touch(clock.incrementAndGet());
+        ItemIntervals cached = intervalsByItem.compute(itemId, (id, current) -> current != null ? current
+                : stamp(itemId) == readStamp ? loaded : null);
+        if (cached == null) {
+            return loaded;
+        }
+        if (cached == loaded && intervalsByItem.size() > maxItems) {
+            evictLeastRecentlyUsed();
+        }
+        return cached;
+    }
+
+    //счётчик увеличивается до изменения: загрузка, сверяющая его внутри compute, либо увидит новое значение, либо уже лежит в карте
+    private void update(long itemId, UnaryOperator<ItemIntervals> change) {
+        stamps.incrementAndGet(stripe(itemId));
+        intervalsByItem.computeIfPresent(itemId, (id, intervals) -> change.apply(intervals));
+    }
+
+    //вытесняется десятая часть вещей, чтобы сортировка по времени обращения выполнялась не на каждой загрузке
+    private void evictLeastRecentlyUsed() {
+        synchronized (evictionLock) {
+            int excess = intervalsByItem.size() - maxItems;
+            if (excess <= 0) {
+                return;
+            }
+            int count = excess + maxItems / 10;
+            intervalsByItem.entrySet().stream()
+                    .map(entry -> Map.entry(entry.getKey(), entry.getValue().lastAccess()))
+                    .sorted(Map.Entry.comparingByValue())
+                    .limit(count)
+                    .forEach(entry -> intervalsByItem.remove(entry.getKey()));
+            log.debug("Из индекса интервалов вытеснено {} вещей", count);
+        }
+    }
+
+    private long stamp(long itemId) {
+        return stamps.get(stripe(itemId));
+    }
+
+    private static int stripe(long itemId) {
+        return Math.floorMod(Long.hashCode(itemId), STAMP_STRIPES);
+    }
+
+    //интервалы, освобождённые текущей транзакцией до её коммита, по вещам
+    @SuppressWarnings("unchecked")
+    private Map<Long, Set<Long>> pendingRemovals() {
+        Map<Long, Set<Long>> pending = (Map<Long, Set<Long>>) TransactionSynchronizationManager.getResource(this);
+        if (pending == null) {
+            pending = new HashMap<>();
+            TransactionSynchronizationManager.bindResource(this, pending);
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCompletion(int status) {
+                    TransactionSynchronizationManager.unbindResourceIfPossible(BookingIntervalIndex.this);
+                }
+            });
+        }
+        return pending;
+    }
+
+    private void afterCompletion(long itemId, Runnable onCommit) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCompletion(int status) {
+                if (status == STATUS_COMMITTED) {
+                    onCommit.run();
+                } else {
+                    evict(itemId);
+                }
+            }
+        });
+    }
+
+    /**
+     * Неизменяемый набор интервалов одной вещи, отсортированный по (start, id); меняется только отметка чтения.
+     */
+    static final class ItemIntervals {
+        private final long[] ids;
+        private final LocalDateTime[] starts;
+        private final LocalDateTime[] ends;
+        private final LocalDateTime[] maxEnds;
+        // момент последнего чтения по счётчику индекса, для вытеснения давно не читавшихся вещей
+        private volatile long lastAccess;
+
+        private ItemIntervals(long[] ids, LocalDateTime[] starts, LocalDateTime[] ends) {
+            this.ids = ids;
+            this.starts = starts;
+            this.ends = ends;
+            this.maxEnds = new LocalDateTime[ends.length];
+            for (int i = 0; i < ends.length; i++) {
+                maxEnds[i] = i == 0 || ends[i].isAfter(maxEnds[i - 1]) ? ends[i] : maxEnds[i - 1];
+            }
+        }
+
+        static ItemIntervals of(List<BookingInterval> sortedIntervals) {
+            if (sortedIntervals.isEmpty()) {
+                return new ItemIntervals(new long[0], new LocalDateTime[0], new LocalDateTime[0]);
+            }
+            int size = sortedIntervals.size();
+            long[] ids = new long[size];
+            LocalDateTime[] starts = new LocalDateTime[size];
+            LocalDateTime[] ends = new LocalDateTime[size];
+            for (int i = 0; i < size; i++) {
+                BookingInterval interval = sortedIntervals.get(i);
+                ids[i] = interval.getId();
+                starts[i] = interval.getStart();
+                ends[i] = interval.getEnd();
+            }
+            return new ItemIntervals(ids, starts, ends);
+        }
+
+        int size() {
+            return ids.length;
+        }
+
+        void touch(long moment) {
+            lastAccess = moment;
+        }
+
+        long lastAccess() {
+            return lastAccess;
+        }
+
+        /**
+         * Интервалы полуоткрытые [start, end): бронирование может начаться в момент окончания предыдущего,
+         * поэтому пересечение — start < requestEnd и end > requestStart.
+         */
+        boolean overlaps(LocalDateTime start, LocalDateTime end) {
+            int last = lastStartingBefore(end);
+            return last >= 0 && maxEnds[last].isAfter(start);
+        }
+
+        /**
+         * Начинает с первого интервала, префиксный максимум концов которого доходит до from,
+         * и идёт по интервалам в порядке начала, пока они начинаются не позже to.
+         */
+        <T> List<T> freeSlots(LocalDateTime from, LocalDateTime to, BiFunction<LocalDateTime, LocalDateTime, T> slot) {
+            List<T> slots = new ArrayList<>();
+            LocalDateTime freeFrom = from;
+            for (int i = firstEndingNotBefore(from); i < starts.length && !starts[i].isAfter(to); i++) {
+                if (starts[i].isAfter(freeFrom)) {
+                    slots.add(slot.apply(freeFrom, starts[i]));
+                }
+                if (ends[i].isAfter(freeFrom)) {
+                    freeFrom = ends[i];
+                }
+            }
+            if (freeFrom.isBefore(to)) {
+                slots.add(slot.apply(freeFrom, to));
+            }
+            return slots;
+        }
+
+        ItemIntervals with(long id, LocalDateTime start, LocalDateTime end) {
+            if (indexOf(id) >= 0) {
+                return this;
+            }
+            int size = ids.length;
+            int position = 0;
+            while (position < size && (starts[position].isBefore(start)
+                    || starts[position].isEqual(start) && ids[position] < id)) {
+                position++;
+            }
+            long[] newIds = new long[size + 1];
+            LocalDateTime[] newStarts = new LocalDateTime[size + 1];
+            LocalDateTime[] newEnds = new LocalDateTime[size + 1];
+            System.arraycopy(ids, 0, newIds, 0, position);
+            System.arraycopy(starts, 0, newStarts, 0, position);
+            System.arraycopy(ends, 0, newEnds, 0, position);
+            newIds[position] = id;
+            newStarts[position] = start;
+            newEnds[position] = end;
+            System.arraycopy(ids, position, newIds, position + 1, size - position);
+            System.arraycopy(starts, position, newStarts, position + 1, size - position);
+            System.arraycopy(ends, position, newEnds, position + 1, size - position);
+            ItemIntervals result = new ItemIntervals(newIds, newStarts, newEnds);
+            result.lastAccess = lastAccess;
+            return result;
+        }
+
+        ItemIntervals without(long id) {
+            int position = indexOf(id);
+            if (position < 0) {
+                return this;
+            }
+            int size = ids.length;
+            long[] newIds = new long[size - 1];
+            LocalDateTime[] newStarts = new LocalDateTime[size - 1];
+            LocalDateTime[] newEnds = new LocalDateTime[size - 1];
+            System.arraycopy(ids, 0, newIds, 0, position);
+            System.arraycopy(starts, 0, newStarts, 0, position);
+            System.arraycopy(ends, 0, newEnds, 0, position);
+            System.arraycopy(ids, position + 1, newIds, position, size - position - 1);
+            System.arraycopy(starts, position + 1, newStarts, position, size - position - 1);
+            System.arraycopy(ends, position + 1, newEnds, position, size - position - 1);
+            ItemIntervals result = new ItemIntervals(newIds, newStarts, newEnds);
+            result.lastAccess = lastAccess;
+            return result;
+        }
+
+        private int lastStartingBefore(LocalDateTime moment) {
+            int low = 0;
+            int high = starts.length - 1;
+            int result = -1;
+            while (low <= high) {
+                int middle = (low + high) >>> 1;
+                if (!starts[middle].isBefore(moment)) {
+                    high = middle - 1;
+                } else {
+                    result = middle;
+                    low = middle + 1;
+                }
+            }
+            return result;
+        }
+
+        private int firstEndingNotBefore(LocalDateTime moment) {
+            int low = 0;
+            int high = maxEnds.length;
+            while (low < high) {
+                int middle = (low + high) >>> 1;
+                if (maxEnds[middle].isBefore(moment)) {
+                    low = middle + 1;
+                } else {
+                    high = middle;
+                }
+            }
+            return low;
+        }
+
+        private int indexOf(long id) {
+            for (int i = 0; i < ids.length; i++) {
+                if (ids[i] == id) {
+                    return i;
+                }
+            }
+            return -1;
+        }
+    }
+}
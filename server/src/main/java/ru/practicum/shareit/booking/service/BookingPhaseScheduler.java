@@ -0,0 +1,188 @@
+package ru.practicum.shareit.booking.service;
+
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import ru.practicum.shareit.booking.model.BookingInterval;
+import ru.practicum.shareit.booking.model.Phase;
+import ru.practicum.shareit.booking.repository.BookingRepository;
+import ru.practicum.shareit.booking.repository.OwnerBookingRepository;
+
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+
+/**
+ * Переводит бронирования между фазами UPCOMING → ACTIVE → FINISHED в момент их начала и конца,
+ * чтобы списки CURRENT/PAST/FUTURE выбирались по равенству фазы, а не сравнением с текущим временем.
+ * Моменты переходов хранятся в иерархическом колесе таймеров, которое при старте
+ * заполняется из БД после того, как пропущенные за время простоя переходы применены одним UPDATE.
+ * Если применить переходы не удалось, они возвращаются в очередь и повторяются через retryMs;
+ * UPDATE меняет только более ранние фазы, поэтому повтор безопасен.
+ */
+@Slf4j
+@Component
+public class BookingPhaseScheduler {
+    private static final List<Phase> BEFORE_ACTIVE = List.of(Phase.UPCOMING);
+    private static final List<Phase> BEFORE_FINISHED = List.of(Phase.UPCOMING, Phase.ACTIVE);
+    private static final int CHUNK_SIZE = 500;
+
+    private final BookingRepository bookingRepository;
+    private final OwnerBookingRepository ownerBookingRepository;
+    private final TransactionTemplate transactionTemplate;
+    private final long tickMs;
+    private final long retryMs;
+    private final TimingWheel<Transition> wheel;
+    private final List<TimingWheel.Entry<Transition>> pending = new ArrayList<>();
+    private volatile Thread worker;
+
+    public BookingPhaseScheduler(BookingRepository bookingRepository,
+                                 OwnerBookingRepository ownerBookingRepository,
+                                 TransactionTemplate transactionTemplate,
+                                 @Value("${shareit.booking.phase.tick-ms:1000}") long tickMs,
+                                 @Value("${shareit.booking.phase.retry-ms:5000}") long retryMs) {
+        this.bookingRepository = bookingRepository;
+        this.ownerBookingRepository = ownerBookingRepository;
+        this.transactionTemplate = transactionTemplate;
+        this.tickMs = tickMs;
+        this.retryMs = retryMs;
+        this.wheel = new TimingWheel<>(tickMs, 60, System.currentTimeMillis());
+    }
+
+    @PostConstruct
+    public void start() {
+        worker = new Thread(this::run, "booking-phase-scheduler");
+        worker.setDaemon(true);
+        worker.start();
+    }
+
+    @PreDestroy
+    public void stop() {
+        Thread current = worker;
+        worker = null;
+        if (current != null) {
+            current.interrupt();
+        }
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void rebuild() {
+        LocalDateTime now = LocalDateTime.now();
+        List<BookingInterval> unfinished = transactionTemplate.execute(status -> {
+            int finished = bookingRepository.finishEndedBefore(now);
+            int activated = bookingRepository.activateStartedBefore(now);
+            ownerBookingRepository.finishEndedBefore(now);
+            ownerBookingRepository.activateStartedBefore(now);
+            log.info("Фазы бронирований догнаны при старте: завершено {}, начато {}", finished, activated);
+            return bookingRepository.findIntervalsByPhaseNot(Phase.FINISHED);
+        });
+        unfinished.forEach(interval -> schedule(interval.getId(), interval.getStart(), interval.getEnd()));
+        log.info("В колесо таймеров добавлено {} незавершённых бронирований", unfinished.size());
+    }
+
+    /**
+     * Планирует переходы нового бронирования. Внутри транзакции — только после её коммита,
+     * чтобы переход не искал строку, которой ещё (или уже) нет.
+     */
+    public void schedule(long bookingId, LocalDateTime start, LocalDateTime end) {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    scheduleNow(bookingId, start, end);
+                }
+            });
+        } else {
+            scheduleNow(bookingId, start, end);
+        }
+    }
+
+    private void scheduleNow(long bookingId, LocalDateTime start, LocalDateTime end) {
+        // +1 мс: переход срабатывает, когда start <= now и end < now уже выполняются
+        add(toMillis(start) + 1, new Transition(bookingId, Phase.ACTIVE));
+        add(toMillis(end) + 1, new Transition(bookingId, Phase.FINISHED));
+    }
+
+    private void add(long expirationMs, Transition transition) {
+        if (!wheel.add(expirationMs, transition)) {
+            synchronized (pending) {
+                pending.add(new TimingWheel.Entry<>(expirationMs, transition));
+            }
+        }
+    }
+
+    private void run() {
+        while (worker == Thread.currentThread()) {
+            try {
+                List<TimingWheel.Entry<Transition>> polled = wheel.poll(tickMs);
+                List<Transition> due = new ArrayList<>();
+                long now = System.currentTimeMillis();
+                synchronized (pending) {
+                    pending.addAll(polled);
+                    // ячейка наступает с точностью до шага колеса, поэтому ранние задачи ждут своего момента
+                    for (Iterator<TimingWheel.Entry<Transition>> it = pending.iterator(); it.hasNext(); ) {
+                        TimingWheel.Entry<Transition> entry = it.next();
+                        if (entry.expirationMs() <= now) {
+                            due.add(entry.task());
+                            it.remove();
+                        }
+                    }
+                }
+                if (!due.isEmpty()) {
+                    applyOrRetry(due);
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            } catch (RuntimeException e) {
+                log.error("Не удалось перевести бронирования в следующую фазу", e);
+            }
+        }
+    }
+
+    private void applyOrRetry(List<Transition> due) {
+        try {
+            apply(due);
+        } catch (RuntimeException e) {
+            log.error("Не удалось перевести {} бронирований в следующую фазу, повтор через {} мс", due.size(), retryMs, e);
+            long retryAt = System.currentTimeMillis() + retryMs;
+            synchronized (pending) {
+                due.forEach(transition -> pending.add(new TimingWheel.Entry<>(retryAt, transition)));
+            }
+        }
+    }
+
+    private void apply(List<Transition> due) {
+        List<Long> activated = due.stream().filter(t -> t.phase() == Phase.ACTIVE).map(Transition::bookingId).toList();
+        List<Long> finished = due.stream().filter(t -> t.phase() == Phase.FINISHED).map(Transition::bookingId).toList();
+        transactionTemplate.executeWithoutResult(status -> {
+            advance(activated, BEFORE_ACTIVE, Phase.ACTIVE);
+            advance(finished, BEFORE_FINISHED, Phase.FINISHED);
+        });
+        log.debug("Начато {} и завершено {} бронирований", activated.size(), finished.size());
+    }
+
+    private void advance(List<Long> bookingIds, List<Phase> from, Phase to) {
+        for (int i = 0; i < bookingIds.size(); i += CHUNK_SIZE) {
+            List<Long> chunk = bookingIds.subList(i, Math.min(i + CHUNK_SIZE, bookingIds.size()));
+            bookingRepository.advancePhase(chunk, from, to);
+            ownerBookingRepository.advancePhase(chunk, from, to);
+        }
+    }
+
+    private static long toMillis(LocalDateTime moment) {
+        return moment.atZone(ZoneId.systemDefault()).toInstant().toEpochMilli();
+    }
+
+    private record Transition(long bookingId, Phase phase) {
+    }
+}
@@ -1,19 +1,36 @@
 package ru.practicum.shareit.booking.service;
 
+import ru.practicum.shareit.booking.dto.BookingDecision;
+import ru.practicum.shareit.booking.dto.BookingDecisionResult;
 import ru.practicum.shareit.booking.dto.BookingDto;
+import ru.practicum.shareit.booking.dto.BookingHoldDto;
 import ru.practicum.shareit.booking.dto.NewBookingRequest;
+import ru.practicum.shareit.booking.model.State;
 
 
 import java.util.List;
+import java.util.Map;
 
 public interface BookingService {
     BookingDto createBooking(long bookerId, NewBookingRequest request);
 
+    BookingHoldDto holdBooking(long bookerId, NewBookingRequest request);
+
+    List<BookingDto> createBookings(long bookerId, List<NewBookingRequest> requests);
+
     BookingDto approveBooking(long ownerId, long bookingId, Boolean approved);
 
+    BookingDto cancelBooking(long bookerId, long bookingId);
+
+    List<BookingDecisionResult> approveBookings(long ownerId, List<BookingDecision> decisions);
+
     BookingDto getBookingById(long userId, long bookingId);
 
-    List<BookingDto> getBookingsByBookerId(long bookerId, String state);
+    List<BookingDto> getBookingsByBookerId(long bookerId, String state, int from, Integer size, String cursor);
+
+    List<BookingDto> getBookingsByOwnerId(long ownerId, String state, int from, Integer size, String cursor);
+
+    Map<State, Long> getBookingStatsByBookerId(long bookerId);
 
-    List<BookingDto> getBookingsByOwnerId(long ownerId, String state);
+    Map<State, Long> getBookingStatsByOwnerId(long ownerId);
 }
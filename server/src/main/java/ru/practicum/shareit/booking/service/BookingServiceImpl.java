@@ -1,50 +1,193 @@
 package ru.practicum.shareit.booking.service;
 
+import io.micrometer.core.instrument.MeterRegistry;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
-import org.springframework.data.domain.Sort;
+import org.springframework.data.domain.Pageable;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
+import ru.practicum.shareit.booking.dto.BookingCursor;
+import ru.practicum.shareit.booking.dto.BookingDecision;
+import ru.practicum.shareit.booking.dto.BookingDecisionResult;
 import ru.practicum.shareit.booking.dto.BookingDto;
+import ru.practicum.shareit.booking.dto.BookingHoldDto;
 import ru.practicum.shareit.booking.dto.NewBookingRequest;
 import ru.practicum.shareit.booking.mapper.BookingMapper;
 import ru.practicum.shareit.booking.model.Booking;
+import ru.practicum.shareit.booking.model.BookingGroupCount;
+import ru.practicum.shareit.booking.model.Phase;
 import ru.practicum.shareit.booking.model.State;
 import ru.practicum.shareit.booking.model.Status;
+import ru.practicum.shareit.booking.repository.ArchivedBookingRepository;
+import ru.practicum.shareit.booking.repository.BookingBatchRepository;
 import ru.practicum.shareit.booking.repository.BookingRepository;
+import ru.practicum.shareit.booking.repository.OwnerBookingRepository;
+import ru.practicum.shareit.exception.ConflictException;
 import ru.practicum.shareit.exception.NotFoundException;
 import ru.practicum.shareit.exception.ValidationException;
 import ru.practicum.shareit.item.model.Item;
 import ru.practicum.shareit.item.repository.ItemRepository;
+import ru.practicum.shareit.item.service.AdvancedItemCache;
+import ru.practicum.shareit.paging.OffsetPageRequest;
 import ru.practicum.shareit.user.model.User;
 import ru.practicum.shareit.user.repository.UserRepository;
 
 import java.time.LocalDateTime;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
 import java.util.Comparator;
+import java.util.EnumMap;
+import java.util.LinkedHashSet;
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.Function;
+import java.util.stream.Collectors;
 
 @Slf4j
 @Service
 @RequiredArgsConstructor
 @Transactional(readOnly = true)
 public class BookingServiceImpl implements BookingService {
+    static final String DECISION_CONFLICTS = "shareit.booking.decision.conflicts";
+    // наибольшая порция, которой слой читается при слиянии
+    private static final int MERGE_BATCH = 500;
+    private static final Comparator<BookingDto> TIER_ORDER = Comparator.comparing(BookingDto::getStart)
+            .thenComparingLong(BookingDto::getId);
+
     private final BookingRepository bookingRepository;
+    private final OwnerBookingRepository ownerBookingRepository;
+    private final ArchivedBookingRepository archivedBookingRepository;
+    private final BookingBatchRepository bookingBatchRepository;
     private final ItemRepository itemRepository;
     private final UserRepository userRepository;
+    private final BookingIntervalIndex bookingIntervalIndex;
+    private final ItemLock itemLock;
+    private final BookingHoldRegistry bookingHoldRegistry;
+    private final MeterRegistry meterRegistry;
+    private final BookingPhaseScheduler bookingPhaseScheduler;
+    private final AdvancedItemCache advancedItemCache;
 
     @Transactional
     @Override
     public BookingDto createBooking(long bookerId, NewBookingRequest request) {
+        //Чужое удержание отклоняет заявку до обращения к БД
+
+        bookingHoldRegistry.check(bookerId, request.getItemId(), request.getStart(), request.getEnd(), request.getHoldToken());
+        User booker = userRepository.findById(bookerId).orElseThrow(() -> new NotFoundException("Пользователь с ID " + bookerId + " не найден"));
+        Item item = itemRepository.findById(request.getItemId()).orElseThrow(() -> new NotFoundException("Вещь с ID " + request.getItemId() + " не найдена"));
+
+        checkBookable(booker, item, request);
+
+        //Проверка пересечения под блокировкой вещи, чтобы параллельный запрос не занял то же время;
+        //при блокировке, общей для всех экземпляров, интервалы под ней перечитываются из БД
+
+        itemLock.lock(item.getId());
+        if (itemLock.sharedAcrossInstances()) {
+            bookingIntervalIndex.reload(List.of(item.getId()));
+        }
+        if (bookingIntervalIndex.hasOverlap(item.getId(), request.getStart(), request.getEnd())) {
+            String message = "В это время вещь занята";
+            log.error(message);
+            throw new ValidationException(message);
+        }
+
+        Booking booking = BookingMapper.mapToBooking(booker, item, request);
+        booking = bookingRepository.save(booking);
+        ownerBookingRepository.save(BookingMapper.mapToOwnerBooking(booking));
+        bookingIntervalIndex.add(item.getId(), booking.getId(), booking.getStart(), booking.getEnd());
+        bookingHoldRegistry.releaseAfterCommit(request.getHoldToken());
+        if (booking.getPhase() != Phase.FINISHED) {
+            bookingPhaseScheduler.schedule(booking.getId(), booking.getStart(), booking.getEnd());
+        }
+        return BookingMapper.mapToBookingDto(booking);
+    }
+
+    /**
+     * Удерживает вещь на интервал без записи в БД. Пересечение с чужим удержанием проверяется
+     * первым и только в памяти; остальные проверки те же, что при создании бронирования.
+     */
+    @Override
+    public BookingHoldDto holdBooking(long bookerId, NewBookingRequest request) {
+        bookingHoldRegistry.check(bookerId, request.getItemId(), request.getStart(), request.getEnd(), null);
         User booker = userRepository.findById(bookerId).orElseThrow(() -> new NotFoundException("Пользователь с ID " + bookerId + " не найден"));
         Item item = itemRepository.findById(request.getItemId()).orElseThrow(() -> new NotFoundException("Вещь с ID " + request.getItemId() + " не найдена"));
 
+        checkBookable(booker, item, request);
+
+        if (bookingIntervalIndex.hasOverlap(item.getId(), request.getStart(), request.getEnd())) {
+            String message = "В это время вещь занята";
+            log.error(message);
+            throw new ValidationException(message);
+        }
+        return BookingMapper.mapToBookingHoldDto(bookingHoldRegistry.hold(bookerId, item.getId(), request.getStart(), request.getEnd()));
+    }
+
+    /**
+     * Пакет создаётся целиком или не создаётся вовсе. Вещи читаются одним запросом, блокировки берутся
+     * в порядке возрастания ID вещей, пересечения проверяются по индексу интервалов и между заявками пакета,
+     * а строки вставляются одним JDBC batch. Если блокировка общая для всех экземпляров приложения,
+     * интервалы вещей под ней перечитываются из БД.
+     */
+    @Transactional
+    @Override
+    public List<BookingDto> createBookings(long bookerId, List<NewBookingRequest> requests) {
+        if (requests == null || requests.isEmpty()) {
+            String message = "Список бронирований пуст";
+            log.error(message);
+            throw new ValidationException(message);
+        }
+        requests.forEach(request -> bookingHoldRegistry.check(bookerId, request.getItemId(),
+                request.getStart(), request.getEnd(), request.getHoldToken()));
+        User booker = userRepository.findById(bookerId).orElseThrow(() -> new NotFoundException("Пользователь с ID " + bookerId + " не найден"));
+        Set<Long> itemIds = requests.stream().map(NewBookingRequest::getItemId).collect(Collectors.toSet());
+        Map<Long, Item> items = itemRepository.findAllById(itemIds).stream()
+                .collect(Collectors.toMap(Item::getId, Function.identity()));
+        for (NewBookingRequest request : requests) {
+            Item item = items.get(request.getItemId());
+            if (item == null) {
+                throw new NotFoundException("Вещь с ID " + request.getItemId() + " не найдена");
+            }
+            checkBookable(booker, item, request);
+        }
+
+        itemLock.lockAll(itemIds);
+        if (itemLock.sharedAcrossInstances()) {
+            bookingIntervalIndex.reload(itemIds);
+        } else {
+            bookingIntervalIndex.preload(itemIds);
+        }
+        List<Booking> bookings = new ArrayList<>(requests.size());
+        for (NewBookingRequest request : requests) {
+            if (bookingIntervalIndex.hasOverlap(request.getItemId(), request.getStart(), request.getEnd())
+                    || overlapsAny(bookings, request)) {
+                String message = "В это время вещь с ID " + request.getItemId() + " занята";
+                log.error(message);
+                throw new ValidationException(message);
+            }
+            bookings.add(BookingMapper.mapToBooking(booker, items.get(request.getItemId()), request));
+        }
+
+        bookingBatchRepository.insertAll(bookings);
+        bookingBatchRepository.insertOwnerBookings(bookings.stream().map(BookingMapper::mapToOwnerBooking).toList());
+        for (Booking booking : bookings) {
+            bookingIntervalIndex.add(booking.getItem().getId(), booking.getId(), booking.getStart(), booking.getEnd());
+            if (booking.getPhase() != Phase.FINISHED) {
+                bookingPhaseScheduler.schedule(booking.getId(), booking.getStart(), booking.getEnd());
+            }
+        }
+        requests.forEach(request -> bookingHoldRegistry.releaseAfterCommit(request.getHoldToken()));
+        return map(bookings, BookingMapper::mapToBookingDto);
+    }
+
+    private static void checkBookable(User booker, Item item, NewBookingRequest request) {
         if (!item.getAvailable()) {
             String message = "Вещь недоступна для бронирования";
             log.error(message);
             throw new ValidationException(message);
         }
 
-        if (booker.equals(item.getOwner())) {
+        if (booker.getId() == item.getOwner().getId()) {
             String message = "Нельзя бронировать свою вещь";
             log.error(message);
             throw new ValidationException(message);
@@ -57,26 +200,25 @@ public class BookingServiceImpl implements BookingService {
             log.error(message);
             throw new ValidationException(message);
         }
+    }
 
-        //Проверка пересечения
-
-        List<Booking> crossedBookings = bookingRepository.findCrossedBookingsByItem(item, request.getEnd(), request.getStart());
-        if (!crossedBookings.isEmpty()) {
-            String message = "В это время вещь занята";
-            log.error(message);
-            throw new ValidationException(message);
-        }
-
-        Booking booking = BookingMapper.mapToBooking(booker, item, request);
-        booking = bookingRepository.save(booking);
-        return BookingMapper.mapToBookingDto(booking);
+    //интервалы полуоткрытые [start, end), как в индексе интервалов
+    private static boolean overlapsAny(List<Booking> bookings, NewBookingRequest request) {
+        return bookings.stream().anyMatch(booking -> booking.getItem().getId() == request.getItemId()
+                && booking.getStart().isBefore(request.getEnd()) && booking.getEnd().isAfter(request.getStart()));
     }
 
+    /**
+     * Статус меняется условным UPDATE по версии и статусу WAITING без блокировки строки.
+     * Если бронирование успели изменить параллельно, конфликт сразу возвращается клиенту:
+     * повтор внутри транзакции держал бы соединение и почти всегда видел бы тот же итог.
+     */
     @Transactional
     @Override
     public BookingDto approveBooking(long ownerId, long bookingId, Boolean approved) {
+        Status status = approved ? Status.APPROVED : Status.REJECTED;
         //проверка, что бронирование существует
-        Booking booking = bookingRepository.findById(bookingId).orElseThrow(() -> new NotFoundException("Бронирование c ID " + bookingId + " не найдено"));
+        Booking booking = bookingRepository.findWithDetailsById(bookingId).orElseThrow(() -> new NotFoundException("Бронирование c ID " + bookingId + " не найдено"));
         //проверка, что пользователь является хозяином вещи
         if (ownerId != booking.getItem().getOwner().getId()) {
             String message = "У вещи с ID " + booking.getItem().getId() + " другой владелец";
@@ -89,77 +231,319 @@ public class BookingServiceImpl implements BookingService {
             log.error(message);
             throw new ValidationException(message);
         }
-        //меняем статус
-        booking.setStatus(approved ? Status.APPROVED : Status.REJECTED);
-        //перезаписываем в репозиторий
-        bookingRepository.save(booking);
+        //меняем статус, только если бронирование не изменилось после чтения
+        if (bookingRepository.updateWaitingStatus(bookingId, booking.getVersion(), status) != 1) {
+            meterRegistry.counter(DECISION_CONFLICTS).increment();
+            String message = "Бронирование изменено параллельно, повторите запрос";
+            log.error(message);
+            throw new ConflictException(message);
+        }
+        booking.setStatus(status);
+        booking.setVersion(booking.getVersion() + 1);
+        ownerBookingRepository.updateStatus(List.of(bookingId), status);
+        if (status == Status.REJECTED) {
+            bookingIntervalIndex.remove(booking.getItem().getId(), bookingId);
+        } else {
+            advancedItemCache.invalidate(booking.getItem().getId());
+        }
         return BookingMapper.mapToBookingDto(booking);
     }
 
+    /**
+     * Отмена — один условный UPDATE: автор, статус WAITING или APPROVED и ещё не наступившее начало
+     * проверяются в самом запросе. Если строка не изменилась, бронирование перечитывается только
+     * для того, чтобы объяснить причину отказа.
+     */
+    @Transactional
+    @Override
+    public BookingDto cancelBooking(long bookerId, long bookingId) {
+        if (bookingRepository.cancel(bookingId, bookerId, LocalDateTime.now()) == 0) {
+            Booking booking = bookingRepository.findById(bookingId).orElseThrow(() -> new NotFoundException("Бронирование c ID " + bookingId + " не найдено"));
+            String message = booking.getBooker().getId() != bookerId
+                    ? "Отменить бронирование может только его автор"
+                    : "Отменить можно только не начавшееся бронирование со статусом waiting или approved";
+            log.error(message);
+            throw new ValidationException(message);
+        }
+        Booking booking = bookingRepository.findWithDetailsById(bookingId).orElseThrow(() -> new NotFoundException("Бронирование c ID " + bookingId + " не найдено"));
+        ownerBookingRepository.updateStatus(List.of(bookingId), Status.CANCELED);
+        bookingIntervalIndex.remove(booking.getItem().getId(), bookingId);
+        advancedItemCache.invalidate(booking.getItem().getId());
+        return BookingMapper.mapToBookingDto(booking);
+    }
+
+    /**
+     * Все бронирования пакета читаются одним запросом, а статусы меняются одним UPDATE
+     * на каждое решение (подтвердить или отклонить). Бронирования, не прошедшие проверки,
+     * не меняются, а причина возвращается в результате по их ID.
+     */
+    @Transactional
+    @Override
+    public List<BookingDecisionResult> approveBookings(long ownerId, List<BookingDecision> decisions) {
+        if (decisions == null || decisions.isEmpty()) {
+            String message = "Список решений по бронированиям пуст";
+            log.error(message);
+            throw new ValidationException(message);
+        }
+        Set<Long> ids = decisions.stream().map(BookingDecision::getBookingId).collect(Collectors.toSet());
+        Map<Long, Booking> bookings = bookingRepository.findAllWithItemByIdIn(ids).stream()
+                .collect(Collectors.toMap(Booking::getId, Function.identity()));
+
+        List<BookingDecisionResult> results = new ArrayList<>(decisions.size());
+        Set<Long> approvedIds = new LinkedHashSet<>();
+        Set<Long> rejectedIds = new LinkedHashSet<>();
+        for (BookingDecision decision : decisions) {
+            long bookingId = decision.getBookingId();
+            Booking booking = bookings.get(bookingId);
+            String error = null;
+            if (booking == null) {
+                error = "Бронирование c ID " + bookingId + " не найдено";
+            } else if (ownerId != booking.getItem().getOwner().getId()) {
+                error = "У вещи с ID " + booking.getItem().getId() + " другой владелец";
+            } else if (decision.getApproved() == null) {
+                error = "Не указано, подтверждается ли бронирование";
+            } else if (booking.getStatus() != Status.WAITING
+                    || approvedIds.contains(bookingId) || rejectedIds.contains(bookingId)) {
+                error = "Можно подтвердить или отменить только бронирование со статусом waiting";
+            }
+            if (error != null) {
+                log.error(error);
+                results.add(new BookingDecisionResult(bookingId, booking == null ? null : booking.getStatus(), error));
+                continue;
+            }
+            Status status = decision.getApproved() ? Status.APPROVED : Status.REJECTED;
+            (status == Status.APPROVED ? approvedIds : rejectedIds).add(bookingId);
+            results.add(new BookingDecisionResult(bookingId, status, null));
+        }
+
+        applyDecision(approvedIds, Status.APPROVED);
+        applyDecision(rejectedIds, Status.REJECTED);
+        rejectedIds.forEach(bookingId -> bookingIntervalIndex.remove(bookings.get(bookingId).getItem().getId(), bookingId));
+        advancedItemCache.invalidate(approvedIds.stream().map(bookingId -> bookings.get(bookingId).getItem().getId()).toList());
+        return results;
+    }
+
+    //условие status = WAITING в UPDATE защищает от параллельного решения по тем же бронированиям
+    private void applyDecision(Set<Long> bookingIds, Status status) {
+        if (bookingIds.isEmpty()) {
+            return;
+        }
+        if (bookingRepository.updateWaitingStatus(bookingIds, status) != bookingIds.size()) {
+            meterRegistry.counter(DECISION_CONFLICTS).increment();
+            String message = "Статус части бронирований изменился параллельно, повторите запрос";
+            log.error(message);
+            throw new ConflictException(message);
+        }
+        ownerBookingRepository.updateStatus(bookingIds, status);
+    }
+
     @Override
     public BookingDto getBookingById(long userId, long bookingId) {
-        //проверка, что бронирование существует
-        Booking booking = bookingRepository.findById(bookingId).orElseThrow(() -> new NotFoundException("Бронирование c ID " + bookingId + " не найдено"));
+        //проверка, что бронирование существует в горячем слое или в архиве
+        BookingDto booking = bookingRepository.findById(bookingId).map(BookingMapper::mapToBookingDto)
+                .or(() -> archivedBookingRepository.findWithDetailsById(bookingId).map(BookingMapper::mapToBookingDto))
+                .orElseThrow(() -> new NotFoundException("Бронирование c ID " + bookingId + " не найдено"));
         //Проверяем, что пользователь либо автор бронирования, либо владелец
-        if (userId != booking.getBooker().getId() && userId != booking.getItem().getOwner().getId()) {
+        if (userId != booking.getBooker().getId() && userId != booking.getItem().getOwnerId()) {
             String message = "Только владелец вещи и создатель брони могут просматривать данные о бронировании";
             log.error(message);
             throw new ValidationException(message);
         }
-        return BookingMapper.mapToBookingDto(booking);
+        return booking;
     }
 
     @Override
-    public List<BookingDto> getBookingsByBookerId(long bookerId, String state) {
+    public List<BookingDto> getBookingsByBookerId(long bookerId, String state, int from, Integer size, String cursor) {
         User booker = userRepository.findById(bookerId).orElseThrow(() -> new NotFoundException("Пользователь с ID " + bookerId + " не найден"));
         State currentState = State.valueOf(state);
-        List<Booking> bookingsList;
+        BookingCursor after = cursor == null ? BookingCursor.FIRST : BookingCursor.decode(cursor);
+        LocalDateTime afterStart = after.getStart();
+        long afterId = after.getId();
+        Pageable page = page(from, size, cursor);
+        List<BookingDto> bookingsList;
 
         switch (currentState) {
-            case ALL -> bookingsList = bookingRepository.findAllBookingsByBookerId(bookerId, Sort.by(Sort.Order.desc("start")));
-            case CURRENT ->
-                    bookingsList = bookingRepository.findCurrentBookingsByBookerIdOrderByStartDesc(bookerId);
-            case PAST ->
-                    bookingsList = bookingRepository.findBookingsByBookerIdAndEndIsBeforeOrderByStartDesc(bookerId, LocalDateTime.now());
-            case FUTURE ->
-                    bookingsList = bookingRepository.findBookingsByBookerIdAndStartIsAfterOrderByStartDesc(bookerId, LocalDateTime.now());
-            case WAITING ->
-                    bookingsList = bookingRepository.findAllBookingsByBookerIdAndStatusOrderByStartDesc(bookerId, Status.WAITING);
-            case REJECTED ->
-                    bookingsList = bookingRepository.findAllBookingsByBookerIdAndStatusOrderByStartDesc(bookerId, Status.REJECTED);
+            case ALL -> bookingsList = mergeTiers(
+                    (fromStart, fromId, batch) -> map(bookingRepository.findBookerBookings(bookerId, fromStart, fromId, batch), BookingMapper::mapToBookingDto),
+                    (fromStart, fromId, batch) -> map(archivedBookingRepository.findBookerBookings(bookerId, fromStart, fromId, batch), BookingMapper::mapToBookingDto),
+                    after, page);
+            case CURRENT -> bookingsList = map(bookingRepository.findBookerBookingsByPhase(bookerId, Phase.ACTIVE, afterStart, afterId, page),
+                    BookingMapper::mapToBookingDto);
+            case PAST -> bookingsList = mergeTiers(
+                    (fromStart, fromId, batch) -> map(bookingRepository.findBookerBookingsByPhase(bookerId, Phase.FINISHED, fromStart, fromId, batch), BookingMapper::mapToBookingDto),
+                    (fromStart, fromId, batch) -> map(archivedBookingRepository.findBookerBookings(bookerId, fromStart, fromId, batch), BookingMapper::mapToBookingDto),
+                    after, page);
+            case FUTURE -> bookingsList = map(bookingRepository.findBookerBookingsByPhase(bookerId, Phase.UPCOMING, afterStart, afterId, page),
+                    BookingMapper::mapToBookingDto);
+            case WAITING -> bookingsList = map(bookingRepository.findBookerBookingsByStatus(bookerId, Status.WAITING, afterStart, afterId, page),
+                    BookingMapper::mapToBookingDto);
+            case REJECTED -> bookingsList = mergeTiers(
+                    (fromStart, fromId, batch) -> map(bookingRepository.findBookerBookingsByStatus(bookerId, Status.REJECTED, fromStart, fromId, batch), BookingMapper::mapToBookingDto),
+                    (fromStart, fromId, batch) -> map(archivedBookingRepository.findBookerBookingsByStatus(bookerId, Status.REJECTED, fromStart, fromId, batch), BookingMapper::mapToBookingDto),
+                    after, page);
             default -> throw new NotFoundException("Статус указан неверно");
         }
 
-        return bookingsList.stream()
-                .map(BookingMapper::mapToBookingDto)
-                .sorted(Comparator.comparing(BookingDto::getStart))
-                .toList();
+        return bookingsList;
     }
 
     @Override
-    public List<BookingDto> getBookingsByOwnerId(long ownerId, String state) {
+    public List<BookingDto> getBookingsByOwnerId(long ownerId, String state, int from, Integer size, String cursor) {
         User owner = userRepository.findById(ownerId).orElseThrow(() -> new NotFoundException("Пользователь с ID " + ownerId + " не найден"));
         State currentState = State.valueOf(state);
-        List<Booking> bookingsList;
+        BookingCursor after = cursor == null ? BookingCursor.FIRST : BookingCursor.decode(cursor);
+        LocalDateTime afterStart = after.getStart();
+        long afterId = after.getId();
+        Pageable page = page(from, size, cursor);
+        List<BookingDto> bookingsList;
 
         switch (currentState) {
-            case ALL -> bookingsList = bookingRepository.findAllBookingsByItemOwnerId(ownerId);
-            case CURRENT ->
-                    bookingsList = bookingRepository.findCurrentBookingsByOwnerId(ownerId);
-            case PAST ->
-                    bookingsList = bookingRepository.findBookingsByItemOwnerIdAndEndIsBefore(ownerId, LocalDateTime.now());
-            case FUTURE ->
-                    bookingsList = bookingRepository.findBookingsByItemOwnerIdAndStartIsAfter(ownerId, LocalDateTime.now());
-            case WAITING ->
-                    bookingsList = bookingRepository.findAllBookingsByItemOwnerIdAndStatus(ownerId, Status.WAITING);
-            case REJECTED ->
-                    bookingsList = bookingRepository.findAllBookingsByItemOwnerIdAndStatus(ownerId, Status.REJECTED);
+            case ALL -> bookingsList = mergeTiers(
+                    (fromStart, fromId, batch) -> map(ownerBookingRepository.findOwnerBookings(ownerId, fromStart, fromId, batch), BookingMapper::mapToBookingDto),
+                    (fromStart, fromId, batch) -> map(archivedBookingRepository.findOwnerBookings(ownerId, fromStart, fromId, batch), BookingMapper::mapToBookingDto),
+                    after, page);
+            case CURRENT -> bookingsList = map(ownerBookingRepository.findOwnerBookingsByPhase(ownerId, Phase.ACTIVE, afterStart, afterId, page),
+                    BookingMapper::mapToBookingDto);
+            case PAST -> bookingsList = mergeTiers(
+                    (fromStart, fromId, batch) -> map(ownerBookingRepository.findOwnerBookingsByPhase(ownerId, Phase.FINISHED, fromStart, fromId, batch), BookingMapper::mapToBookingDto),
+                    (fromStart, fromId, batch) -> map(archivedBookingRepository.findOwnerBookings(ownerId, fromStart, fromId, batch), BookingMapper::mapToBookingDto),
+                    after, page);
+            case FUTURE -> bookingsList = map(ownerBookingRepository.findOwnerBookingsByPhase(ownerId, Phase.UPCOMING, afterStart, afterId, page),
+                    BookingMapper::mapToBookingDto);
+            case WAITING -> bookingsList = map(ownerBookingRepository.findOwnerBookingsByStatus(ownerId, Status.WAITING, afterStart, afterId, page),
+                    BookingMapper::mapToBookingDto);
+            case REJECTED -> bookingsList = mergeTiers(
+                    (fromStart, fromId, batch) -> map(ownerBookingRepository.findOwnerBookingsByStatus(ownerId, Status.REJECTED, fromStart, fromId, batch), BookingMapper::mapToBookingDto),
+                    (fromStart, fromId, batch) -> map(archivedBookingRepository.findOwnerBookingsByStatus(ownerId, Status.REJECTED, fromStart, fromId, batch), BookingMapper::mapToBookingDto),
+                    after, page);
             default -> throw new NotFoundException("Статус указан неверно");
         }
 
-        return bookingsList.stream()
-                .map(BookingMapper::mapToBookingDto)
-                .sorted(Comparator.comparing(BookingDto::getStart))
+        return bookingsList;
+    }
+
+    @Override
+    public Map<State, Long> getBookingStatsByBookerId(long bookerId) {
+        userRepository.findById(bookerId).orElseThrow(() -> new NotFoundException("Пользователь с ID " + bookerId + " не найден"));
+        return toStats(bookingRepository.countBookerBookings(bookerId), archivedBookingRepository.countBookerBookings(bookerId));
+    }
+
+    @Override
+    public Map<State, Long> getBookingStatsByOwnerId(long ownerId) {
+        userRepository.findById(ownerId).orElseThrow(() -> new NotFoundException("Пользователь с ID " + ownerId + " не найден"));
+        return toStats(ownerBookingRepository.countOwnerBookings(ownerId), archivedBookingRepository.countOwnerBookings(ownerId));
+    }
+
+    private static <T> List<BookingDto> map(List<T> bookings, Function<T, BookingDto> mapper) {
+        return bookings.stream()
+                .map(mapper)
                 .toList();
     }
+
+    /**
+     * Слияние горячего и архивного слоёв в порядке (start, id). Каждый слой читается порциями по тому же
+     * keyset-курсору, что и списки: следующая порция начинается после последнего прочитанного бронирования слоя.
+     * В памяти одновременно не больше порции на слой и самой страницы; смещение from пропускается по ходу слияния.
+     */
+    private static List<BookingDto> mergeTiers(TierQuery hot, TierQuery archived, BookingCursor after, Pageable page) {
+        int batch = (int) Math.min(page.getOffset() + page.getPageSize(), MERGE_BATCH);
+        TierReader hotReader = new TierReader(hot, after, batch);
+        TierReader archivedReader = new TierReader(archived, after, batch);
+        long skip = page.getOffset();
+        List<BookingDto> result = new ArrayList<>();
+        while (result.size() < page.getPageSize()) {
+            BookingDto nextHot = hotReader.peek();
+            BookingDto nextArchived = archivedReader.peek();
+            if (nextHot == null && nextArchived == null) {
+                break;
+            }
+            BookingDto next = nextArchived == null || nextHot != null && TIER_ORDER.compare(nextHot, nextArchived) <= 0
+                    ? hotReader.next() : archivedReader.next();
+            if (skip > 0) {
+                skip--;
+            } else {
+                result.add(next);
+            }
+        }
+        return result;
+    }
+
+    //групп фаза×статус не больше двенадцати, так что свёртка не зависит от длины истории;
+    //архивные бронирования входят только в ALL, PAST и REJECTED — как и в списках
+    private static Map<State, Long> toStats(List<BookingGroupCount> hot, List<BookingGroupCount> archived) {
+        Map<State, Long> stats = new EnumMap<>(State.class);
+        for (State state : State.values()) {
+            stats.put(state, 0L);
+        }
+        for (BookingGroupCount group : hot) {
+            stats.merge(State.ALL, group.getCount(), Long::sum);
+            stats.merge(switch (group.getPhase()) {
+                case UPCOMING -> State.FUTURE;
+                case ACTIVE -> State.CURRENT;
+                case FINISHED -> State.PAST;
+            }, group.getCount(), Long::sum);
+            if (group.getStatus() == Status.WAITING) {
+                stats.merge(State.WAITING, group.getCount(), Long::sum);
+            } else if (group.getStatus() == Status.REJECTED) {
+                stats.merge(State.REJECTED, group.getCount(), Long::sum);
+            }
+        }
+        for (BookingGroupCount group : archived) {
+            stats.merge(State.ALL, group.getCount(), Long::sum);
+            stats.merge(State.PAST, group.getCount(), Long::sum);
+            if (group.getStatus() == Status.REJECTED) {
+                stats.merge(State.REJECTED, group.getCount(), Long::sum);
+            }
+        }
+        return stats;
+    }
+
+    //с курсором смещение from не применяется: порция начинается сразу после позиции курсора;
+    //без size список не ограничивается, как было до постраничной выдачи
+    private static Pageable page(int from, Integer size, String cursor) {
+        if (from < 0 || size != null && size <= 0) {
+            String message = "Параметр from не может быть отрицательным, а size должен быть положительным";
+            log.error(message);
+            throw new ValidationException(message);
+        }
+        return OffsetPageRequest.of(cursor == null ? from : 0, size == null ? Integer.MAX_VALUE : size);
+    }
+
+    //порция слоя, начинающаяся после позиции (fromStart, fromId)
+    private interface TierQuery {
+        List<BookingDto> read(LocalDateTime fromStart, long fromId, Pageable batch);
+    }
+
+    private static final class TierReader {
+        private final TierQuery query;
+        private final int batch;
+        private final ArrayDeque<BookingDto> buffer = new ArrayDeque<>();
+        private LocalDateTime lastStart;
+        private long lastId;
+        private boolean exhausted;
+
+        TierReader(TierQuery query, BookingCursor after, int batch) {
+            this.query = query;
+            this.batch = batch;
+            this.lastStart = after.getStart();
+            this.lastId = after.getId();
+        }
+
+        BookingDto peek() {
+            if (buffer.isEmpty() && !exhausted) {
+                List<BookingDto> read = query.read(lastStart, lastId, OffsetPageRequest.of(0, batch));
+                exhausted = read.size() < batch;
+                if (!read.isEmpty()) {
+                    lastStart = read.getLast().getStart();
+                    lastId = read.getLast().getId();
+                    buffer.addAll(read);
+                }
+            }
+            return buffer.peekFirst();
+        }
+
+        BookingDto next() {
+            return buffer.pollFirst();
+        }
+    }
 }
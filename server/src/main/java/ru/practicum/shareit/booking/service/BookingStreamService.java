@@ -0,0 +1,141 @@
+package ru.practicum.shareit.booking.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowCallbackHandler;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import ru.practicum.shareit.booking.dto.BookingDto;
+import ru.practicum.shareit.booking.model.Phase;
+import ru.practicum.shareit.booking.model.State;
+import ru.practicum.shareit.booking.model.Status;
+import ru.practicum.shareit.exception.NotFoundException;
+import ru.practicum.shareit.item.dto.ItemDto;
+import ru.practicum.shareit.user.dto.UserDto;
+import ru.practicum.shareit.user.repository.UserRepository;
+
+import javax.sql.DataSource;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Выгрузка всей истории бронирований в формате NDJSON: строки читаются курсором JDBC
+ * порциями по fetch-size и сразу пишутся в ответ, поэтому память не зависит от длины истории.
+ * Курсор PostgreSQL работает только внутри транзакции, поэтому чтение идёт в read-only транзакции.
+ */
+@Slf4j
+@Service
+public class BookingStreamService {
+    public static final String NDJSON = "application/x-ndjson";
+
+    private static final String BOOKING_COLUMNS = "select b.id, b.start_date, b.end_date, b.status, " +
+            "i.id as item_id, i.name as item_name, i.description as item_description, i.is_available as item_available, " +
+            "i.owner_id, i.request_id as item_request_id, u.id as booker_id, u.name as booker_name, u.email as booker_email ";
+    private static final String BOOKER_QUERY = BOOKING_COLUMNS +
+            "from bookings b join items i on i.id = b.item_id join users u on u.id = b.booker_id " +
+            "where b.booker_id = ?";
+    private static final String ARCHIVED_BOOKER_QUERY = BOOKING_COLUMNS +
+            "from bookings_archive b join items i on i.id = b.item_id join users u on u.id = b.booker_id " +
+            "where b.booker_id = ?";
+    private static final String OWNER_QUERY = "select o.booking_id as id, o.start_date, o.end_date, o.status, " +
+            "o.item_id, o.item_name, o.item_description, o.item_available, o.owner_id, o.item_request_id, " +
+            "o.booker_id, o.booker_name, o.booker_email from owner_bookings o where o.owner_id = ?";
+    private static final String ARCHIVED_OWNER_QUERY = BOOKING_COLUMNS +
+            "from bookings_archive b join items i on i.id = b.item_id join users u on u.id = b.booker_id " +
+            "where i.owner_id = ?";
+
+    private final UserRepository userRepository;
+    private final ObjectMapper objectMapper;
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+
+    public BookingStreamService(UserRepository userRepository,
+                                ObjectMapper objectMapper,
+                                DataSource dataSource,
+                                PlatformTransactionManager transactionManager,
+                                @Value("${shareit.booking.stream.fetch-size:500}") int fetchSize) {
+        this.userRepository = userRepository;
+        this.objectMapper = objectMapper;
+        this.jdbcTemplate = new JdbcTemplate(dataSource);
+        this.jdbcTemplate.setFetchSize(fetchSize);
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.transactionTemplate.setReadOnly(true);
+    }
+
+    public void streamBookingsByBookerId(long bookerId, String state, OutputStream out) {
+        State currentState = State.valueOf(state);
+        userRepository.findById(bookerId).orElseThrow(() -> new NotFoundException("Пользователь с ID " + bookerId + " не найден"));
+        stream(BOOKER_QUERY, "b.", "b.id", ARCHIVED_BOOKER_QUERY, bookerId, currentState, out);
+    }
+
+    public void streamBookingsByOwnerId(long ownerId, String state, OutputStream out) {
+        State currentState = State.valueOf(state);
+        userRepository.findById(ownerId).orElseThrow(() -> new NotFoundException("Пользователь с ID " + ownerId + " не найден"));
+        stream(OWNER_QUERY, "o.", "o.booking_id", ARCHIVED_OWNER_QUERY, ownerId, currentState, out);
+    }
+
+    //PAST, ALL и REJECTED дополняются архивом через UNION ALL с общей сортировкой, остальные читают только горячий слой
+    private void stream(String query, String alias, String idColumn, String archivedQuery,
+                        long userId, State state, OutputStream out) {
+        List<Object> args = new ArrayList<>();
+        args.add(userId);
+        String sql = query + condition(state, alias, args);
+        if (state == State.ALL || state == State.PAST || state == State.REJECTED) {
+            args.add(userId);
+            String archived = archivedQuery + (state == State.REJECTED
+                    ? equalTo("b.status", Status.REJECTED.name(), args) : "");
+            sql = "select * from (" + sql + " union all " + archived + ") t order by t.start_date, t.id";
+        } else {
+            sql += " order by " + alias + "start_date, " + idColumn;
+        }
+        String ordered = sql;
+        transactionTemplate.executeWithoutResult(status ->
+                jdbcTemplate.query(ordered, (RowCallbackHandler) rs -> write(mapToBookingDto(rs), out), args.toArray()));
+        try {
+            out.flush();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private static String condition(State state, String alias, List<Object> args) {
+        return switch (state) {
+            case ALL -> "";
+            case CURRENT -> equalTo(alias + "phase", Phase.ACTIVE.name(), args);
+            case PAST -> equalTo(alias + "phase", Phase.FINISHED.name(), args);
+            case FUTURE -> equalTo(alias + "phase", Phase.UPCOMING.name(), args);
+            case WAITING -> equalTo(alias + "status", Status.WAITING.name(), args);
+            case REJECTED -> equalTo(alias + "status", Status.REJECTED.name(), args);
+        };
+    }
+
+    private static String equalTo(String column, String value, List<Object> args) {
+        args.add(value);
+        return " and " + column + " = ?";
+    }
+
+    private void write(BookingDto booking, OutputStream out) {
+        try {
+            out.write(objectMapper.writeValueAsBytes(booking));
+            out.write('\n');
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private static BookingDto mapToBookingDto(ResultSet rs) throws SQLException {
+        ItemDto item = new ItemDto(rs.getLong("item_id"), rs.getString("item_name"), rs.getString("item_description"),
+                rs.getBoolean("item_available"), rs.getLong("owner_id"), rs.getLong("item_request_id"));
+        UserDto booker = new UserDto(rs.getLong("booker_id"), rs.getString("booker_name"), rs.getString("booker_email"));
+        return new BookingDto(rs.getLong("id"), rs.getTimestamp("start_date").toLocalDateTime(),
+                rs.getTimestamp("end_date").toLocalDateTime(), item, booker, Status.valueOf(rs.getString("status")));
+    }
+}
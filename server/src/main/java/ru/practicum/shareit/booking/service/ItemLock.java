@@ -0,0 +1,35 @@
+package ru.practicum.shareit.booking.service;
+
+import java.util.Collection;
+
+/**
+ * Блокировка вещи на время текущей транзакции. Проверка пересечений и вставка бронирования
+ * выполняются под ней, поэтому два параллельных запроса на одну вещь не могут занять одно и то же время.
+ * Блокировки разных вещей друг другу не мешают.
+ */
+public interface ItemLock {
+
+    /**
+     * Захватывает блокировку вещи; она освобождается автоматически при завершении транзакции.
+     */
+    void lock(long itemId);
+
+    /**
+     * true, если блокировка действует на все экземпляры приложения. Тогда бронирования вещи могли
+     * изменить другие экземпляры, и под блокировкой их нужно перечитать из БД, а не из индекса в памяти.
+     */
+    default boolean sharedAcrossInstances() {
+        return false;
+    }
+
+    /**
+     * Захватывает блокировки нескольких вещей в порядке возрастания ID: два запроса
+     * с пересекающимися наборами вещей берут общие блокировки в одном порядке и не ждут друг друга по кругу.
+     */
+    default void lockAll(Collection<Long> itemIds) {
+        itemIds.stream()
+                .distinct()
+                .sorted()
+                .forEach(this::lock);
+    }
+}
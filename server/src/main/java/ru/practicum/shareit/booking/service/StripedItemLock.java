@@ -0,0 +1,60 @@
+package ru.practicum.shareit.booking.service;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.Collection;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Блокировка вещи в памяти процесса для БД без advisory locks (H2).
+ * Вещи распределяются по фиксированному набору замков, поэтому разные вещи почти никогда не ждут друг друга.
+ */
+@Component
+@ConditionalOnProperty(name = "shareit.booking.lock-mode", havingValue = "striped", matchIfMissing = true)
+public class StripedItemLock implements ItemLock {
+    private final ReentrantLock[] stripes;
+
+    public StripedItemLock(@Value("${shareit.booking.lock-stripes:64}") int stripeCount) {
+        stripes = new ReentrantLock[stripeCount];
+        for (int i = 0; i < stripeCount; i++) {
+            stripes[i] = new ReentrantLock();
+        }
+    }
+
+    @Override
+    public void lock(long itemId) {
+        lockStripe(stripe(itemId));
+    }
+
+    //несколько вещей могут попасть в один замок, поэтому порядок задаётся номерами замков, а не ID вещей
+    @Override
+    public void lockAll(Collection<Long> itemIds) {
+        itemIds.stream()
+                .map(this::stripe)
+                .distinct()
+                .sorted()
+                .forEach(this::lockStripe);
+    }
+
+    private int stripe(long itemId) {
+        return Math.floorMod(Long.hashCode(itemId) * 0x9E3779B9, stripes.length);
+    }
+
+    private void lockStripe(int index) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            throw new IllegalStateException("Блокировка вещи возможна только внутри транзакции");
+        }
+        ReentrantLock stripe = stripes[index];
+        stripe.lock();
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCompletion(int status) {
+                stripe.unlock();
+            }
+        });
+    }
+}
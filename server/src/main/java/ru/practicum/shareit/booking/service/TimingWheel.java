@@ -0,0 +1,137 @@
+package ru.practicum.shareit.booking.service;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.DelayQueue;
+import java.util.concurrent.Delayed;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Иерархическое колесо таймеров: задача кладётся в ячейку колеса с подходящим шагом,
+ * а слишком далёкие — в колесо следующего уровня с шагом, равным обороту текущего.
+ * В очередь с задержкой попадают только непустые ячейки, поэтому ожидание не зависит от числа задач.
+ * Когда ячейка верхнего уровня наступает, её задачи перекладываются в более мелкие колёса.
+ */
+final class TimingWheel<T> {
+    private final long tickMs;
+    private final int wheelSize;
+    private final long interval;
+    private final Bucket<T>[] buckets;
+    private final DelayQueue<Bucket<T>> queue;
+    private long currentTime;
+    private TimingWheel<T> overflowWheel;
+
+    TimingWheel(long tickMs, int wheelSize, long startMs) {
+        this(tickMs, wheelSize, startMs, new DelayQueue<>());
+    }
+
+    @SuppressWarnings("unchecked")
+    private TimingWheel(long tickMs, int wheelSize, long startMs, DelayQueue<Bucket<T>> queue) {
+        this.tickMs = tickMs;
+        this.wheelSize = wheelSize;
+        this.interval = tickMs * wheelSize;
+        this.queue = queue;
+        this.currentTime = startMs - (startMs % tickMs);
+        this.buckets = new Bucket[wheelSize];
+        for (int i = 0; i < wheelSize; i++) {
+            buckets[i] = new Bucket<>();
+        }
+    }
+
+    /**
+     * Возвращает false, если момент уже попадает в текущий шаг колеса: такую задачу нужно выполнить сразу.
+     */
+    synchronized boolean add(long expirationMs, T task) {
+        return addInternal(expirationMs, task);
+    }
+
+    /**
+     * Ждёт наступления ближайшей ячейки не дольше timeoutMs и возвращает задачи, время которых подошло.
+     */
+    List<Entry<T>> poll(long timeoutMs) throws InterruptedException {
+        List<Entry<T>> due = new ArrayList<>();
+        Bucket<T> bucket = queue.poll(timeoutMs, TimeUnit.MILLISECONDS);
+        if (bucket == null) {
+            return due;
+        }
+        synchronized (this) {
+            while (bucket != null) {
+                advanceClock(bucket.expiration());
+                for (Entry<T> entry : bucket.flush()) {
+                    if (!addInternal(entry.expirationMs(), entry.task())) {
+                        due.add(entry);
+                    }
+                }
+                bucket = queue.poll();
+            }
+        }
+        return due;
+    }
+
+    private boolean addInternal(long expirationMs, T task) {
+        if (expirationMs < currentTime + tickMs) {
+            return false;
+        }
+        if (expirationMs < currentTime + interval) {
+            long virtualId = expirationMs / tickMs;
+            Bucket<T> bucket = buckets[(int) (virtualId % wheelSize)];
+            bucket.add(new Entry<>(expirationMs, task));
+            if (bucket.setExpiration(virtualId * tickMs)) {
+                queue.offer(bucket);
+            }
+            return true;
+        }
+        if (overflowWheel == null) {
+            overflowWheel = new TimingWheel<>(interval, wheelSize, currentTime, queue);
+        }
+        return overflowWheel.addInternal(expirationMs, task);
+    }
+
+    private void advanceClock(long timeMs) {
+        if (timeMs >= currentTime + tickMs) {
+            currentTime = timeMs - (timeMs % tickMs);
+            if (overflowWheel != null) {
+                overflowWheel.advanceClock(currentTime);
+            }
+        }
+    }
+
+    record Entry<T>(long expirationMs, T task) {
+    }
+
+    private static final class Bucket<T> implements Delayed {
+        private long expiration = -1;
+        private List<Entry<T>> entries = new ArrayList<>();
+
+        synchronized void add(Entry<T> entry) {
+            entries.add(entry);
+        }
+
+        synchronized boolean setExpiration(long expirationMs) {
+            boolean changed = expiration != expirationMs;
+            expiration = expirationMs;
+            return changed;
+        }
+
+        synchronized long expiration() {
+            return expiration;
+        }
+
+        synchronized List<Entry<T>> flush() {
+            List<Entry<T>> flushed = entries;
+            entries = new ArrayList<>();
+            expiration = -1;
+            return flushed;
+        }
+
+        @Override
+        public long getDelay(TimeUnit unit) {
+            return unit.convert(Math.max(expiration() - System.currentTimeMillis(), 0), TimeUnit.MILLISECONDS);
+        }
+
+        @Override
+        public int compareTo(Delayed other) {
+            return Long.compare(expiration(), ((Bucket<?>) other).expiration());
+        }
+    }
+}
@@ -0,0 +1,42 @@
+package ru.practicum.shareit.idempotency.model;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.GeneratedValue;
+import jakarta.persistence.GenerationType;
+import jakarta.persistence.Id;
+import jakarta.persistence.Table;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+/**
+ * Сохранённый ответ на запрос с ключом идемпотентности. Ключ действует в пределах пользователя и операции.
+ */
+@Entity
+@Table(name = "idempotency_keys")
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class IdempotencyRecord {
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private long id;
+
+    @Column(name = "user_id")
+    private long userId;
+
+    private String operation;
+
+    @Column(name = "idempotency_key")
+    private String key;
+
+    @Column(name = "request_hash")
+    private String requestHash;
+
+    private String response;
+
+    private LocalDateTime created;
+}
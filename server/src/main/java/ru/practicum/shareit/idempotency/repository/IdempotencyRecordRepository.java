@@ -0,0 +1,18 @@
+package ru.practicum.shareit.idempotency.repository;
+
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import ru.practicum.shareit.idempotency.model.IdempotencyRecord;
+
+import java.time.LocalDateTime;
+import java.util.Optional;
+
+public interface IdempotencyRecordRepository extends JpaRepository<IdempotencyRecord, Long> {
+
+    Optional<IdempotencyRecord> findByUserIdAndOperationAndKey(long userId, String operation, String key);
+
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @Query("delete from IdempotencyRecord r where r.created < ?1")
+    int deleteCreatedBefore(LocalDateTime threshold);
+}
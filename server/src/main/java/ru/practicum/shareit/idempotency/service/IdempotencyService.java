@@ -0,0 +1,197 @@
+package ru.practicum.shareit.idempotency.service;
+
+import com.fasterxml.jackson.annotation.JsonProperty;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.introspect.Annotated;
+import com.fasterxml.jackson.databind.introspect.JacksonAnnotationIntrospector;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import ru.practicum.shareit.exception.ConflictException;
+import ru.practicum.shareit.exception.ValidationException;
+import ru.practicum.shareit.idempotency.model.IdempotencyRecord;
+import ru.practicum.shareit.idempotency.repository.IdempotencyRecordRepository;
+
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.HexFormat;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Optional;
+import java.util.function.Supplier;
+
+/**
+ * Повтор POST-запроса с тем же заголовком Idempotency-Key возвращает сохранённый ответ, не выполняя операцию заново.
+ * Ключ записывается в таблицу до выполнения операции и в той же транзакции, поэтому параллельный дубль
+ * ждёт на уникальном индексе и получает 409, а после коммита — сохранённый ответ.
+ * Недавние ответы дополнительно держатся в ограниченном LRU-кэше в памяти, чтобы повтор не ходил в БД.
+ */
+@Slf4j
+@Service
+public class IdempotencyService {
+    public static final String HEADER = "Idempotency-Key";
+    private static final int MAX_KEY_LENGTH = 255;
+
+    private final IdempotencyRecordRepository repository;
+    private final ObjectMapper objectMapper;
+    private final ObjectMapper storedResponseMapper;
+    private final Duration ttl;
+    private final Map<CacheKey, CachedResponse> cache;
+
+    public IdempotencyService(IdempotencyRecordRepository repository,
+                              ObjectMapper objectMapper,
+                              @Value("${shareit.idempotency.ttl-hours:24}") long ttlHours,
+                              @Value("${shareit.idempotency.cache-size:10000}") int cacheSize) {
+        this.repository = repository;
+        this.objectMapper = objectMapper;
+        // в DTO ID помечены READ_ONLY и при обычном чтении JSON терялись бы
+        this.storedResponseMapper = objectMapper.copy().setAnnotationIntrospector(new JacksonAnnotationIntrospector() {
+            @Override
+            public JsonProperty.Access findPropertyAccess(Annotated annotated) {
+                return null;
+            }
+        });
+        this.ttl = Duration.ofHours(ttlHours);
+        this.cache = new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<CacheKey, CachedResponse> eldest) {
+                return size() > cacheSize;
+            }
+        };
+    }
+
+    @Transactional
+    public <T> T execute(long userId, String key, String operation, Object request, Class<T> type, Supplier<T> action) {
+        if (key == null) {
+            return action.get();
+        }
+        if (key.isBlank() || key.length() > MAX_KEY_LENGTH) {
+            String message = "Ключ идемпотентности должен быть непустым и не длиннее " + MAX_KEY_LENGTH + " символов";
+            log.error(message);
+            throw new ValidationException(message);
+        }
+        CacheKey cacheKey = new CacheKey(userId, operation, key);
+        String requestHash = hash(request);
+        LocalDateTime now = LocalDateTime.now();
+
+        CachedResponse cached = cached(cacheKey, now);
+        if (cached != null) {
+            checkSameRequest(cached.requestHash(), requestHash);
+            return type.cast(cached.response());
+        }
+
+        Optional<IdempotencyRecord> stored = repository.findByUserIdAndOperationAndKey(userId, operation, key);
+        if (stored.isPresent() && stored.get().getCreated().isAfter(now.minus(ttl))) {
+            IdempotencyRecord record = stored.get();
+            checkSameRequest(record.getRequestHash(), requestHash);
+            T response = read(record.getResponse(), type);
+            remember(cacheKey, new CachedResponse(requestHash, response, record.getCreated().plus(ttl)));
+            log.debug("Повтор запроса {} с ключом {} — возвращён сохранённый ответ", operation, key);
+            return response;
+        }
+        stored.ifPresent(record -> {
+            repository.delete(record);
+            repository.flush();
+        });
+
+        IdempotencyRecord record = new IdempotencyRecord(0, userId, operation, key, requestHash, null, now);
+        try {
+            record = repository.saveAndFlush(record);
+        } catch (DataIntegrityViolationException e) {
+            String message = "Запрос с этим ключом идемпотентности уже выполняется";
+            log.error(message);
+            throw new ConflictException(message);
+        }
+        T response = action.get();
+        record.setResponse(write(response));
+        afterCommit(() -> remember(cacheKey, new CachedResponse(requestHash, response, now.plus(ttl))));
+        return response;
+    }
+
+    @Scheduled(initialDelayString = "${shareit.idempotency.purge-interval-ms:3600000}",
+            fixedDelayString = "${shareit.idempotency.purge-interval-ms:3600000}")
+    @Transactional
+    public void purgeExpired() {
+        int purged = repository.deleteCreatedBefore(LocalDateTime.now().minus(ttl));
+        if (purged > 0) {
+            log.info("Удалено {} просроченных ключей идемпотентности", purged);
+        }
+    }
+
+    private CachedResponse cached(CacheKey cacheKey, LocalDateTime now) {
+        synchronized (cache) {
+            CachedResponse cached = cache.get(cacheKey);
+            if (cached != null && cached.expires().isBefore(now)) {
+                cache.remove(cacheKey);
+                return null;
+            }
+            return cached;
+        }
+    }
+
+    private void remember(CacheKey cacheKey, CachedResponse response) {
+        synchronized (cache) {
+            cache.put(cacheKey, response);
+        }
+    }
+
+    private static void checkSameRequest(String storedHash, String requestHash) {
+        if (!storedHash.equals(requestHash)) {
+            String message = "Ключ идемпотентности уже использован для другого запроса";
+            log.error(message);
+            throw new ConflictException(message);
+        }
+    }
+
+    private String hash(Object request) {
+        try {
+            MessageDigest digest = MessageDigest.getInstance("SHA-256");
+            return HexFormat.of().formatHex(digest.digest(objectMapper.writeValueAsBytes(request)));
+        } catch (JsonProcessingException | NoSuchAlgorithmException e) {
+            throw new IllegalStateException("Не удалось вычислить хэш запроса", e);
+        }
+    }
+
+    private String write(Object response) {
+        try {
+            return storedResponseMapper.writeValueAsString(response);
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("Не удалось сохранить ответ", e);
+        }
+    }
+
+    private <T> T read(String response, Class<T> type) {
+        try {
+            return storedResponseMapper.readValue(response, type);
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("Не удалось прочитать сохранённый ответ", e);
+        }
+    }
+
+    private static void afterCommit(Runnable action) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            action.run();
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                action.run();
+            }
+        });
+    }
+
+    private record CacheKey(long userId, String operation, String key) {
+    }
+
+    private record CachedResponse(String requestHash, Object response, LocalDateTime expires) {
+    }
+}
@@ -2,6 +2,7 @@ package ru.practicum.shareit.item.controller;
 
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.format.annotation.DateTimeFormat;
 import org.springframework.http.HttpStatus;
 import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.PatchMapping;
@@ -15,12 +16,15 @@ import org.springframework.web.bind.annotation.ResponseStatus;
 import org.springframework.web.bind.annotation.RestController;
 import ru.practicum.shareit.item.dto.AdvancedItemDto;
 import ru.practicum.shareit.item.dto.CommentDto;
+import ru.practicum.shareit.item.dto.FreeSlotDto;
 import ru.practicum.shareit.item.dto.ItemDto;
 import ru.practicum.shareit.item.dto.NewCommentRequest;
 import ru.practicum.shareit.item.dto.NewItemRequest;
 import ru.practicum.shareit.item.dto.UpdateItemRequest;
+import ru.practicum.shareit.idempotency.service.IdempotencyService;
 import ru.practicum.shareit.item.service.ItemService;
 
+import java.time.LocalDateTime;
 import java.util.List;
 
 /**
@@ -32,13 +36,16 @@ import java.util.List;
 @RequestMapping("/items")
 public class ItemController {
     private final ItemService itemService;
+    private final IdempotencyService idempotencyService;
 
     @PostMapping
     @ResponseStatus(HttpStatus.CREATED)
     public ItemDto createItem(@RequestHeader("X-Sharer-User-Id") long userId,
+                              @RequestHeader(name = IdempotencyService.HEADER, required = false) String idempotencyKey,
                               @RequestBody NewItemRequest newItemRequest) {
         log.info("Вызван эндпоинт создания вещи");
-        return itemService.createItem(userId, newItemRequest);
+        return idempotencyService.execute(userId, idempotencyKey, "POST /items", newItemRequest, ItemDto.class,
+                () -> itemService.createItem(userId, newItemRequest));
     }
 
     @PatchMapping("/{itemId}")
@@ -61,18 +68,32 @@ public class ItemController {
         return itemService.getItemById(itemId);
     }
 
+    @GetMapping("/{itemId}/availability")
+    public List<FreeSlotDto> getAvailability(@PathVariable("itemId") long itemId,
+                                             @RequestParam("from") @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime from,
+                                             @RequestParam("to") @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime to) {
+        log.info("Вызван эндпоинт получения свободного времени вещи с ID {}", itemId);
+        return itemService.getAvailability(itemId, from, to);
+    }
+
     @GetMapping("/search")
-    public List<ItemDto> searchItems(@RequestParam("text") String text) {
+    public List<ItemDto> searchItems(@RequestParam("text") String text,
+                                     @RequestParam(name = "start", required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime start,
+                                     @RequestParam(name = "end", required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime end,
+                                     @RequestParam(name = "from", defaultValue = "0") int from,
+                                     @RequestParam(name = "size", required = false) Integer size) {
         log.info("Вызван эндпоинт поиска вещей");
-        return itemService.searchItems(text);
+        return itemService.searchItems(text, start, end, from, size);
     }
 
     @PostMapping("/{itemId}/comment")
     @ResponseStatus(HttpStatus.CREATED)
     public CommentDto createComment(@RequestHeader("X-Sharer-User-Id") long userId,
+                                    @RequestHeader(name = IdempotencyService.HEADER, required = false) String idempotencyKey,
                                     @PathVariable("itemId") long itemId,
                                     @RequestBody NewCommentRequest newCommentRequest) {
         log.info("Вызван эндпоинт создания комментария");
-        return itemService.createComment(userId, itemId, newCommentRequest);
+        return idempotencyService.execute(userId, idempotencyKey, "POST /items/" + itemId + "/comment", newCommentRequest,
+                CommentDto.class, () -> itemService.createComment(userId, itemId, newCommentRequest));
     }
 }
\ No newline at end of file
@@ -0,0 +1,17 @@
+package ru.practicum.shareit.item.model;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.ToString;
+
+/**
+ * Найденная вещь без связанных сущностей — всё, что нужно для ранжирования выдачи.
+ */
+@Getter
+@ToString
+@AllArgsConstructor
+public class ItemSearchCandidate {
+    private final long id;
+    private final String name;
+    private final String description;
+}
@@ -1,10 +1,14 @@
 package ru.practicum.shareit.item.repository;
 
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
 import ru.practicum.shareit.item.model.Comment;
 
+import java.util.Collection;
 import java.util.List;
 
 public interface CommentRepository extends JpaRepository<Comment, Long> {
-    List<Comment> findByItemId(long itemId);
+    // автор подтягивается в том же запросе, CommentMapper берёт из него имя
+    @Query("select c from Comment c join fetch c.author where c.item.id in ?1 order by c.created, c.id")
+    List<Comment> findAllWithAuthorByItemIdIn(Collection<Long> itemIds);
 }
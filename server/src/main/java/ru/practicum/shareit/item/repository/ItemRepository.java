@@ -1,17 +1,48 @@
 package ru.practicum.shareit.item.repository;
 
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Query;
+import ru.practicum.shareit.booking.repository.BookingRepository;
 import ru.practicum.shareit.item.model.Item;
+import ru.practicum.shareit.item.model.ItemSearchCandidate;
 
+import java.time.LocalDateTime;
 import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
 
 public interface ItemRepository extends JpaRepository<Item, Long> {
 
     List<Item> findAllItemsByOwnerId(long ownerId);
 
-    @Query("select i from Item i where i.available = true and (upper(i.name) like upper(concat('%', ?1, '%')) or upper(i.description) like upper(concat('%', ?1, '%')))")
-    List<Item> search(String text);
+    // порция доступных вещей после afterId для построения триграммного индекса
+    @Query("select i from Item i where i.available = true and i.id > ?1 order by i.id")
+    List<Item> findAvailableAfter(long afterId, Pageable page);
+
+    // все совпадения читаются потоком без сущностей, страницу отбирает ItemSearchRanking.TopK
+    @Query("select new ru.practicum.shareit.item.model.ItemSearchCandidate(i.id, i.name, i.description) from Item i " +
+            "where i.available = true and (upper(i.name) like upper(concat('%', ?1, '%')) or upper(i.description) like upper(concat('%', ?1, '%')))")
+    Stream<ItemSearchCandidate> searchCandidates(String text);
+
+    // вещи без активных бронирований в окне [start, end); подзапрос идёт по частичному индексу idx_bookings_item_active
+    @Query("select new ru.practicum.shareit.item.model.ItemSearchCandidate(i.id, i.name, i.description) from Item i " +
+            "where i.available = true and (upper(i.name) like upper(concat('%', ?1, '%')) or upper(i.description) like upper(concat('%', ?1, '%'))) " +
+            "and not exists (select b.id from Booking b where b.item = i and " + BookingRepository.ACTIVE + " and b.start < ?3 and b.end > ?2)")
+    Stream<ItemSearchCandidate> searchFreeCandidates(String text, LocalDateTime start, LocalDateTime end);
 
     List<Item> findAllItemsByRequestId(long requestId);
+
+    // вещи по ID в порядке списка ids; удалённые к моменту чтения пропускаются
+    default List<Item> findAllByIdInOrder(List<Long> ids) {
+        Map<Long, Item> items = findAllById(ids).stream()
+                .collect(Collectors.toMap(Item::getId, Function.identity()));
+        return ids.stream()
+                .map(items::get)
+                .filter(Objects::nonNull)
+                .toList();
+    }
 }
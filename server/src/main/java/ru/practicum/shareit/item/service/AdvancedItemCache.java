@@ -0,0 +1,157 @@
+package ru.practicum.shareit.item.service;
+
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import ru.practicum.shareit.item.dto.AdvancedItemDto;
+
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Supplier;
+
+/**
+ * Кэш собранных AdvancedItemDto для GET /items/{itemId}. В карте лежат future, поэтому одновременные
+ * промахи по одной вещи ждут одну загрузку; блокировка держится только на время операций с картой.
+ * Запись живёт до начала ближайшего бронирования (тогда меняются lastBooking и nextBooking)
+ * или до инвалидации при изменении вещи, отзывов, одобренных бронирований или имени автора отзыва.
+ * При переполнении вытесняются давно не читавшиеся вещи (LRU).
+ */
+@Component
+public class AdvancedItemCache {
+    static final String NAME = "advancedItem";
+
+    private final int maxSize;
+    private final LinkedHashMap<Long, CompletableFuture<Entry>> entries = new LinkedHashMap<>(16, 0.75f, true);
+
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+
+    public AdvancedItemCache(@Value("${shareit.item.cache.max-size:10000}") int maxSize, MeterRegistry meterRegistry) {
+        this.maxSize = maxSize;
+        FunctionCounter.builder("cache.gets", hits, LongAdder::sum).tag("cache", NAME).tag("result", "hit")
+                .register(meterRegistry);
+        FunctionCounter.builder("cache.gets", misses, LongAdder::sum).tag("cache", NAME).tag("result", "miss")
+                .register(meterRegistry);
+        Gauge.builder("cache.size", this, AdvancedItemCache::size).tag("cache", NAME).register(meterRegistry);
+    }
+
+    /**
+     * Вещь из кэша или из loader; исключение загрузки получают все, кто её ждал, и в кэше оно не остаётся.
+     */
+    public AdvancedItemDto get(long itemId, Supplier<AdvancedItemDto> loader) {
+        while (true) {
+            CompletableFuture<Entry> created = new CompletableFuture<>();
+            CompletableFuture<Entry> existing = putIfAbsent(itemId, created);
+            if (existing == null) {
+                misses.increment();
+                return load(itemId, created, loader);
+            }
+            Entry entry = await(existing);
+            if (!entry.isExpired(LocalDateTime.now())) {
+                hits.increment();
+                return entry.item();
+            }
+            remove(itemId, existing);
+        }
+    }
+
+    /**
+     * Удаляет вещи сразу и ещё раз после завершения транзакции, чтобы не осталась запись,
+     * загруженная до коммита изменения.
+     */
+    public void invalidate(Collection<Long> itemIds) {
+        invalidateNow(itemIds);
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCompletion(int status) {
+                    invalidateNow(itemIds);
+                }
+            });
+        }
+    }
+
+    public void invalidate(long itemId) {
+        invalidate(List.of(itemId));
+    }
+
+    public void invalidateAll() {
+        clear();
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCompletion(int status) {
+                    clear();
+                }
+            });
+        }
+    }
+
+    public synchronized int size() {
+        return entries.size();
+    }
+
+    private AdvancedItemDto load(long itemId, CompletableFuture<Entry> created, Supplier<AdvancedItemDto> loader) {
+        try {
+            AdvancedItemDto item = loader.get();
+            created.complete(new Entry(item, item.getNextBooking()));
+            return item;
+        } catch (RuntimeException e) {
+            remove(itemId, created);
+            created.completeExceptionally(e);
+            throw e;
+        }
+    }
+
+    private static Entry await(CompletableFuture<Entry> future) {
+        try {
+            return future.join();
+        } catch (CompletionException e) {
+            throw e.getCause() instanceof RuntimeException cause ? cause : e;
+        }
+    }
+
+    private synchronized CompletableFuture<Entry> putIfAbsent(long itemId, CompletableFuture<Entry> created) {
+        CompletableFuture<Entry> existing = entries.get(itemId);
+        if (existing != null) {
+            return existing;
+        }
+        entries.put(itemId, created);
+        Iterator<CompletableFuture<Entry>> eldest = entries.values().iterator();
+        while (entries.size() > maxSize && eldest.hasNext()) {
+            eldest.next();
+            eldest.remove();
+        }
+        return null;
+    }
+
+    private synchronized void remove(long itemId, CompletableFuture<Entry> future) {
+        entries.remove(itemId, future);
+    }
+
+    private synchronized void invalidateNow(Collection<Long> itemIds) {
+        itemIds.forEach(entries::remove);
+    }
+
+    private synchronized void clear() {
+        entries.clear();
+    }
+
+    // validUntil — начало ближайшего бронирования, null — бронирований впереди нет
+    private record Entry(AdvancedItemDto item, LocalDateTime validUntil) {
+
+        boolean isExpired(LocalDateTime now) {
+            return validUntil != null && !now.isBefore(validUntil);
+        }
+    }
+}
@@ -0,0 +1,156 @@
+package ru.practicum.shareit.item.service;
+
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import ru.practicum.shareit.item.dto.ItemDto;
+import ru.practicum.shareit.item.model.Item;
+
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Кэш страниц поиска вещей без окна дат. Ключ — текст запроса в верхнем регистре и страница.
+ * Размер ограничен суммарным весом записей (число вещей на странице плюс один), при переполнении
+ * вытесняются давно не читавшиеся страницы (LRU). При создании или изменении вещи удаляются только
+ * страницы запросов, которым вещь соответствовала до или после изменения: только на них она могла
+ * появиться, исчезнуть или сдвинуть выдачу. Соответствие определяет текущий ItemSearchEngine,
+ * потому что правила поиска у движков разные. Метрики публикуются в Micrometer как cache.gets,
+ * cache.puts, cache.evictions и cache.size с тегом cache=itemSearch.
+ */
+@Slf4j
+@Component
+public class ItemSearchCache {
+    static final String NAME = "itemSearch";
+
+    private final long maxWeight;
+    private final ItemSearchEngine searchEngine;
+    private final LinkedHashMap<Key, List<ItemDto>> pages = new LinkedHashMap<>(16, 0.75f, true);
+    private long weight;
+    // меняется при каждой инвалидации; страница, прочитанная до неё, в кэш не попадает
+    private long stamp;
+
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+    private final LongAdder puts = new LongAdder();
+    private final LongAdder evictions = new LongAdder();
+    private final LongAdder invalidations = new LongAdder();
+
+    public ItemSearchCache(@Value("${shareit.search.cache.max-weight:10000}") long maxWeight,
+                           MeterRegistry meterRegistry, ItemSearchEngine searchEngine) {
+        this.maxWeight = maxWeight;
+        this.searchEngine = searchEngine;
+        FunctionCounter.builder("cache.gets", hits, LongAdder::sum).tag("cache", NAME).tag("result", "hit")
+                .register(meterRegistry);
+        FunctionCounter.builder("cache.gets", misses, LongAdder::sum).tag("cache", NAME).tag("result", "miss")
+                .register(meterRegistry);
+        FunctionCounter.builder("cache.puts", puts, LongAdder::sum).tag("cache", NAME).register(meterRegistry);
+        FunctionCounter.builder("cache.evictions", evictions, LongAdder::sum).tag("cache", NAME).register(meterRegistry);
+        FunctionCounter.builder("shareit.search.cache.invalidations", invalidations, LongAdder::sum)
+                .register(meterRegistry);
+        Gauge.builder("cache.size", this, ItemSearchCache::size).tag("cache", NAME).register(meterRegistry);
+    }
+
+    public static Key key(String text, int from, int size) {
+        return new Key(ItemSearchRanking.normalize(text), from, size);
+    }
+
+    public synchronized Optional<List<ItemDto>> get(Key key) {
+        List<ItemDto> page = pages.get(key);
+        (page == null ? misses : hits).increment();
+        return Optional.ofNullable(page);
+    }
+
+    /**
+     * Отметка, которую нужно взять до чтения страницы из БД и передать в put.
+     */
+    public synchronized long stamp() {
+        return stamp;
+    }
+
+    public synchronized void put(Key key, List<ItemDto> page, long readStamp) {
+        if (readStamp != stamp) {
+            return;
+        }
+        List<ItemDto> copy = List.copyOf(page);
+        List<ItemDto> previous = pages.put(key, copy);
+        weight += weightOf(copy) - (previous == null ? 0 : weightOf(previous));
+        puts.increment();
+        Iterator<List<ItemDto>> eldest = pages.values().iterator();
+        while (weight > maxWeight && eldest.hasNext()) {
+            weight -= weightOf(eldest.next());
+            eldest.remove();
+            evictions.increment();
+        }
+    }
+
+    /**
+     * Удаляет страницы, на которые влияет изменение вещи (previous — её состояние до изменения, null для новой),
+     * сразу и ещё раз после завершения транзакции, чтобы не остались страницы, прочитанные до коммита.
+     */
+    public void invalidate(ItemState previous, Item current) {
+        ItemState next = ItemState.of(current);
+        if (next.equals(previous)) {
+            return;
+        }
+        invalidateNow(previous, next);
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCompletion(int status) {
+                    invalidateNow(previous, next);
+                }
+            });
+        }
+    }
+
+    public synchronized int size() {
+        return pages.size();
+    }
+
+    private synchronized void invalidateNow(ItemState previous, ItemState next) {
+        stamp++;
+        int removed = 0;
+        Iterator<Map.Entry<Key, List<ItemDto>>> entries = pages.entrySet().iterator();
+        while (entries.hasNext()) {
+            Map.Entry<Key, List<ItemDto>> entry = entries.next();
+            String pattern = entry.getKey().text();
+            if (searchEngine.matches(next, pattern) || previous != null && searchEngine.matches(previous, pattern)) {
+                weight -= weightOf(entry.getValue());
+                entries.remove();
+                removed++;
+            }
+        }
+        invalidations.add(removed);
+        if (removed > 0) {
+            log.debug("Из кэша поиска удалено {} страниц", removed);
+        }
+    }
+
+    private static long weightOf(List<ItemDto> page) {
+        return page.size() + 1L;
+    }
+
+    public record Key(String text, int from, int size) {
+    }
+
+    /**
+     * Поля вещи, от которых зависит поиск; название и описание уже в верхнем регистре.
+     */
+    public record ItemState(String name, String description, boolean available) {
+
+        public static ItemState of(Item item) {
+            return new ItemState(ItemSearchRanking.normalize(item.getName()),
+                    ItemSearchRanking.normalize(item.getDescription()), Boolean.TRUE.equals(item.getAvailable()));
+        }
+    }
+}
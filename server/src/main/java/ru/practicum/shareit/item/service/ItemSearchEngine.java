@@ -0,0 +1,40 @@
+package ru.practicum.shareit.item.service;
+
+import org.springframework.data.domain.Pageable;
+import ru.practicum.shareit.item.model.Item;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+/**
+ * Поиск доступных вещей, в названии или описании которых встречается текст без учёта регистра.
+ * Реализация выбирается свойством shareit.search.engine: jpql, trigram или postgres.
+ */
+public interface ItemSearchEngine {
+
+    /**
+     * Страница найденных вещей в порядке релевантности (см. ItemSearchRanking).
+     */
+    List<Item> search(String text, Pageable page);
+
+    /**
+     * То же, что search, но только вещи без активных бронирований в окне [start, end). Текст сопоставляется
+     * по тем же правилам, что и в search, поэтому окно только сужает обычную выдачу. Такие страницы
+     * кэш поиска не хранит: они зависят ещё и от бронирований.
+     */
+    List<Item> searchFree(String text, LocalDateTime start, LocalDateTime end, Pageable page);
+
+    /**
+     * Сообщает о созданной или изменённой вещи; нужно реализациям, которые держат свой индекс.
+     */
+    default void index(Item item) {
+    }
+
+    /**
+     * Может ли вещь в состоянии item попасть в выдачу по тексту pattern (в верхнем регистре);
+     * по ответу кэш поиска решает, какие страницы удалить, поэтому лишнее true допустимо, а лишнее false — нет.
+     */
+    default boolean matches(ItemSearchCache.ItemState item, String pattern) {
+        return item.available() && (item.name().contains(pattern) || item.description().contains(pattern));
+    }
+}
@@ -0,0 +1,98 @@
+package ru.practicum.shareit.item.service;
+
+import ru.practicum.shareit.item.model.ItemSearchCandidate;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Locale;
+import java.util.PriorityQueue;
+import java.util.stream.Stream;
+
+/**
+ * Релевантность найденной вещи: совпадение в названии важнее совпадения в описании, раннее вхождение
+ * важнее позднего. Чем меньше ранг, тем выше вещь в выдаче; при равном ранге выше вещь с меньшим ID.
+ */
+public final class ItemSearchRanking {
+    // больше длины любого названия (varchar(255)): совпадение в названии всегда выше совпадения в описании
+    public static final int DESCRIPTION_OFFSET = 256;
+    // вещь найдена не по подстроке (например, полнотекстовым поиском по отдельным словам)
+    public static final int UNRANKED = 1024;
+
+    private ItemSearchRanking() {
+    }
+
+    public static String normalize(String text) {
+        return text == null ? "" : text.toUpperCase(Locale.ROOT);
+    }
+
+    /**
+     * Ранг вещи для запроса; все строки уже приведены к верхнему регистру через normalize.
+     */
+    public static int rank(String name, String description, String pattern) {
+        int position = name.indexOf(pattern);
+        if (position >= 0) {
+            return position;
+        }
+        position = description.indexOf(pattern);
+        return position >= 0 ? DESCRIPTION_OFFSET + position : UNRANKED;
+    }
+
+    /**
+     * ID вещей страницы [from, from + size) по релевантности к text; поток закрывается.
+     */
+    public static List<Long> topIds(Stream<ItemSearchCandidate> candidates, String text, int from, int size) {
+        String pattern = normalize(text);
+        TopK top = new TopK(from, size);
+        try (candidates) {
+            candidates.forEach(candidate -> top.offer(candidate.getId(),
+                    rank(normalize(candidate.getName()), normalize(candidate.getDescription()), pattern)));
+        }
+        return top.page();
+    }
+
+    /**
+     * Отбор страницы лучших вещей без сортировки всех совпадений: в куче держится не больше from + size
+     * вещей, худшая из них на вершине и вытесняется более релевантной.
+     */
+    public static final class TopK {
+        private static final Comparator<Ranked> BEST_FIRST = Comparator.comparingInt(Ranked::rank)
+                .thenComparingLong(Ranked::id);
+
+        private final int from;
+        private final int capacity;
+        private final PriorityQueue<Ranked> heap;
+
+        public TopK(int from, int size) {
+            this.from = from;
+            //from + size в int переполняется при from около Integer.MAX_VALUE, а столько вещей в куче не бывает
+            this.capacity = (int) Math.min((long) from + size, Integer.MAX_VALUE);
+            this.heap = new PriorityQueue<>(Math.min(capacity, 1024), BEST_FIRST.reversed());
+        }
+
+        public void offer(long id, int rank) {
+            Ranked candidate = new Ranked(id, rank);
+            if (heap.size() < capacity) {
+                heap.add(candidate);
+            } else if (BEST_FIRST.compare(candidate, heap.peek()) < 0) {
+                heap.poll();
+                heap.add(candidate);
+            }
+        }
+
+        /**
+         * ID вещей страницы в порядке релевантности.
+         */
+        public List<Long> page() {
+            List<Ranked> best = new ArrayList<>(heap);
+            best.sort(BEST_FIRST);
+            return best.stream()
+                    .skip(from)
+                    .map(Ranked::id)
+                    .toList();
+        }
+    }
+
+    private record Ranked(long id, int rank) {
+    }
+}
@@ -2,11 +2,13 @@ package ru.practicum.shareit.item.service;
 
 import ru.practicum.shareit.item.dto.AdvancedItemDto;
 import ru.practicum.shareit.item.dto.CommentDto;
+import ru.practicum.shareit.item.dto.FreeSlotDto;
 import ru.practicum.shareit.item.dto.ItemDto;
 import ru.practicum.shareit.item.dto.NewCommentRequest;
 import ru.practicum.shareit.item.dto.NewItemRequest;
 import ru.practicum.shareit.item.dto.UpdateItemRequest;
 
+import java.time.LocalDateTime;
 import java.util.List;
 
 public interface ItemService {
@@ -18,7 +20,9 @@ public interface ItemService {
 
     AdvancedItemDto getItemById(long itemId);
 
-    List<ItemDto> searchItems(String text);
+    List<FreeSlotDto> getAvailability(long itemId, LocalDateTime from, LocalDateTime to);
+
+    List<ItemDto> searchItems(String text, LocalDateTime start, LocalDateTime end, int from, Integer size);
 
     CommentDto createComment(long userId, long itemId, NewCommentRequest newCommentRequest);
 }
@@ -2,15 +2,22 @@ package ru.practicum.shareit.item.service;
 
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 import ru.practicum.shareit.booking.model.Booking;
+import ru.practicum.shareit.booking.model.ItemBookingDates;
 import ru.practicum.shareit.booking.model.Status;
+import ru.practicum.shareit.booking.repository.ArchivedBookingRepository;
 import ru.practicum.shareit.booking.repository.BookingRepository;
+import ru.practicum.shareit.booking.repository.ItemBookingDatesRepository;
+import ru.practicum.shareit.booking.repository.OwnerBookingRepository;
+import ru.practicum.shareit.booking.service.BookingIntervalIndex;
 import ru.practicum.shareit.exception.NotFoundException;
 import ru.practicum.shareit.exception.ValidationException;
 import ru.practicum.shareit.item.dto.AdvancedItemDto;
 import ru.practicum.shareit.item.dto.CommentDto;
+import ru.practicum.shareit.item.dto.FreeSlotDto;
 import ru.practicum.shareit.item.dto.ItemDto;
 import ru.practicum.shareit.item.dto.NewCommentRequest;
 import ru.practicum.shareit.item.dto.NewItemRequest;
@@ -21,6 +28,7 @@ import ru.practicum.shareit.item.model.Comment;
 import ru.practicum.shareit.item.model.Item;
 import ru.practicum.shareit.item.repository.CommentRepository;
 import ru.practicum.shareit.item.repository.ItemRepository;
+import ru.practicum.shareit.paging.OffsetPageRequest;
 import ru.practicum.shareit.request.model.ItemRequest;
 import ru.practicum.shareit.request.repository.ItemRequestRepository;
 import ru.practicum.shareit.user.model.User;
@@ -28,7 +36,9 @@ import ru.practicum.shareit.user.repository.UserRepository;
 
 import java.time.LocalDateTime;
 import java.util.ArrayList;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
 
 @Slf4j
@@ -40,7 +50,17 @@ public class ItemServiceImpl implements ItemService {
     private final UserRepository userRepository;
     private final ItemRequestRepository requestRepository;
     private final BookingRepository bookingRepository;
+    private final ArchivedBookingRepository archivedBookingRepository;
     private final CommentRepository commentRepository;
+    private final OwnerBookingRepository ownerBookingRepository;
+    private final ItemBookingDatesRepository itemBookingDatesRepository;
+    private final BookingIntervalIndex bookingIntervalIndex;
+    private final ItemSearchEngine itemSearchEngine;
+    private final ItemSearchCache itemSearchCache;
+    private final AdvancedItemCache advancedItemCache;
+
+    @Value("${shareit.item.comment-chunk-size:500}")
+    private int commentChunkSize = 500;
 
     @Transactional
     @Override
@@ -50,6 +70,8 @@ public class ItemServiceImpl implements ItemService {
         ItemRequest itemRequest = requestRepository.findById(newItemRequest.getRequestId());
         Item item = ItemMapper.mapToItem(owner, itemRequest, newItemRequest);
         item = itemRepository.save(item);
+        itemSearchEngine.index(item);
+        itemSearchCache.invalidate(null, item);
         return ItemMapper.mapToItemDto(item);
     }
 
@@ -65,42 +87,112 @@ public class ItemServiceImpl implements ItemService {
             log.error(message);
             throw new NotFoundException(message);
         }
+        ItemSearchCache.ItemState previous = ItemSearchCache.ItemState.of(updatedItem);
         ItemMapper.updateItemFields(updatedItem, request);
         updatedItem = itemRepository.save(updatedItem);
+        itemSearchEngine.index(updatedItem);
+        itemSearchCache.invalidate(previous, updatedItem);
+        advancedItemCache.invalidate(itemId);
+        ownerBookingRepository.updateItem(itemId, updatedItem.getName(), updatedItem.getDescription(), updatedItem.getAvailable());
         return ItemMapper.mapToItemDto(updatedItem);
     }
 
+    //даты бронирований и отзывы всех вещей владельца читаются пакетно и раскладываются по вещам в памяти
     @Override
     public List<AdvancedItemDto> getAllItems(long ownerId) {
-        return itemRepository.findAllItemsByOwnerId(ownerId).stream()
-                .map(this::loadAdvancedData)
+        List<Item> items = itemRepository.findAllItemsByOwnerId(ownerId);
+        List<Long> itemIds = items.stream().map(Item::getId).toList();
+        Map<Long, ItemBookingDates> bookingDates = itemBookingDatesRepository.findLastAndNext(itemIds, LocalDateTime.now());
+        Map<Long, List<CommentDto>> comments = loadComments(itemIds);
+        return items.stream()
+                .map(item -> loadAdvancedData(item, bookingDates.get(item.getId()),
+                        comments.getOrDefault(item.getId(), List.of())))
                 .toList();
     }
 
-    public AdvancedItemDto loadAdvancedData(Item item) {
-
-        Optional<LocalDateTime> mayBeLastBooking = Optional.empty();
-        Optional<LocalDateTime> mayBeNextBooking = Optional.empty();
+    public AdvancedItemDto loadAdvancedData(Item item, ItemBookingDates bookingDates, List<CommentDto> comments) {
 
-        List<CommentDto> comments = commentRepository.findByItemId(item.getId()).stream()
-                .map(CommentMapper::mapToCommentDto)
-                .toList();
+        Optional<LocalDateTime> mayBeLastBooking = Optional.ofNullable(bookingDates).map(ItemBookingDates::getLastBooking);
+        Optional<LocalDateTime> mayBeNextBooking = Optional.ofNullable(bookingDates).map(ItemBookingDates::getNextBooking);
 
         return ItemMapper.mapToAdvancedItemDto(item, mayBeLastBooking, mayBeNextBooking, comments);
     }
 
+    //отзывы с авторами читаются одним запросом на порцию из commentChunkSize вещей
+    private Map<Long, List<CommentDto>> loadComments(List<Long> itemIds) {
+        Map<Long, List<CommentDto>> comments = new HashMap<>();
+        for (int i = 0; i < itemIds.size(); i += commentChunkSize) {
+            List<Long> chunk = itemIds.subList(i, Math.min(i + commentChunkSize, itemIds.size()));
+            commentRepository.findAllWithAuthorByItemIdIn(chunk).forEach(comment -> comments
+                    .computeIfAbsent(comment.getItem().getId(), itemId -> new ArrayList<>())
+                    .add(CommentMapper.mapToCommentDto(comment)));
+        }
+        return comments;
+    }
+
     @Override
     public AdvancedItemDto getItemById(long itemId) {
+        return advancedItemCache.get(itemId, () -> {
+            Item item = itemRepository.findById(itemId).orElseThrow(() -> new NotFoundException("Вещь с ID " + itemId + " не найдена"));
+            return loadAdvancedData(item, itemBookingDatesRepository.findLastAndNext(List.of(itemId), LocalDateTime.now()).get(itemId),
+                    loadComments(List.of(itemId)).getOrDefault(itemId, List.of()));
+        });
+    }
+
+    //свободные промежутки считаются по индексу активных бронирований, который сбрасывается при их изменении
+    @Override
+    public List<FreeSlotDto> getAvailability(long itemId, LocalDateTime from, LocalDateTime to) {
         Item item = itemRepository.findById(itemId).orElseThrow(() -> new NotFoundException("Вещь с ID " + itemId + " не найдена"));
-        return loadAdvancedData(item);
+        if (!to.isAfter(from)) {
+            String message = "Начало периода должно быть раньше конца";
+            log.error(message);
+            throw new ValidationException(message);
+        }
+        if (!item.getAvailable()) {
+            return new ArrayList<>();
+        }
+        return bookingIntervalIndex.freeSlots(itemId, from, to, FreeSlotDto::new);
     }
 
     @Override
-    public List<ItemDto> searchItems(String text) {
+    public List<ItemDto> searchItems(String text, LocalDateTime start, LocalDateTime end, int from, Integer size) {
+        if (from < 0 || size != null && size <= 0) {
+            String message = "Параметр from не может быть отрицательным, а size должен быть положительным";
+            log.error(message);
+            throw new ValidationException(message);
+        }
+        if (size != null && (long) from + size > Integer.MAX_VALUE) {
+            String message = "Сумма параметров from и size не может превышать " + Integer.MAX_VALUE;
+            log.error(message);
+            throw new ValidationException(message);
+        }
         if (text == null || text.isBlank()) {
             return new ArrayList<>();
         }
-        return itemRepository.search(text).stream()
+        //без size выдача не ограничивается, как было до постраничного поиска
+        int limit = size == null ? Integer.MAX_VALUE : size;
+        if (start == null && end == null) {
+            //выдача без окна зависит только от вещей и кэшируется до их изменения
+            ItemSearchCache.Key key = ItemSearchCache.key(text, from, limit);
+            Optional<List<ItemDto>> cached = itemSearchCache.get(key);
+            if (cached.isPresent()) {
+                return cached.get();
+            }
+            long stamp = itemSearchCache.stamp();
+            List<ItemDto> found = mapToItemDtos(itemSearchEngine.search(text, OffsetPageRequest.of(from, limit)));
+            itemSearchCache.put(key, found, stamp);
+            return found;
+        }
+        if (start == null || end == null || !end.isAfter(start)) {
+            String message = "Для поиска свободных вещей нужно указать и начало, и конец периода, начало раньше конца";
+            log.error(message);
+            throw new ValidationException(message);
+        }
+        return mapToItemDtos(itemSearchEngine.searchFree(text, start, end, OffsetPageRequest.of(from, limit)));
+    }
+
+    private static List<ItemDto> mapToItemDtos(List<Item> items) {
+        return items.stream()
                 .map(ItemMapper::mapToItemDto)
                 .toList();
     }
@@ -111,13 +203,15 @@ public class ItemServiceImpl implements ItemService {
         User author = userRepository.findById(userId).orElseThrow(() -> new NotFoundException("Пользователь c ID " + userId + " не найден"));
         Item item = itemRepository.findById(itemId).orElseThrow(() -> new NotFoundException("Вещь с ID " + itemId + " не найдена"));
         List<Booking> pastBookingsList = bookingRepository.findBookingsByBookerIdAndItemIdAndStatusAndEndIsBefore(userId, item.getId(), Status.APPROVED, LocalDateTime.now());
-        if (pastBookingsList.isEmpty()) {
+        if (pastBookingsList.isEmpty()
+                && !archivedBookingRepository.existsByBookerIdAndItemIdAndStatus(userId, item.getId(), Status.APPROVED)) {
             String message = "Пользователь c ID " + userId + " не брал в аренду вещь с ID " + item.getId();
             log.error(message);
             throw new ValidationException(message);
         }
         Comment comment = CommentMapper.mapToComment(author, item, newCommentRequest);
         comment = commentRepository.save(comment);
+        advancedItemCache.invalidate(itemId);
         return CommentMapper.mapToCommentDto(comment);
     }
 }
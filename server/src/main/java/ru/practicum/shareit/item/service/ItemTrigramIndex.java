@@ -0,0 +1,278 @@
+package ru.practicum.shareit.item.service;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import ru.practicum.shareit.item.model.Item;
+import ru.practicum.shareit.item.repository.ItemRepository;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.PrimitiveIterator;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ConcurrentNavigableMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.function.LongPredicate;
+
+/**
+ * Триграммный инвертированный индекс по названию и описанию доступных вещей.
+ * Для каждой триграммы хранится отсортированный массив ID вещей; поиск пересекает массивы триграмм
+ * запроса, а затем проверяет вхождение подстроки у кандидатов, поэтому результат совпадает
+ * с like '%text%' без учёта регистра; выдача упорядочена по ItemSearchRanking. Массивы не меняются на месте, а заменяются целиком,
+ * поэтому чтение идёт без блокировок. Индекс строится при старте и обновляется при создании
+ * и изменении вещей; до окончания построения поиск идёт через БД. Создаётся только при shareit.search.engine=trigram.
+ */
+@Slf4j
+@Component
+@ConditionalOnProperty(name = "shareit.search.engine", havingValue = "trigram")
+public class ItemTrigramIndex {
+    private static final long[] EMPTY = new long[0];
+
+    private final ItemRepository itemRepository;
+    private final int buildChunkSize;
+    private final ConcurrentNavigableMap<Long, IndexedItem> items = new ConcurrentSkipListMap<>();
+    private final ConcurrentMap<Long, long[]> postings = new ConcurrentHashMap<>();
+    // вещи, изменённые через index() во время построения, и их копия из порции построения, если она уже была пропущена
+    private final Map<Long, IndexedItem> changedDuringBuild = new HashMap<>();
+    private volatile boolean ready;
+
+    public ItemTrigramIndex(ItemRepository itemRepository,
+                            @Value("${shareit.search.trigram.build-chunk-size:1000}") int buildChunkSize) {
+        this.itemRepository = itemRepository;
+        this.buildChunkSize = buildChunkSize;
+    }
+
+    public boolean isReady() {
+        return ready;
+    }
+
+    /**
+     * Строит индекс порциями по ID. Вещи, изменённые через createItem или updateItem во время построения,
+     * из порций не берутся: порция могла быть прочитана до изменения, и её копия устарела.
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void build() {
+        long afterId = 0;
+        int total = 0;
+        List<Item> chunk;
+        do {
+            chunk = itemRepository.findAvailableAfter(afterId, PageRequest.of(0, buildChunkSize));
+            for (Item item : chunk) {
+                putFromBuild(item.getId(), IndexedItem.of(item));
+                afterId = item.getId();
+            }
+            total += chunk.size();
+        } while (chunk.size() == buildChunkSize);
+        finishBuild();
+        log.info("Триграммный индекс построен: {} вещей, {} триграмм", total, postings.size());
+    }
+
+    /**
+     * Добавляет, обновляет или убирает (если вещь недоступна) вещь в индексе. При откате транзакции
+     * восстанавливается прежнее состояние вещи.
+     */
+    public void index(Item item) {
+        IndexedItem previous = change(item.getId(), item.getAvailable() ? IndexedItem.of(item) : null);
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCompletion(int status) {
+                    if (status != STATUS_COMMITTED) {
+                        restore(item.getId(), previous);
+                    }
+                }
+            });
+        }
+    }
+
+    /**
+     * ID доступных вещей, в названии или описании которых есть text, в порядке релевантности, начиная с from-го.
+     */
+    public List<Long> search(String text, int from, int size) {
+        return search(text, from, size, id -> true);
+    }
+
+    /**
+     * То же, но только вещи, ID которых проходят filter.
+     */
+    public List<Long> search(String text, int from, int size, LongPredicate filter) {
+        String pattern = ItemSearchRanking.normalize(text);
+        long[] candidates = candidates(pattern);
+        //запрос короче триграммы не сужает кандидатов — проверяются все вещи
+        PrimitiveIterator.OfLong ids = candidates == null
+                ? items.keySet().stream().mapToLong(Long::longValue).iterator()
+                : Arrays.stream(candidates).iterator();
+        ItemSearchRanking.TopK top = new ItemSearchRanking.TopK(from, size);
+        while (ids.hasNext()) {
+            long id = ids.nextLong();
+            if (!filter.test(id)) {
+                continue;
+            }
+            IndexedItem item = items.get(id);
+            int rank = item == null ? ItemSearchRanking.UNRANKED : item.rank(pattern);
+            if (rank != ItemSearchRanking.UNRANKED) {
+                top.offer(id, rank);
+            }
+        }
+        return top.page();
+    }
+
+    //null — у запроса нет триграмм, и кандидаты не сужаются
+    private long[] candidates(String pattern) {
+        Set<Long> trigrams = trigrams(pattern);
+        if (trigrams.isEmpty()) {
+            return null;
+        }
+        List<long[]> lists = new ArrayList<>(trigrams.size());
+        for (long trigram : trigrams) {
+            long[] list = postings.get(trigram);
+            if (list == null) {
+                return EMPTY;
+            }
+            lists.add(list);
+        }
+        lists.sort(Comparator.comparingInt(list -> list.length));
+        long[] result = lists.getFirst();
+        for (int i = 1; i < lists.size() && result.length > 0; i++) {
+            result = intersect(result, lists.get(i));
+        }
+        return result;
+    }
+
+    private synchronized IndexedItem replace(long itemId, IndexedItem indexed) {
+        IndexedItem previous = indexed == null ? items.remove(itemId) : items.put(itemId, indexed);
+        Set<Long> oldTrigrams = previous == null ? Set.of() : previous.trigrams();
+        Set<Long> newTrigrams = indexed == null ? Set.of() : indexed.trigrams();
+        for (long trigram : oldTrigrams) {
+            if (!newTrigrams.contains(trigram)) {
+                postings.computeIfPresent(trigram, (key, list) -> without(list, itemId));
+            }
+        }
+        Set<Long> added = new HashSet<>(newTrigrams);
+        added.removeAll(oldTrigrams);
+        addPostings(itemId, added);
+        return previous;
+    }
+
+    private synchronized IndexedItem change(long itemId, IndexedItem indexed) {
+        if (!ready) {
+            changedDuringBuild.putIfAbsent(itemId, null);
+        }
+        return replace(itemId, indexed);
+    }
+
+    //без прежней копии откат возвращает пропущенную копию из построения, а если порция ещё не прочитана,
+    //снимает пометку, и вещь возьмётся из БД
+    private synchronized void restore(long itemId, IndexedItem previous) {
+        if (previous == null && !ready) {
+            replace(itemId, changedDuringBuild.remove(itemId));
+        } else {
+            replace(itemId, previous);
+        }
+    }
+
+    private synchronized void putFromBuild(long itemId, IndexedItem indexed) {
+        if (changedDuringBuild.containsKey(itemId)) {
+            changedDuringBuild.put(itemId, indexed);
+        } else if (items.putIfAbsent(itemId, indexed) == null) {
+            addPostings(itemId, indexed.trigrams());
+        }
+    }
+
+    private synchronized void finishBuild() {
+        ready = true;
+        changedDuringBuild.clear();
+    }
+
+    private synchronized void addPostings(long itemId, Set<Long> trigrams) {
+        for (long trigram : trigrams) {
+            postings.merge(trigram, new long[]{itemId}, (list, single) -> with(list, itemId));
+        }
+    }
+
+    static long[] intersect(long[] left, long[] right) {
+        long[] result = new long[Math.min(left.length, right.length)];
+        int size = 0;
+        int i = 0;
+        int j = 0;
+        while (i < left.length && j < right.length) {
+            if (left[i] < right[j]) {
+                i++;
+            } else if (left[i] > right[j]) {
+                j++;
+            } else {
+                result[size++] = left[i];
+                i++;
+                j++;
+            }
+        }
+        return size == result.length ? result : Arrays.copyOf(result, size);
+    }
+
+    private static long[] with(long[] list, long id) {
+        int position = Arrays.binarySearch(list, id);
+        if (position >= 0) {
+            return list;
+        }
+        position = -position - 1;
+        long[] result = new long[list.length + 1];
+        System.arraycopy(list, 0, result, 0, position);
+        result[position] = id;
+        System.arraycopy(list, position, result, position + 1, list.length - position);
+        return result;
+    }
+
+    //пустой список удаляется из индекса
+    private static long[] without(long[] list, long id) {
+        int position = Arrays.binarySearch(list, id);
+        if (position < 0) {
+            return list;
+        }
+        if (list.length == 1) {
+            return null;
+        }
+        long[] result = new long[list.length - 1];
+        System.arraycopy(list, 0, result, 0, position);
+        System.arraycopy(list, position + 1, result, position, list.length - position - 1);
+        return result;
+    }
+
+    //три символа UTF-16 упаковываются в одно число
+    static Set<Long> trigrams(String text) {
+        Set<Long> trigrams = new HashSet<>();
+        for (int i = 0; i + 3 <= text.length(); i++) {
+            trigrams.add((long) text.charAt(i) << 32 | (long) text.charAt(i + 1) << 16 | text.charAt(i + 2));
+        }
+        return trigrams;
+    }
+
+    private record IndexedItem(String name, String description) {
+
+        static IndexedItem of(Item item) {
+            return new IndexedItem(ItemSearchRanking.normalize(item.getName()), ItemSearchRanking.normalize(item.getDescription()));
+        }
+
+        int rank(String pattern) {
+            return ItemSearchRanking.rank(name, description, pattern);
+        }
+
+        Set<Long> trigrams() {
+            Set<Long> trigrams = ItemTrigramIndex.trigrams(name);
+            trigrams.addAll(ItemTrigramIndex.trigrams(description));
+            return trigrams;
+        }
+    }
+}
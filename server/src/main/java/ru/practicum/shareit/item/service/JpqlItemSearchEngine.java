@@ -0,0 +1,36 @@
+package ru.practicum.shareit.item.service;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.data.domain.Pageable;
+import org.springframework.stereotype.Component;
+import ru.practicum.shareit.item.model.Item;
+import ru.practicum.shareit.item.repository.ItemRepository;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+/**
+ * Поиск через like '%text%' в БД: полный просмотр таблицы, зато работает на любой СУБД.
+ * Совпадения ранжируются в приложении, сущности загружаются только для страницы.
+ */
+@Component
+@RequiredArgsConstructor
+@ConditionalOnProperty(name = "shareit.search.engine", havingValue = "jpql", matchIfMissing = true)
+public class JpqlItemSearchEngine implements ItemSearchEngine {
+    private final ItemRepository itemRepository;
+
+    @Override
+    public List<Item> search(String text, Pageable page) {
+        List<Long> ids = ItemSearchRanking.topIds(itemRepository.searchCandidates(text), text,
+                (int) page.getOffset(), page.getPageSize());
+        return itemRepository.findAllByIdInOrder(ids);
+    }
+
+    @Override
+    public List<Item> searchFree(String text, LocalDateTime start, LocalDateTime end, Pageable page) {
+        List<Long> ids = ItemSearchRanking.topIds(itemRepository.searchFreeCandidates(text, start, end), text,
+                (int) page.getOffset(), page.getPageSize());
+        return itemRepository.findAllByIdInOrder(ids);
+    }
+}
@@ -0,0 +1,70 @@
+package ru.practicum.shareit.item.service;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.data.domain.Pageable;
+import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.stereotype.Component;
+import ru.practicum.shareit.item.model.Item;
+import ru.practicum.shareit.item.repository.ItemRepository;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+/**
+ * Поиск средствами PostgreSQL: целые слова находит генерируемая колонка search_vector с GIN-индексом,
+ * части слов — ilike по GIN-индексам pg_trgm на name и description (миграция db/vendor/postgresql V9).
+ * Спецсимволы like в тексте экранируются, поэтому текст ищется буквально. Ранг считается в запросе так же,
+ * как в ItemSearchRanking, а order by с limit PostgreSQL выполняет top-N heapsort без полной сортировки.
+ */
+@Component
+@RequiredArgsConstructor
+@ConditionalOnProperty(name = "shareit.search.engine", havingValue = "postgres")
+public class PostgresItemSearchEngine implements ItemSearchEngine {
+    private static final String MATCH = "select id from items where is_available = true " +
+            "and (search_vector @@ plainto_tsquery('simple', :text) " +
+            "or name ilike :pattern escape '\\' or description ilike :pattern escape '\\') ";
+    // то же условие, что в ItemRepository.searchFreeCandidates; подзапрос идёт по частичному индексу idx_bookings_item_active
+    private static final String FREE = "and not exists (select 1 from bookings b where b.item_id = items.id " +
+            "and b.status in ('WAITING', 'APPROVED') and b.start_date < :end and b.end_date > :start) ";
+    private static final String ORDER = "order by case when strpos(upper(name), upper(:text)) > 0 then strpos(upper(name), upper(:text)) - 1 " +
+            "when strpos(upper(description), upper(:text)) > 0 then " + ItemSearchRanking.DESCRIPTION_OFFSET +
+            " + strpos(upper(description), upper(:text)) - 1 " +
+            "else " + ItemSearchRanking.UNRANKED + " end, id limit :limit offset :offset";
+
+    private final NamedParameterJdbcTemplate jdbcTemplate;
+    private final ItemRepository itemRepository;
+
+    @Override
+    public List<Item> search(String text, Pageable page) {
+        return itemRepository.findAllByIdInOrder(jdbcTemplate.queryForList(MATCH + ORDER, parameters(text, page), Long.class));
+    }
+
+    @Override
+    public List<Item> searchFree(String text, LocalDateTime start, LocalDateTime end, Pageable page) {
+        MapSqlParameterSource parameters = parameters(text, page)
+                .addValue("start", start)
+                .addValue("end", end);
+        return itemRepository.findAllByIdInOrder(jdbcTemplate.queryForList(MATCH + FREE + ORDER, parameters, Long.class));
+    }
+
+    private static MapSqlParameterSource parameters(String text, Pageable page) {
+        return new MapSqlParameterSource()
+                .addValue("text", text)
+                .addValue("pattern", "%" + escapeLike(text) + "%")
+                .addValue("limit", page.getPageSize())
+                .addValue("offset", page.getOffset());
+    }
+
+    //совпадение по словам считает парсер tsvector, которого в памяти не повторить, например «red drill»
+    //находит «Drill, red»; поэтому любая доступная вещь считается подходящей под любой запрос
+    @Override
+    public boolean matches(ItemSearchCache.ItemState item, String pattern) {
+        return item.available();
+    }
+
+    static String escapeLike(String text) {
+        return text.replace("\\", "\\\\").replace("%", "\\%").replace("_", "\\_");
+    }
+}
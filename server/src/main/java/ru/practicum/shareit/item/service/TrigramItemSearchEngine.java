@@ -0,0 +1,53 @@
+package ru.practicum.shareit.item.service;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.data.domain.Pageable;
+import org.springframework.stereotype.Component;
+import ru.practicum.shareit.booking.repository.BookingRepository;
+import ru.practicum.shareit.item.model.Item;
+import ru.practicum.shareit.item.repository.ItemRepository;
+
+import java.time.LocalDateTime;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Поиск по триграммному индексу в памяти приложения; из БД читаются только вещи найденной страницы.
+ * Пока индекс строится, запросы идут через like в БД.
+ */
+@Component
+@RequiredArgsConstructor
+@ConditionalOnProperty(name = "shareit.search.engine", havingValue = "trigram")
+public class TrigramItemSearchEngine implements ItemSearchEngine {
+    private final ItemTrigramIndex itemTrigramIndex;
+    private final ItemRepository itemRepository;
+    private final BookingRepository bookingRepository;
+
+    @Override
+    public List<Item> search(String text, Pageable page) {
+        if (!itemTrigramIndex.isReady()) {
+            return itemRepository.findAllByIdInOrder(ItemSearchRanking.topIds(itemRepository.searchCandidates(text), text,
+                    (int) page.getOffset(), page.getPageSize()));
+        }
+        return itemRepository.findAllByIdInOrder(itemTrigramIndex.search(text, (int) page.getOffset(), page.getPageSize()));
+    }
+
+    //занятые в окне вещи читаются одним запросом и отсеиваются при обходе кандидатов индекса
+    @Override
+    public List<Item> searchFree(String text, LocalDateTime start, LocalDateTime end, Pageable page) {
+        if (!itemTrigramIndex.isReady()) {
+            return itemRepository.findAllByIdInOrder(ItemSearchRanking.topIds(itemRepository.searchFreeCandidates(text, start, end),
+                    text, (int) page.getOffset(), page.getPageSize()));
+        }
+        Set<Long> booked = new HashSet<>(bookingRepository.findBookedItemIds(start, end));
+        return itemRepository.findAllByIdInOrder(itemTrigramIndex.search(text, (int) page.getOffset(), page.getPageSize(),
+                id -> !booked.contains(id)));
+    }
+
+    @Override
+    public void index(Item item) {
+        itemTrigramIndex.index(item);
+    }
+}
@@ -0,0 +1,84 @@
+package ru.practicum.shareit.migration;
+
+import lombok.extern.slf4j.Slf4j;
+import org.flywaydb.core.Flyway;
+import org.springframework.boot.autoconfigure.flyway.FlywayMigrationStrategy;
+import org.springframework.stereotype.Component;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.DatabaseMetaData;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Применяет ещё не выполненные миграции из db/migration и db/vendor/{vendor} (Flyway сверяет контрольные суммы уже применённых)
+ * и проверяет, что в БД есть все индексы, на которые рассчитаны запросы репозиториев.
+ * Если какого-то индекса нет, приложение не стартует.
+ */
+@Slf4j
+@Component
+public class IndexVerifyingMigrationStrategy implements FlywayMigrationStrategy {
+    static final Map<String, List<String>> REQUIRED_INDEXES = new LinkedHashMap<>();
+
+    static {
+        REQUIRED_INDEXES.put("bookings", List.of("idx_bookings_booker_start", "idx_bookings_item_dates",
+                "idx_bookings_booker_phase", "idx_bookings_phase", "idx_bookings_end", "idx_bookings_item_active"));
+        REQUIRED_INDEXES.put("items", List.of("idx_items_owner", "idx_items_request"));
+        REQUIRED_INDEXES.put("comments", List.of("idx_comments_item"));
+        REQUIRED_INDEXES.put("requests", List.of("idx_requests_requestor"));
+        REQUIRED_INDEXES.put("owner_bookings", List.of("idx_owner_bookings_owner_start",
+                "idx_owner_bookings_owner_status", "idx_owner_bookings_item", "idx_owner_bookings_booker",
+                "idx_owner_bookings_owner_phase"));
+        REQUIRED_INDEXES.put("bookings_archive", List.of("idx_bookings_archive_booker_start",
+                "idx_bookings_archive_item_start"));
+        REQUIRED_INDEXES.put("idempotency_keys", List.of("ux_idempotency_keys_user_operation_key",
+                "idx_idempotency_keys_created"));
+    }
+
+    @Override
+    public void migrate(Flyway flyway) {
+        flyway.migrate();
+        verifyIndexes(flyway.getConfiguration().getDataSource(), REQUIRED_INDEXES);
+    }
+
+    static void verifyIndexes(DataSource dataSource, Map<String, List<String>> requiredIndexes) {
+        List<String> missing = new ArrayList<>();
+        try (Connection connection = dataSource.getConnection()) {
+            DatabaseMetaData metaData = connection.getMetaData();
+            for (Map.Entry<String, List<String>> table : requiredIndexes.entrySet()) {
+                Set<String> existing = existingIndexes(metaData, table.getKey());
+                table.getValue().stream()
+                        .filter(index -> !existing.contains(index.toLowerCase(Locale.ROOT)))
+                        .forEach(index -> missing.add(table.getKey() + "." + index));
+            }
+        } catch (SQLException e) {
+            throw new IllegalStateException("Не удалось прочитать индексы из БД", e);
+        }
+        if (!missing.isEmpty()) {
+            throw new IllegalStateException("В БД отсутствуют индексы: " + String.join(", ", missing));
+        }
+        log.info("Все необходимые индексы на месте");
+    }
+
+    private static Set<String> existingIndexes(DatabaseMetaData metaData, String table) throws SQLException {
+        String tableName = metaData.storesUpperCaseIdentifiers() ? table.toUpperCase(Locale.ROOT) : table;
+        Set<String> indexes = new HashSet<>();
+        try (ResultSet rs = metaData.getIndexInfo(null, null, tableName, false, true)) {
+            while (rs.next()) {
+                String name = rs.getString("INDEX_NAME");
+                if (name != null) {
+                    indexes.add(name.toLowerCase(Locale.ROOT));
+                }
+            }
+        }
+        return indexes;
+    }
+}
@@ -0,0 +1,77 @@
+package ru.practicum.shareit.paging;
+
+import lombok.EqualsAndHashCode;
+import lombok.ToString;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Sort;
+
+/**
+ * Страница, заданная смещением from и размером size. PageRequest.of(from / size, size) округляет from
+ * вниз до кратного size, а здесь выборка начинается ровно с from-й строки.
+ */
+@EqualsAndHashCode
+@ToString
+public final class OffsetPageRequest implements Pageable {
+    private final long offset;
+    private final int limit;
+
+    private OffsetPageRequest(long offset, int limit) {
+        this.offset = offset;
+        this.limit = limit;
+    }
+
+    public static OffsetPageRequest of(long offset, int limit) {
+        if (offset < 0) {
+            throw new IllegalArgumentException("Смещение не может быть отрицательным");
+        }
+        if (limit <= 0) {
+            throw new IllegalArgumentException("Размер страницы должен быть положительным");
+        }
+        return new OffsetPageRequest(offset, limit);
+    }
+
+    @Override
+    public int getPageNumber() {
+        return (int) (offset / limit);
+    }
+
+    @Override
+    public int getPageSize() {
+        return limit;
+    }
+
+    @Override
+    public long getOffset() {
+        return offset;
+    }
+
+    @Override
+    public Sort getSort() {
+        return Sort.unsorted();
+    }
+
+    @Override
+    public Pageable next() {
+        return new OffsetPageRequest(offset + limit, limit);
+    }
+
+    @Override
+    public Pageable previousOrFirst() {
+        return hasPrevious() ? new OffsetPageRequest(Math.max(0, offset - limit), limit) : first();
+    }
+
+    @Override
+    public Pageable first() {
+        return new OffsetPageRequest(0, limit);
+    }
+
+    @Override
+    public Pageable withPage(int pageNumber) {
+        return new OffsetPageRequest((long) pageNumber * limit, limit);
+    }
+
+    @Override
+    public boolean hasPrevious() {
+        return offset > 0;
+    }
+}
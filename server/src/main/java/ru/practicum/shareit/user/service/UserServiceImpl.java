@@ -4,8 +4,10 @@ import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
+import ru.practicum.shareit.booking.repository.OwnerBookingRepository;
 import ru.practicum.shareit.exception.ConflictException;
 import ru.practicum.shareit.exception.NotFoundException;
+import ru.practicum.shareit.item.service.AdvancedItemCache;
 import ru.practicum.shareit.user.dto.NewUserRequest;
 import ru.practicum.shareit.user.dto.UpdateUserRequest;
 import ru.practicum.shareit.user.dto.UserDto;
@@ -21,6 +23,8 @@ import java.util.List;
 @Transactional(readOnly = true)
 public class UserServiceImpl implements UserService {
     private final UserRepository userRepository;
+    private final OwnerBookingRepository ownerBookingRepository;
+    private final AdvancedItemCache advancedItemCache;
 
     @Transactional
     @Override
@@ -37,9 +41,15 @@ public class UserServiceImpl implements UserService {
     public UserDto updateUser(long userId, UpdateUserRequest request) {
         log.info("Вызван сервисный метод обновления пользователя");
         User oldUser = userRepository.findById(userId).orElseThrow(() -> new NotFoundException("Пользователь с ID " + userId + " не найден"));
+        String oldName = oldUser.getName();
         User newUser = UserMapper.updateUserFields(oldUser, request);
         validateUserEmail(newUser);
         newUser = userRepository.save(newUser);
+        ownerBookingRepository.updateBooker(userId, newUser.getName(), newUser.getEmail());
+        //имя автора есть в отзывах закэшированных вещей; переименование редкое, поэтому кэш сбрасывается целиком
+        if (!newUser.getName().equals(oldName)) {
+            advancedItemCache.invalidateAll();
+        }
         return UserMapper.mapToUserDto(newUser);
     }
 
@@ -48,4 +48,4 @@ CREATE TABLE IF NOT EXISTS comments (
   CONSTRAINT pk_comment PRIMARY KEY (id),
   CONSTRAINT fk_item_comment FOREIGN KEY (item_id) REFERENCES items(id),
   CONSTRAINT fk_author FOREIGN KEY (author_id) REFERENCES users(id)
-);
\ No newline at end of file
+);
@@ -0,0 +1,15 @@
+-- Индексы под запросы репозиториев. IF NOT EXISTS — часть из них уже создавал schema.sql.
+
+CREATE INDEX IF NOT EXISTS idx_bookings_booker_start ON bookings (booker_id, start_date, id);
+
+DROP INDEX IF EXISTS idx_bookings_item_start;
+
+CREATE INDEX IF NOT EXISTS idx_bookings_item_dates ON bookings (item_id, start_date, end_date);
+
+CREATE INDEX IF NOT EXISTS idx_items_owner ON items (owner_id);
+
+CREATE INDEX IF NOT EXISTS idx_items_request ON items (request_id);
+
+CREATE INDEX IF NOT EXISTS idx_comments_item ON comments (item_id);
+
+CREATE INDEX IF NOT EXISTS idx_requests_requestor ON requests (requestor_id);
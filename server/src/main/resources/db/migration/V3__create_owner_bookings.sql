@@ -0,0 +1,34 @@
+-- Модель чтения для списков бронирований владельца: данные вещи и автора хранятся рядом с бронированием.
+
+CREATE TABLE IF NOT EXISTS owner_bookings (
+  booking_id BIGINT NOT NULL,
+  owner_id BIGINT NOT NULL,
+  start_date TIMESTAMP WITHOUT TIME ZONE NOT NULL,
+  end_date TIMESTAMP WITHOUT TIME ZONE NOT NULL,
+  status varchar(50) NOT NULL,
+  item_id BIGINT NOT NULL,
+  item_name VARCHAR(255) NOT NULL,
+  item_description VARCHAR(512) NOT NULL,
+  item_available BOOLEAN NOT NULL,
+  item_request_id BIGINT,
+  booker_id BIGINT NOT NULL,
+  booker_name VARCHAR(255) NOT NULL,
+  booker_email VARCHAR(512) NOT NULL,
+  CONSTRAINT pk_owner_booking PRIMARY KEY (booking_id)
+);
+
+INSERT INTO owner_bookings (booking_id, owner_id, start_date, end_date, status, item_id, item_name,
+                            item_description, item_available, item_request_id, booker_id, booker_name, booker_email)
+SELECT b.id, i.owner_id, b.start_date, b.end_date, b.status, i.id, i.name,
+       i.description, i.is_available, i.request_id, u.id, u.name, u.email
+FROM bookings b
+JOIN items i ON i.id = b.item_id
+JOIN users u ON u.id = b.booker_id;
+
+CREATE INDEX IF NOT EXISTS idx_owner_bookings_owner_start ON owner_bookings (owner_id, start_date, booking_id);
+
+CREATE INDEX IF NOT EXISTS idx_owner_bookings_owner_status ON owner_bookings (owner_id, status, start_date, booking_id);
+
+CREATE INDEX IF NOT EXISTS idx_owner_bookings_item ON owner_bookings (item_id);
+
+CREATE INDEX IF NOT EXISTS idx_owner_bookings_booker ON owner_bookings (booker_id);
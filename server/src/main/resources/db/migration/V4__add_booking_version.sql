@@ -0,0 +1,3 @@
+-- Версия строки для условных переходов статуса бронирования.
+
+ALTER TABLE bookings ADD COLUMN IF NOT EXISTS version BIGINT NOT NULL DEFAULT 0;
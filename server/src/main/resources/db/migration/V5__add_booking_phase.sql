@@ -0,0 +1,21 @@
+-- Фаза бронирования (UPCOMING/ACTIVE/FINISHED), которую двигает планировщик в момент начала и конца.
+
+ALTER TABLE bookings ADD COLUMN IF NOT EXISTS phase varchar(20) NOT NULL DEFAULT 'UPCOMING';
+
+ALTER TABLE owner_bookings ADD COLUMN IF NOT EXISTS phase varchar(20) NOT NULL DEFAULT 'UPCOMING';
+
+UPDATE bookings SET phase = CASE
+  WHEN end_date < CURRENT_TIMESTAMP THEN 'FINISHED'
+  WHEN start_date <= CURRENT_TIMESTAMP THEN 'ACTIVE'
+  ELSE 'UPCOMING' END;
+
+UPDATE owner_bookings SET phase = CASE
+  WHEN end_date < CURRENT_TIMESTAMP THEN 'FINISHED'
+  WHEN start_date <= CURRENT_TIMESTAMP THEN 'ACTIVE'
+  ELSE 'UPCOMING' END;
+
+CREATE INDEX IF NOT EXISTS idx_bookings_booker_phase ON bookings (booker_id, phase, start_date, id);
+
+CREATE INDEX IF NOT EXISTS idx_bookings_phase ON bookings (phase);
+
+CREATE INDEX IF NOT EXISTS idx_owner_bookings_owner_phase ON owner_bookings (owner_id, phase, start_date, booking_id);
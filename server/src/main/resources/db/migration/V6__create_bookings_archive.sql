@@ -0,0 +1,20 @@
+-- Холодный слой: бронирования, закончившиеся больше retention-days назад, переносит BookingArchiver.
+-- Фаза не хранится — в архиве все бронирования завершены.
+
+CREATE TABLE IF NOT EXISTS bookings_archive (
+  id BIGINT NOT NULL,
+  start_date TIMESTAMP WITHOUT TIME ZONE NOT NULL,
+  end_date TIMESTAMP WITHOUT TIME ZONE NOT NULL,
+  item_id BIGINT NOT NULL,
+  booker_id BIGINT NOT NULL,
+  status varchar(50) NOT NULL,
+  CONSTRAINT pk_bookings_archive PRIMARY KEY (id),
+  CONSTRAINT fk_item_bookings_archive FOREIGN KEY (item_id) REFERENCES items(id),
+  CONSTRAINT fk_booker_bookings_archive FOREIGN KEY (booker_id) REFERENCES users(id)
+);
+
+CREATE INDEX IF NOT EXISTS idx_bookings_archive_booker_start ON bookings_archive (booker_id, start_date, id);
+
+CREATE INDEX IF NOT EXISTS idx_bookings_archive_item_start ON bookings_archive (item_id, start_date, id);
+
+CREATE INDEX IF NOT EXISTS idx_bookings_end ON bookings (end_date);
@@ -0,0 +1,16 @@
+-- Ответы на POST-запросы с заголовком Idempotency-Key: повтор запроса возвращает сохранённый ответ.
+
+CREATE TABLE IF NOT EXISTS idempotency_keys (
+  id BIGINT GENERATED BY DEFAULT AS IDENTITY NOT NULL,
+  user_id BIGINT NOT NULL,
+  operation VARCHAR(255) NOT NULL,
+  idempotency_key VARCHAR(255) NOT NULL,
+  request_hash VARCHAR(64) NOT NULL,
+  response VARCHAR(8192),
+  created TIMESTAMP WITHOUT TIME ZONE NOT NULL,
+  CONSTRAINT pk_idempotency_key PRIMARY KEY (id)
+);
+
+CREATE UNIQUE INDEX IF NOT EXISTS ux_idempotency_keys_user_operation_key ON idempotency_keys (user_id, operation, idempotency_key);
+
+CREATE INDEX IF NOT EXISTS idx_idempotency_keys_created ON idempotency_keys (created);
@@ -0,0 +1,30 @@
+package ru.practicum.shareit;
+
+import jakarta.persistence.EntityManager;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+
+/**
+ * Считает SQL-запросы, которые Hibernate подготовил за время вызова.
+ * Требует spring.jpa.properties.hibernate.generate_statistics=true (включено в профиле test).
+ */
+public final class StatementCounter {
+    private final EntityManager entityManager;
+
+    public StatementCounter(EntityManager entityManager) {
+        this.entityManager = entityManager;
+    }
+
+    /**
+     * Сбрасывает контекст персистентности, чтобы ленивые связи не поднимались из кэша первого уровня,
+     * выполняет действие и возвращает число подготовленных запросов.
+     */
+    public long count(Runnable action) {
+        entityManager.flush();
+        entityManager.clear();
+        Statistics statistics = entityManager.getEntityManagerFactory().unwrap(SessionFactory.class).getStatistics();
+        statistics.clear();
+        action.run();
+        return statistics.getPrepareStatementCount();
+    }
+}
@@ -1,6 +1,7 @@
 package ru.practicum.shareit.booking;
 
 import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
@@ -8,25 +9,42 @@ import org.springframework.boot.test.mock.mockito.MockBean;
 import org.springframework.http.MediaType;
 import org.springframework.test.web.servlet.MockMvc;
 import ru.practicum.shareit.booking.controller.BookingController;
+import ru.practicum.shareit.booking.dto.BookingCursor;
+import ru.practicum.shareit.booking.dto.BookingDecision;
+import ru.practicum.shareit.booking.dto.BookingDecisionResult;
 import ru.practicum.shareit.booking.dto.BookingDto;
+import ru.practicum.shareit.booking.dto.BookingHoldDto;
+import ru.practicum.shareit.booking.dto.NewBookingRequest;
+import ru.practicum.shareit.booking.model.State;
 import ru.practicum.shareit.booking.model.Status;
 import ru.practicum.shareit.booking.service.BookingService;
+import ru.practicum.shareit.booking.service.BookingStreamService;
+import ru.practicum.shareit.idempotency.service.IdempotencyService;
 import ru.practicum.shareit.item.dto.ItemDto;
 import ru.practicum.shareit.user.dto.UserDto;
 
+import java.io.OutputStream;
 import java.nio.charset.StandardCharsets;
 import java.time.LocalDateTime;
 import java.util.List;
+import java.util.function.Supplier;
+import java.util.Map;
 
 import static org.hamcrest.Matchers.is;
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
 import static org.mockito.ArgumentMatchers.anyLong;
 import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.ArgumentMatchers.isNull;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.patch;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.content;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
 
@@ -39,12 +57,24 @@ class BookingControllerIT {
     @MockBean
     BookingService bookingService;
 
+    @MockBean
+    BookingStreamService bookingStreamService;
+
+    @MockBean
+    IdempotencyService idempotencyService;
+
     @Autowired
     private MockMvc mvc;
 
     private final String urlTemplate = "/bookings";
     private final String headerUserId = "X-Sharer-User-Id";
 
+    @BeforeEach
+    void passThroughIdempotency() {
+        when(idempotencyService.execute(anyLong(), any(), anyString(), any(), any(), any()))
+                .thenAnswer(invocation -> invocation.<Supplier<?>>getArgument(5).get());
+    }
+
     @Test
     void createBookingTest() throws Exception {
         ItemDto itemDto = new ItemDto(1L, "name", "description", Boolean.TRUE, 1L, 1L);
@@ -65,6 +95,40 @@ class BookingControllerIT {
                 .andExpect(content().json(mapper.writeValueAsString(requestDto)));
     }
 
+    @Test
+    void holdBookingTest() throws Exception {
+        LocalDateTime start = LocalDateTime.of(2030, 7, 3, 19, 30, 1);
+        NewBookingRequest request = new NewBookingRequest(start, start.plusHours(2), 1L);
+        BookingHoldDto hold = new BookingHoldDto("token", 1L, start, start.plusHours(2), start.minusDays(1));
+
+        when(bookingService.holdBooking(anyLong(), any())).thenReturn(hold);
+
+        mvc.perform(post(urlTemplate + "/holds")
+                        .content(mapper.writeValueAsString(request))
+                        .characterEncoding(StandardCharsets.UTF_8)
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .header(headerUserId, 1L)
+                        .accept(MediaType.APPLICATION_JSON))
+                .andExpect(status().isCreated())
+                .andExpect(content().json(mapper.writeValueAsString(hold)));
+    }
+
+    @Test
+    void cancelBookingTest() throws Exception {
+        ItemDto itemDto = new ItemDto(1L, "name", "description", Boolean.TRUE, 1L, 1L);
+        UserDto userDto = new UserDto(2L, "john.doe@mail.com", "John Doe");
+        BookingDto canceled = new BookingDto(1L, LocalDateTime.of(2030, 7, 3, 19, 30, 1),
+                LocalDateTime.of(2030, 7, 4, 19, 30, 1), itemDto, userDto, Status.CANCELED);
+
+        when(bookingService.cancelBooking(2L, 1L)).thenReturn(canceled);
+
+        mvc.perform(patch(urlTemplate + "/1/cancel")
+                        .header(headerUserId, 2L)
+                        .accept(MediaType.APPLICATION_JSON))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.status").value("CANCELED"));
+    }
+
     @Test
     void approveBookingTest() throws Exception {
         ItemDto itemDto = new ItemDto(1L, "name", "description", Boolean.TRUE, 1L, 1L);
@@ -86,6 +150,24 @@ class BookingControllerIT {
                 .andExpect(content().json(mapper.writeValueAsString(requestDto)));
     }
 
+    @Test
+    void approveBookingsTest() throws Exception {
+        List<BookingDecision> decisions = List.of(new BookingDecision(1L, true), new BookingDecision(2L, false));
+        List<BookingDecisionResult> results = List.of(new BookingDecisionResult(1L, Status.APPROVED, null),
+                new BookingDecisionResult(2L, Status.APPROVED, "Можно подтвердить или отменить только бронирование со статусом waiting"));
+
+        when(bookingService.approveBookings(1L, decisions)).thenReturn(results);
+
+        mvc.perform(patch(urlTemplate + "/batch")
+                        .content(mapper.writeValueAsString(decisions))
+                        .characterEncoding(StandardCharsets.UTF_8)
+                        .header(headerUserId, 1L)
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .accept(MediaType.APPLICATION_JSON))
+                .andExpect(status().isOk())
+                .andExpect(content().json(mapper.writeValueAsString(results)));
+    }
+
     @Test
     void getBookingByIdTest() throws Exception {
         ItemDto itemDto = new ItemDto(1L, "name", "description", Boolean.TRUE, 1L, 1L);
@@ -123,7 +205,7 @@ class BookingControllerIT {
 
         List<BookingDto> newRequests = List.of(requestDto1, requestDto2);
 
-        when(bookingService.getBookingsByBookerId(anyLong(), any())).thenReturn(newRequests);
+        when(bookingService.getBookingsByBookerId(anyLong(), any(), anyInt(), isNull(), any())).thenReturn(newRequests);
 
         mvc.perform(get(urlTemplate)
                         .characterEncoding(StandardCharsets.UTF_8)
@@ -150,9 +232,10 @@ class BookingControllerIT {
 
         List<BookingDto> newRequests = List.of(requestDto1, requestDto2);
 
-        when(bookingService.getBookingsByOwnerId(anyLong(), anyString())).thenReturn(newRequests);
+        when(bookingService.getBookingsByOwnerId(anyLong(), anyString(), anyInt(), anyInt(), any())).thenReturn(newRequests);
 
         mvc.perform(get(urlTemplate + "/owner")
+                        .param("size", "2")
                         .characterEncoding(StandardCharsets.UTF_8)
                         .header(headerUserId, 1L)
                         .contentType(MediaType.APPLICATION_JSON)
@@ -163,6 +246,38 @@ class BookingControllerIT {
                 .andExpect(jsonPath("$.length()").value(2))
                 .andExpect(jsonPath("$[0].id").value(is(newRequests.getFirst().getId()), Long.class))
                 .andExpect(jsonPath("$[1].id").value(is(newRequests.getLast().getId()), Long.class))
+                .andExpect(header().string(BookingCursor.HEADER, BookingCursor.after(requestDto2).encode()))
                 .andExpect(content().json(mapper.writeValueAsString(newRequests)));
     }
-}
\ No newline at end of file
+
+    @Test
+    void streamBookingsByBookerIdTest() throws Exception {
+        doAnswer(invocation -> {
+            OutputStream out = invocation.getArgument(2);
+            out.write("{\"id\":1}\n{\"id\":2}\n".getBytes(StandardCharsets.UTF_8));
+            return null;
+        }).when(bookingStreamService).streamBookingsByBookerId(anyLong(), anyString(), any());
+
+        mvc.perform(get(urlTemplate)
+                        .param("state", "PAST")
+                        .header(headerUserId, 1L)
+                        .accept(BookingStreamService.NDJSON))
+                .andExpect(status().isOk())
+                .andExpect(content().contentTypeCompatibleWith(BookingStreamService.NDJSON))
+                .andExpect(content().string("{\"id\":1}\n{\"id\":2}\n"));
+        verify(bookingStreamService).streamBookingsByBookerId(eq(1L), eq("PAST"), any());
+    }
+
+    @Test
+    void getBookingStatsByOwnerIdTest() throws Exception {
+        when(bookingService.getBookingStatsByOwnerId(anyLong())).thenReturn(Map.of(State.ALL, 3L, State.WAITING, 1L));
+
+        mvc.perform(get(urlTemplate + "/owner/stats")
+                        .header(headerUserId, 1L)
+                        .accept(MediaType.APPLICATION_JSON))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.ALL").value(3))
+                .andExpect(jsonPath("$.WAITING").value(1));
+        verify(bookingService).getBookingStatsByOwnerId(1L);
+    }
+}
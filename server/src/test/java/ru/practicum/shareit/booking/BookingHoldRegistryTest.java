@@ -0,0 +1,90 @@
+package ru.practicum.shareit.booking;
+
+import org.junit.jupiter.api.Test;
+import ru.practicum.shareit.booking.model.BookingHold;
+import ru.practicum.shareit.booking.service.BookingHoldRegistry;
+import ru.practicum.shareit.exception.ValidationException;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertDoesNotThrow;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class BookingHoldRegistryTest {
+    private static final LocalDateTime BASE = LocalDateTime.of(2030, 7, 1, 12, 0);
+
+    @Test
+    void hold_onlyOneOfConcurrentRequestsWins() throws Exception {
+        BookingHoldRegistry registry = new BookingHoldRegistry(300);
+        CountDownLatch start = new CountDownLatch(1);
+        List<CompletableFuture<Boolean>> attempts = new ArrayList<>();
+        for (long bookerId = 1; bookerId <= 32; bookerId++) {
+            long booker = bookerId;
+            attempts.add(CompletableFuture.supplyAsync(() -> {
+                try {
+                    start.await();
+                    registry.hold(booker, 1L, BASE.plusHours(booker % 3), BASE.plusHours(5));
+                    return true;
+                } catch (ValidationException e) {
+                    return false;
+                } catch (InterruptedException e) {
+                    throw new IllegalStateException(e);
+                }
+            }));
+        }
+        start.countDown();
+
+        long winners = 0;
+        for (CompletableFuture<Boolean> attempt : attempts) {
+            if (attempt.get(10, TimeUnit.SECONDS)) {
+                winners++;
+            }
+        }
+        assertEquals(1, winners);
+        assertDoesNotThrow(() -> registry.hold(1L, 1L, BASE.plusHours(6), BASE.plusHours(7)));
+        assertDoesNotThrow(() -> registry.hold(1L, 2L, BASE, BASE.plusHours(5)));
+    }
+
+    @Test
+    void check_acceptsOnlyOwnMatchingToken() {
+        BookingHoldRegistry registry = new BookingHoldRegistry(300);
+        BookingHold hold = registry.hold(1L, 1L, BASE, BASE.plusHours(2));
+
+        assertDoesNotThrow(() -> registry.check(1L, 1L, BASE, BASE.plusHours(2), hold.token()));
+        assertThrows(ValidationException.class, () -> registry.check(2L, 1L, BASE, BASE.plusHours(2), hold.token()));
+        assertThrows(ValidationException.class, () -> registry.check(1L, 1L, BASE, BASE.plusHours(3), hold.token()));
+        assertThrows(ValidationException.class, () -> registry.check(2L, 1L, BASE.plusHours(1), BASE.plusHours(3), null));
+        assertDoesNotThrow(() -> registry.check(2L, 1L, BASE.plusHours(3), BASE.plusHours(4), null));
+
+        registry.release(hold.token());
+        assertDoesNotThrow(() -> registry.check(2L, 1L, BASE, BASE.plusHours(2), null));
+        assertThrows(ValidationException.class, () -> registry.check(1L, 1L, BASE, BASE.plusHours(2), hold.token()));
+    }
+
+    @Test
+    void sweepExpiredAt_reclaimsExpiredHolds() {
+        BookingHoldRegistry registry = new BookingHoldRegistry(60);
+        BookingHold first = registry.hold(1L, 1L, BASE, BASE.plusHours(1));
+        registry.hold(1L, 2L, BASE, BASE.plusHours(1));
+
+        assertEquals(0, registry.sweepExpiredAt(first.expiresAt().minusSeconds(1)));
+        assertEquals(2, registry.sweepExpiredAt(first.expiresAt().plusSeconds(1)));
+        assertEquals(0, registry.sweepExpiredAt(first.expiresAt().plusSeconds(1)));
+        assertDoesNotThrow(() -> registry.hold(2L, 1L, BASE, BASE.plusHours(1)));
+    }
+
+    @Test
+    void hold_ignoresExpiredHolds() {
+        BookingHoldRegistry registry = new BookingHoldRegistry(0);
+        BookingHold expired = registry.hold(1L, 1L, BASE, BASE.plusHours(1));
+
+        assertDoesNotThrow(() -> registry.hold(2L, 1L, BASE, BASE.plusHours(1)));
+        assertThrows(ValidationException.class, () -> registry.check(1L, 1L, BASE, BASE.plusHours(1), expired.token()));
+    }
+}
@@ -0,0 +1,208 @@
+package ru.practicum.shareit.booking;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import ru.practicum.shareit.booking.model.BookingInterval;
+import ru.practicum.shareit.booking.model.ItemBookingInterval;
+import ru.practicum.shareit.booking.repository.BookingRepository;
+import ru.practicum.shareit.booking.service.BookingIntervalIndex;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+class BookingIntervalIndexTest {
+    private static final LocalDateTime BASE = LocalDateTime.of(2024, 7, 1, 12, 0);
+
+    @Mock
+    private BookingRepository bookingRepository;
+
+    @InjectMocks
+    private BookingIntervalIndex index;
+
+    @AfterEach
+    void tearDown() {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.clearSynchronization();
+        }
+    }
+
+    @Test
+    void hasOverlap_loadsItemOnceAndAnswersFromMemory() {
+        long itemId = 1L;
+        when(bookingRepository.findActiveIntervalsByItemId(itemId)).thenReturn(List.of(
+                new BookingInterval(1L, BASE, BASE.plusDays(10)),
+                new BookingInterval(2L, BASE.plusDays(2), BASE.plusDays(3)),
+                new BookingInterval(3L, BASE.plusDays(20), BASE.plusDays(21))));
+
+        assertTrue(index.hasOverlap(itemId, BASE.plusDays(5), BASE.plusDays(6)));
+        assertTrue(index.hasOverlap(itemId, BASE.plusDays(10).minusMinutes(1), BASE.plusDays(11)));
+        assertTrue(index.hasOverlap(itemId, BASE.minusDays(1), BASE.plusMinutes(1)));
+        assertFalse(index.hasOverlap(itemId, BASE.plusDays(10), BASE.plusDays(11)));
+        assertFalse(index.hasOverlap(itemId, BASE.minusDays(1), BASE));
+        assertFalse(index.hasOverlap(itemId, BASE.plusDays(11), BASE.plusDays(19)));
+        assertFalse(index.hasOverlap(itemId, BASE.plusDays(22), BASE.plusDays(23)));
+        assertFalse(index.hasOverlap(itemId, BASE.minusDays(2), BASE.minusDays(1)));
+        verify(bookingRepository, times(1)).findActiveIntervalsByItemId(itemId);
+    }
+
+    @Test
+    void addAndRemove_keepIndexInSync() {
+        long itemId = 2L;
+        when(bookingRepository.findActiveIntervalsByItemId(itemId)).thenReturn(List.of());
+
+        assertFalse(index.hasOverlap(itemId, BASE, BASE.plusDays(1)));
+
+        index.add(itemId, 10L, BASE, BASE.plusDays(1));
+        assertTrue(index.hasOverlap(itemId, BASE.plusHours(1), BASE.plusHours(2)));
+
+        index.remove(itemId, 10L);
+        assertFalse(index.hasOverlap(itemId, BASE.plusHours(1), BASE.plusHours(2)));
+    }
+
+    @Test
+    void remove_inTransactionFreesIntervalForOthersOnlyAfterCommit() throws Exception {
+        long itemId = 4L;
+        when(bookingRepository.findActiveIntervalsByItemId(itemId)).thenReturn(List.of(
+                new BookingInterval(10L, BASE, BASE.plusDays(1))));
+        assertTrue(index.hasOverlap(itemId, BASE, BASE.plusDays(1)));
+
+        TransactionSynchronizationManager.initSynchronization();
+        index.remove(itemId, 10L);
+        assertFalse(index.hasOverlap(itemId, BASE, BASE.plusDays(1)));
+        assertTrue(hasOverlapInOtherTransaction(itemId));
+        List<TransactionSynchronization> rolledBack = TransactionSynchronizationManager.getSynchronizations();
+        TransactionSynchronizationManager.clearSynchronization();
+        rolledBack.forEach(s -> s.afterCompletion(TransactionSynchronization.STATUS_ROLLED_BACK));
+        assertTrue(index.hasOverlap(itemId, BASE, BASE.plusDays(1)));
+
+        TransactionSynchronizationManager.initSynchronization();
+        index.remove(itemId, 10L);
+        List<TransactionSynchronization> committed = TransactionSynchronizationManager.getSynchronizations();
+        TransactionSynchronizationManager.clearSynchronization();
+        committed.forEach(TransactionSynchronization::afterCommit);
+        committed.forEach(s -> s.afterCompletion(TransactionSynchronization.STATUS_COMMITTED));
+        assertFalse(index.hasOverlap(itemId, BASE, BASE.plusDays(1)));
+    }
+
+    @Test
+    void reload_replacesCopyChangedByOtherInstance() {
+        long itemId = 6L;
+        when(bookingRepository.findActiveIntervalsByItemId(itemId)).thenReturn(List.of());
+        assertFalse(index.hasOverlap(itemId, BASE, BASE.plusDays(1)));
+        // другой экземпляр приложения создал бронирование — в локальной копии его нет
+        when(bookingRepository.findActiveIntervalsByItemIdIn(List.of(itemId))).thenReturn(List.of(
+                new ItemBookingInterval(30L, itemId, BASE, BASE.plusDays(1))));
+
+        index.reload(List.of(itemId));
+
+        assertTrue(index.hasOverlap(itemId, BASE, BASE.plusDays(1)));
+        verify(bookingRepository, times(1)).findActiveIntervalsByItemId(itemId);
+    }
+
+    @Test
+    void evict_reloadsFromRepository() {
+        long itemId = 3L;
+        when(bookingRepository.findActiveIntervalsByItemId(itemId)).thenReturn(List.of());
+
+        index.hasOverlap(itemId, BASE, BASE.plusDays(1));
+        index.evict(itemId);
+        index.hasOverlap(itemId, BASE, BASE.plusDays(1));
+
+        verify(bookingRepository, times(2)).findActiveIntervalsByItemId(itemId);
+    }
+
+    @Test
+    void intervals_evictsLeastRecentlyReadItemsOverLimit() {
+        ReflectionTestUtils.setField(index, "maxItems", 2);
+        when(bookingRepository.findActiveIntervalsByItemId(anyLong())).thenReturn(List.of());
+
+        index.hasOverlap(1L, BASE, BASE.plusDays(1));
+        index.hasOverlap(2L, BASE, BASE.plusDays(1));
+        index.hasOverlap(1L, BASE, BASE.plusDays(1));
+        index.hasOverlap(3L, BASE, BASE.plusDays(1));
+        index.hasOverlap(1L, BASE, BASE.plusDays(1));
+        index.hasOverlap(2L, BASE, BASE.plusDays(1));
+
+        verify(bookingRepository, times(1)).findActiveIntervalsByItemId(1L);
+        verify(bookingRepository, times(2)).findActiveIntervalsByItemId(2L);
+    }
+
+    @Test
+    void intervals_doesNotCacheLoadRacingWithChange() {
+        long itemId = 5L;
+        when(bookingRepository.findActiveIntervalsByItemId(itemId))
+                .thenAnswer(invocation -> {
+                    // параллельная транзакция добавила бронирование, пока шёл запрос
+                    index.add(itemId, 20L, BASE, BASE.plusDays(1));
+                    return List.of();
+                })
+                .thenReturn(List.of(new BookingInterval(20L, BASE, BASE.plusDays(1))));
+
+        assertFalse(index.hasOverlap(itemId, BASE, BASE.plusDays(1)));
+        assertTrue(index.hasOverlap(itemId, BASE, BASE.plusDays(1)));
+        verify(bookingRepository, times(2)).findActiveIntervalsByItemId(itemId);
+    }
+
+    private boolean hasOverlapInOtherTransaction(long itemId) throws Exception {
+        ExecutorService executor = Executors.newSingleThreadExecutor();
+        try {
+            return executor.submit(() -> index.hasOverlap(itemId, BASE, BASE.plusDays(1))).get();
+        } finally {
+            executor.shutdown();
+        }
+    }
+
+    @Test
+    void freeSlots_mergesOverlappingBookingsWithinWindow() {
+        long itemId = 3L;
+        when(bookingRepository.findActiveIntervalsByItemId(itemId)).thenReturn(List.of(
+                new BookingInterval(1L, BASE.minusDays(5), BASE.minusDays(4)),
+                new BookingInterval(2L, BASE.minusDays(1), BASE.plusDays(1)),
+                new BookingInterval(3L, BASE.plusDays(2), BASE.plusDays(5)),
+                new BookingInterval(4L, BASE.plusDays(3), BASE.plusDays(4)),
+                new BookingInterval(5L, BASE.plusDays(8), BASE.plusDays(9))));
+
+        List<List<LocalDateTime>> slots = index.freeSlots(itemId, BASE, BASE.plusDays(7), List::of);
+
+        assertEquals(List.of(
+                List.of(BASE.plusDays(1), BASE.plusDays(2)),
+                List.of(BASE.plusDays(5), BASE.plusDays(7))), slots);
+        assertEquals(List.of(List.of(BASE.minusDays(4), BASE.minusDays(1))),
+                index.freeSlots(itemId, BASE.minusDays(4), BASE, List::of));
+    }
+
+    @Test
+    void freeSlots_returnsSlotsThatCanBeBooked() {
+        long itemId = 5L;
+        when(bookingRepository.findActiveIntervalsByItemId(itemId)).thenReturn(List.of(
+                new BookingInterval(1L, BASE, BASE.plusDays(1)),
+                new BookingInterval(2L, BASE.plusDays(2), BASE.plusDays(3))));
+
+        List<List<LocalDateTime>> slots = index.freeSlots(itemId, BASE, BASE.plusDays(4), List::of);
+
+        assertEquals(List.of(
+                List.of(BASE.plusDays(1), BASE.plusDays(2)),
+                List.of(BASE.plusDays(3), BASE.plusDays(4))), slots);
+        for (List<LocalDateTime> slot : slots) {
+            assertFalse(index.hasOverlap(itemId, slot.get(0), slot.get(1)));
+        }
+    }
+}
@@ -0,0 +1,84 @@
+package ru.practicum.shareit.booking;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import ru.practicum.shareit.booking.model.BookingInterval;
+import ru.practicum.shareit.booking.model.Phase;
+import ru.practicum.shareit.booking.repository.BookingRepository;
+import ru.practicum.shareit.booking.repository.OwnerBookingRepository;
+import ru.practicum.shareit.booking.service.BookingPhaseScheduler;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.timeout;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+class BookingPhaseSchedulerTest {
+    @Mock
+    private BookingRepository bookingRepository;
+    @Mock
+    private OwnerBookingRepository ownerBookingRepository;
+    @Mock
+    private PlatformTransactionManager transactionManager;
+
+    private BookingPhaseScheduler scheduler;
+
+    @BeforeEach
+    void setUp() {
+        scheduler = new BookingPhaseScheduler(bookingRepository, ownerBookingRepository,
+                new TransactionTemplate(transactionManager), 20, 50);
+        scheduler.start();
+    }
+
+    @AfterEach
+    void tearDown() {
+        scheduler.stop();
+    }
+
+    @Test
+    void rebuild_catchesUpAndSchedulesUnfinishedBookings() {
+        LocalDateTime now = LocalDateTime.now();
+        when(bookingRepository.findIntervalsByPhaseNot(Phase.FINISHED)).thenReturn(List.of(
+                new BookingInterval(1L, now.plusNanos(100_000_000), now.plusNanos(300_000_000))));
+
+        scheduler.rebuild();
+
+        verify(bookingRepository).finishEndedBefore(any());
+        verify(ownerBookingRepository).activateStartedBefore(any());
+        verify(bookingRepository, timeout(2_000)).advancePhase(List.of(1L), List.of(Phase.UPCOMING), Phase.ACTIVE);
+        verify(ownerBookingRepository, timeout(2_000)).advancePhase(List.of(1L), List.of(Phase.UPCOMING), Phase.ACTIVE);
+        verify(bookingRepository, timeout(2_000)).advancePhase(List.of(1L), List.of(Phase.UPCOMING, Phase.ACTIVE), Phase.FINISHED);
+    }
+
+    @Test
+    void schedule_outsideTransactionFiresAtStartAndEnd() {
+        LocalDateTime now = LocalDateTime.now();
+
+        scheduler.schedule(2L, now.minusSeconds(1), now.plusNanos(150_000_000));
+
+        verify(bookingRepository, timeout(2_000)).advancePhase(List.of(2L), List.of(Phase.UPCOMING), Phase.ACTIVE);
+        verify(bookingRepository, timeout(2_000)).advancePhase(List.of(2L), List.of(Phase.UPCOMING, Phase.ACTIVE), Phase.FINISHED);
+    }
+
+    @Test
+    void schedule_retriesTransitionsAfterFailedUpdate() {
+        when(bookingRepository.advancePhase(List.of(3L), List.of(Phase.UPCOMING), Phase.ACTIVE))
+                .thenThrow(new IllegalStateException("Соединение с БД потеряно"))
+                .thenReturn(1);
+
+        scheduler.schedule(3L, LocalDateTime.now().minusSeconds(1), LocalDateTime.now().plusDays(1));
+
+        verify(bookingRepository, timeout(2_000).times(2)).advancePhase(List.of(3L), List.of(Phase.UPCOMING), Phase.ACTIVE);
+        verify(ownerBookingRepository, timeout(2_000)).advancePhase(List.of(3L), List.of(Phase.UPCOMING), Phase.ACTIVE);
+    }
+}
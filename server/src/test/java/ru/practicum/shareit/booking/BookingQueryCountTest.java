@@ -0,0 +1,89 @@
+package ru.practicum.shareit.booking;
+
+import jakarta.persistence.EntityManager;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.EnumSource;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.transaction.annotation.Transactional;
+import ru.practicum.shareit.StatementCounter;
+import ru.practicum.shareit.booking.model.Booking;
+import ru.practicum.shareit.booking.model.State;
+import ru.practicum.shareit.booking.model.Status;
+import ru.practicum.shareit.booking.repository.BookingRepository;
+import ru.practicum.shareit.booking.service.BookingService;
+import ru.practicum.shareit.item.model.Item;
+import ru.practicum.shareit.item.repository.ItemRepository;
+import ru.practicum.shareit.request.model.ItemRequest;
+import ru.practicum.shareit.request.repository.ItemRequestRepository;
+import ru.practicum.shareit.user.model.User;
+import ru.practicum.shareit.user.repository.UserRepository;
+
+import java.time.LocalDateTime;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+@SpringBootTest
+@Transactional
+class BookingQueryCountTest {
+    private static final int BOOKINGS = 5;
+
+    @Autowired
+    private EntityManager entityManager;
+    @Autowired
+    private BookingService bookingService;
+    @Autowired
+    private BookingRepository bookingRepository;
+    @Autowired
+    private ItemRepository itemRepository;
+    @Autowired
+    private UserRepository userRepository;
+    @Autowired
+    private ItemRequestRepository itemRequestRepository;
+
+    private StatementCounter statementCounter;
+    private long ownerId;
+    private long bookerId;
+
+    @BeforeEach
+    void setUp() {
+        statementCounter = new StatementCounter(entityManager);
+        User owner = userRepository.save(new User(0, "owner", "count-owner@example.com"));
+        User booker = userRepository.save(new User(0, "booker", "count-booker@example.com"));
+        ownerId = owner.getId();
+        bookerId = booker.getId();
+        LocalDateTime now = LocalDateTime.now();
+        // у каждого бронирования своя вещь и свой запрос, чтобы N+1 был заметен
+        for (int i = 0; i < BOOKINGS; i++) {
+            ItemRequest request = itemRequestRepository.save(new ItemRequest(0, "request " + i, booker, now));
+            Item item = itemRepository.save(new Item(0, "item " + i, "description " + i, owner, true, request));
+            LocalDateTime start = now.plusDays(i - 2);
+            bookingRepository.save(new Booking(0, start, start.plusHours(36), item, booker,
+                    i % 2 == 0 ? Status.WAITING : Status.REJECTED));
+        }
+    }
+
+    @ParameterizedTest
+    @EnumSource(State.class)
+    void getBookingsByBookerId_usesConstantNumberOfStatements(State state) {
+        long statements = statementCounter.count(
+                () -> bookingService.getBookingsByBookerId(bookerId, state.name(), 0, BOOKINGS, null));
+
+        // пользователь + страница бронирований, для ALL, PAST и REJECTED — ещё страница архива
+        assertEquals(expectedStatements(state), statements);
+    }
+
+    @ParameterizedTest
+    @EnumSource(State.class)
+    void getBookingsByOwnerId_usesConstantNumberOfStatements(State state) {
+        long statements = statementCounter.count(
+                () -> bookingService.getBookingsByOwnerId(ownerId, state.name(), 0, BOOKINGS, null));
+
+        assertEquals(expectedStatements(state), statements);
+    }
+
+    private static long expectedStatements(State state) {
+        return state == State.ALL || state == State.PAST || state == State.REJECTED ? 3 : 2;
+    }
+}
@@ -1,31 +1,59 @@
 package ru.practicum.shareit.booking;
 
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InOrder;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
+import org.mockito.Spy;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.data.domain.Pageable;
+import ru.practicum.shareit.booking.dto.BookingCursor;
 import ru.practicum.shareit.booking.dto.BookingDto;
 import ru.practicum.shareit.booking.dto.NewBookingRequest;
+import ru.practicum.shareit.booking.model.ArchivedBooking;
 import ru.practicum.shareit.booking.model.Booking;
+import ru.practicum.shareit.booking.model.BookingGroupCount;
+import ru.practicum.shareit.booking.model.Phase;
+import ru.practicum.shareit.booking.model.State;
 import ru.practicum.shareit.booking.model.Status;
+import ru.practicum.shareit.booking.repository.ArchivedBookingRepository;
+import ru.practicum.shareit.booking.repository.BookingBatchRepository;
 import ru.practicum.shareit.booking.repository.BookingRepository;
+import ru.practicum.shareit.booking.repository.OwnerBookingRepository;
+import ru.practicum.shareit.booking.service.BookingHoldRegistry;
+import ru.practicum.shareit.booking.service.BookingIntervalIndex;
+import ru.practicum.shareit.booking.service.BookingPhaseScheduler;
 import ru.practicum.shareit.booking.service.BookingServiceImpl;
+import ru.practicum.shareit.booking.service.ItemLock;
+import ru.practicum.shareit.exception.ConflictException;
 import ru.practicum.shareit.exception.NotFoundException;
 import ru.practicum.shareit.exception.ValidationException;
 import ru.practicum.shareit.item.dto.ItemDto;
 import ru.practicum.shareit.item.model.Item;
 import ru.practicum.shareit.item.repository.ItemRepository;
+import ru.practicum.shareit.item.service.AdvancedItemCache;
+import ru.practicum.shareit.paging.OffsetPageRequest;
 import ru.practicum.shareit.user.dto.UserDto;
 import ru.practicum.shareit.user.repository.UserRepository;
 import ru.practicum.shareit.user.model.User;
 
 import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
 import java.util.Optional;
+import java.util.stream.LongStream;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.inOrder;
 import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 
@@ -37,8 +65,26 @@ class BookingServiceImplTest {
     @Mock
     private BookingRepository bookingRepository;
     @Mock
+    private OwnerBookingRepository ownerBookingRepository;
+    @Mock
+    private ArchivedBookingRepository archivedBookingRepository;
+    @Mock
+    private BookingBatchRepository bookingBatchRepository;
+    @Mock
     private UserRepository userRepository;
+    @Mock
+    private BookingIntervalIndex bookingIntervalIndex;
+    @Mock
+    private ItemLock itemLock;
+    @Mock
+    private BookingHoldRegistry bookingHoldRegistry;
+    @Mock
+    private BookingPhaseScheduler bookingPhaseScheduler;
+    @Mock
+    private AdvancedItemCache advancedItemCache;
 
+    @Spy
+    private SimpleMeterRegistry meterRegistry;
     @InjectMocks
     private BookingServiceImpl bookingService;
 
@@ -56,6 +102,7 @@ class BookingServiceImplTest {
         ItemDto itemDto = new ItemDto(itemId, "item name", "item description", true, owner.getId(), 0);
         long bookingId = 0L;
         Booking bookingToSave = new Booking(bookingId, start, end, item, booker, Status.WAITING);
+        bookingToSave.setPhase(Phase.FINISHED);
         BookingDto dto = new BookingDto(bookingId, start, end, itemDto, bookerDto, Status.WAITING);
         when(userRepository.findById(bookerId)).thenReturn(Optional.of(booker));
         when(itemRepository.findById(itemId)).thenReturn(Optional.of(item));
@@ -68,6 +115,52 @@ class BookingServiceImplTest {
         assertEquals(bookingToSave.getEnd(), actualDto.getEnd());
         assertEquals(itemId, actualDto.getItem().getId());
         verify(bookingRepository).save(bookingToSave);
+        verify(itemLock).lock(itemId);
+        verify(bookingIntervalIndex).add(itemId, bookingId, start, end);
+    }
+
+    @Test
+    void createBooking_whenTimeCrossed() {
+        long bookerId = 6L;
+        User booker = new User(bookerId, "name", "email");
+        LocalDateTime start = LocalDateTime.of(2024, 7, 1, 19, 30, 15);
+        LocalDateTime end = LocalDateTime.of(2024, 7, 2, 19, 30, 15);
+        long itemId = 23L;
+        NewBookingRequest request = new NewBookingRequest(start, end, itemId);
+        User owner = new User(bookerId + 1, "owner name", "owner email");
+        Item item = new Item(itemId, "item name", "item description", owner, true, null);
+        when(userRepository.findById(bookerId)).thenReturn(Optional.of(booker));
+        when(itemRepository.findById(itemId)).thenReturn(Optional.of(item));
+        when(bookingIntervalIndex.hasOverlap(itemId, start, end)).thenReturn(true);
+
+        ValidationException thrown = assertThrows(ValidationException.class,
+                () -> bookingService.createBooking(bookerId, request));
+
+        assertEquals("В это время вещь занята", thrown.getMessage());
+        verify(bookingRepository, never()).save(any());
+    }
+
+    @Test
+    void createBooking_withSharedLockRereadsIntervalsUnderLock() {
+        long bookerId = 6L;
+        User booker = new User(bookerId, "name", "email");
+        LocalDateTime start = LocalDateTime.of(2024, 7, 1, 19, 30, 15);
+        LocalDateTime end = LocalDateTime.of(2024, 7, 2, 19, 30, 15);
+        long itemId = 23L;
+        NewBookingRequest request = new NewBookingRequest(start, end, itemId);
+        Item item = new Item(itemId, "item name", "item description", new User(bookerId + 1, "owner name", "owner email"), true, null);
+        when(userRepository.findById(bookerId)).thenReturn(Optional.of(booker));
+        when(itemRepository.findById(itemId)).thenReturn(Optional.of(item));
+        when(itemLock.sharedAcrossInstances()).thenReturn(true);
+        when(bookingIntervalIndex.hasOverlap(itemId, start, end)).thenReturn(true);
+
+        assertThrows(ValidationException.class, () -> bookingService.createBooking(bookerId, request));
+
+        InOrder inOrder = inOrder(itemLock, bookingIntervalIndex);
+        inOrder.verify(itemLock).lock(itemId);
+        inOrder.verify(bookingIntervalIndex).reload(List.of(itemId));
+        inOrder.verify(bookingIntervalIndex).hasOverlap(itemId, start, end);
+        verify(bookingRepository, never()).save(any());
     }
 
     @Test
@@ -177,7 +270,8 @@ class BookingServiceImplTest {
         ItemDto itemDto = new ItemDto(itemId, "item name", "item description", true, owner.getId(), 0);
         Booking bookingToSave = new Booking(bookingId, start,end, item, booker, Status.WAITING);
         BookingDto dto = new BookingDto(bookingId, start, end, itemDto, bookerDto, Status.APPROVED);
-        when(bookingRepository.findById(bookingId)).thenReturn(Optional.of(bookingToSave));
+        when(bookingRepository.findWithDetailsById(bookingId)).thenReturn(Optional.of(bookingToSave));
+        when(bookingRepository.updateWaitingStatus(bookingId, 0L, Status.APPROVED)).thenReturn(1);
 
         BookingDto actualDto = bookingService.approveBooking(ownerId, bookingId, true);
 
@@ -185,7 +279,7 @@ class BookingServiceImplTest {
         assertEquals(bookingToSave.getStart(), actualDto.getStart());
         assertEquals(bookingToSave.getEnd(), actualDto.getEnd());
         assertEquals(Status.APPROVED, actualDto.getStatus());
-        verify(bookingRepository).save(bookingToSave);
+        verify(bookingRepository).updateWaitingStatus(bookingId, 0L, Status.APPROVED);
     }
 
     @Test
@@ -200,13 +294,13 @@ class BookingServiceImplTest {
         User owner = new User(ownerId, "owner name", "owner email");
         Item item = new Item(itemId, "item name", "item description", owner, true, null);
         Booking bookingToSave = new Booking(bookingId, start,end, item, booker, Status.WAITING);
-        when(bookingRepository.findById(bookingId)).thenReturn(Optional.empty());
+        when(bookingRepository.findWithDetailsById(bookingId)).thenReturn(Optional.empty());
 
         NotFoundException thrown = assertThrows(NotFoundException.class,
                 () -> bookingService.approveBooking(ownerId, bookingId, true));
 
         assertEquals("Бронирование c ID " + bookingId + " не найдено", thrown.getMessage());
-        verify(bookingRepository, never()).save(bookingToSave);
+        verify(bookingRepository, never()).updateWaitingStatus(anyLong(), anyLong(), any());
     }
 
     @Test
@@ -222,13 +316,13 @@ class BookingServiceImplTest {
         User owner = new User(ownerId, "owner name", "owner email");
         Item item = new Item(itemId, "item name", "item description", owner, true, null);
         Booking bookingToSave = new Booking(bookingId, start,end, item, booker, Status.WAITING);
-        when(bookingRepository.findById(bookingId)).thenReturn(Optional.of(bookingToSave));
+        when(bookingRepository.findWithDetailsById(bookingId)).thenReturn(Optional.of(bookingToSave));
 
         ValidationException thrown = assertThrows(ValidationException.class,
                 () -> bookingService.approveBooking(wrongOwnerId, bookingId, true));
 
         assertEquals("У вещи с ID " + itemId + " другой владелец", thrown.getMessage());
-        verify(bookingRepository, never()).save(bookingToSave);
+        verify(bookingRepository, never()).updateWaitingStatus(anyLong(), anyLong(), any());
     }
 
     @Test
@@ -243,13 +337,32 @@ class BookingServiceImplTest {
         User owner = new User(ownerId, "owner name", "owner email");
         Item item = new Item(itemId, "item name", "item description", owner, true, null);
         Booking bookingToSave = new Booking(bookingId, start,end, item, booker, Status.REJECTED);
-        when(bookingRepository.findById(bookingId)).thenReturn(Optional.of(bookingToSave));
+        when(bookingRepository.findWithDetailsById(bookingId)).thenReturn(Optional.of(bookingToSave));
 
         ValidationException thrown = assertThrows(ValidationException.class,
                 () -> bookingService.approveBooking(ownerId, bookingId, true));
 
         assertEquals("Можно подтвердить или отменить только бронирование со статусом waiting", thrown.getMessage());
-        verify(bookingRepository, never()).save(bookingToSave);
+        verify(bookingRepository, never()).updateWaitingStatus(anyLong(), anyLong(), any());
+    }
+
+    @Test
+    void approveBooking_whenChangedConcurrently() {
+        long ownerId = 4L;
+        long bookingId = 6L;
+        User owner = new User(ownerId, "owner name", "owner email");
+        Item item = new Item(23L, "item name", "item description", owner, true, null);
+        LocalDateTime start = LocalDateTime.of(2024, 7, 1, 19, 30, 15);
+        Booking booking = new Booking(bookingId, start, start.plusDays(1), item, new User(8L, "name", "email"), Status.WAITING);
+        when(bookingRepository.findWithDetailsById(bookingId)).thenReturn(Optional.of(booking));
+        when(bookingRepository.updateWaitingStatus(bookingId, 0L, Status.APPROVED)).thenReturn(0);
+
+        assertThrows(ConflictException.class, () -> bookingService.approveBooking(ownerId, bookingId, true));
+
+        assertEquals(1.0, meterRegistry.counter("shareit.booking.decision.conflicts").count());
+        verify(bookingRepository, times(1)).findWithDetailsById(bookingId);
+        verify(ownerBookingRepository, never()).updateStatus(any(), any());
+        verify(bookingIntervalIndex, never()).remove(anyLong(), anyLong());
     }
 
     @Test
@@ -336,4 +449,112 @@ class BookingServiceImplTest {
 
         assertEquals("Только владелец вещи и создатель брони могут просматривать данные о бронировании", thrown.getMessage());
     }
-}
\ No newline at end of file
+
+    @Test
+    void getBookingStatsByOwnerId_foldsPhaseAndStatusGroups() {
+        long ownerId = 3L;
+        when(userRepository.findById(ownerId)).thenReturn(Optional.of(new User(ownerId, "name", "email")));
+        when(ownerBookingRepository.countOwnerBookings(ownerId)).thenReturn(List.of(
+                new BookingGroupCount(Phase.UPCOMING, Status.WAITING, 2),
+                new BookingGroupCount(Phase.ACTIVE, Status.APPROVED, 1),
+                new BookingGroupCount(Phase.FINISHED, Status.APPROVED, 4),
+                new BookingGroupCount(Phase.FINISHED, Status.REJECTED, 3)));
+
+        Map<State, Long> stats = bookingService.getBookingStatsByOwnerId(ownerId);
+
+        assertEquals(Map.of(State.ALL, 10L, State.CURRENT, 1L, State.PAST, 7L,
+                State.FUTURE, 2L, State.WAITING, 2L, State.REJECTED, 3L), stats);
+    }
+
+    @Test
+    void getBookingsByBookerId_mergesHotAndArchivedTiers() {
+        long bookerId = 6L;
+        User booker = new User(bookerId, "name", "email");
+        Item item = new Item(23L, "item name", "item description", new User(7L, "owner", "owner email"), true, null);
+        LocalDateTime start = LocalDateTime.of(2024, 7, 1, 19, 30, 15);
+        Booking hot = new Booking(3L, start.plusDays(1), start.plusDays(2), item, booker, Status.APPROVED);
+        ArchivedBooking first = new ArchivedBooking(1L, start, start.plusHours(1), item, booker, Status.APPROVED);
+        ArchivedBooking last = new ArchivedBooking(2L, start.plusDays(3), start.plusDays(4), item, booker, Status.REJECTED);
+        when(userRepository.findById(bookerId)).thenReturn(Optional.of(booker));
+        when(bookingRepository.findBookerBookingsByPhase(anyLong(), any(), any(), anyLong(), any())).thenReturn(List.of(hot));
+        when(archivedBookingRepository.findBookerBookings(anyLong(), any(), anyLong(), any())).thenReturn(List.of(first, last));
+
+        List<BookingDto> page = bookingService.getBookingsByBookerId(bookerId, "PAST", 1, 1, null);
+
+        assertEquals(List.of(3L), page.stream().map(BookingDto::getId).toList());
+        verify(archivedBookingRepository).findBookerBookings(bookerId, BookingCursor.FIRST.getStart(), 0L, OffsetPageRequest.of(0, 2));
+    }
+
+    @Test
+    void getBookingsByBookerId_mergesTiersByKeysetInBatches() {
+        long bookerId = 6L;
+        User booker = new User(bookerId, "name", "email");
+        Item item = new Item(23L, "item name", "item description", new User(7L, "owner", "owner email"), true, null);
+        LocalDateTime start = LocalDateTime.of(2024, 7, 1, 19, 30, 15);
+        List<Booking> hot = new ArrayList<>();
+        List<ArchivedBooking> archived = new ArrayList<>();
+        for (long id = 1; id <= 1200; id++) {
+            if (id % 3 == 0) {
+                hot.add(new Booking(id, start.plusDays(id), start.plusDays(id + 1), item, booker, Status.APPROVED));
+            } else {
+                archived.add(new ArchivedBooking(id, start.plusDays(id), start.plusDays(id + 1), item, booker, Status.APPROVED));
+            }
+        }
+        when(userRepository.findById(bookerId)).thenReturn(Optional.of(booker));
+        when(bookingRepository.findBookerBookings(anyLong(), any(), anyLong(), any())).thenAnswer(invocation -> hot.stream()
+                .filter(b -> after(b.getStart(), b.getId(), invocation.getArgument(1), invocation.getArgument(2)))
+                .limit(invocation.<Pageable>getArgument(3).getPageSize())
+                .toList());
+        when(archivedBookingRepository.findBookerBookings(anyLong(), any(), anyLong(), any())).thenAnswer(invocation -> archived.stream()
+                .filter(a -> after(a.getStart(), a.getId(), invocation.getArgument(1), invocation.getArgument(2)))
+                .limit(invocation.<Pageable>getArgument(3).getPageSize())
+                .toList());
+
+        List<BookingDto> page = bookingService.getBookingsByBookerId(bookerId, "ALL", 5, 3, null);
+        List<BookingDto> all = bookingService.getBookingsByBookerId(bookerId, "ALL", 0, null, null);
+
+        assertEquals(List.of(6L, 7L, 8L), page.stream().map(BookingDto::getId).toList());
+        assertEquals(LongStream.rangeClosed(1, 1200).boxed().toList(), all.stream().map(BookingDto::getId).toList());
+        // следующая порция слоя читается после последнего прочитанного бронирования (500-е в архиве — ID 749), а не с начала
+        verify(archivedBookingRepository).findBookerBookings(bookerId, start.plusDays(749), 749L, OffsetPageRequest.of(0, 500));
+    }
+
+    private static boolean after(LocalDateTime start, long id, LocalDateTime afterStart, long afterId) {
+        return start.isAfter(afterStart) || start.isEqual(afterStart) && id > afterId;
+    }
+
+    @Test
+    void createBookings_whenBatchOverlapsItselfNothingIsInserted() {
+        long bookerId = 6L;
+        User booker = new User(bookerId, "name", "email");
+        Item item = new Item(23L, "item name", "item description", new User(7L, "owner", "owner email"), true, null);
+        LocalDateTime start = LocalDateTime.now().plusDays(1);
+        List<NewBookingRequest> requests = List.of(
+                new NewBookingRequest(start, start.plusDays(2), item.getId()),
+                new NewBookingRequest(start.plusDays(1), start.plusDays(3), item.getId()));
+        when(userRepository.findById(bookerId)).thenReturn(Optional.of(booker));
+        when(itemRepository.findAllById(any())).thenReturn(List.of(item));
+
+        ValidationException thrown = assertThrows(ValidationException.class,
+                () -> bookingService.createBookings(bookerId, requests));
+
+        assertEquals("В это время вещь с ID 23 занята", thrown.getMessage());
+        verify(itemLock).lockAll(any());
+        verify(bookingBatchRepository, never()).insertAll(any());
+    }
+
+    @Test
+    void cancelBooking_whenNotBooker() {
+        long bookingId = 5L;
+        User booker = new User(6L, "name", "email");
+        Booking booking = new Booking(bookingId, LocalDateTime.now().plusDays(1), LocalDateTime.now().plusDays(2),
+                null, booker, Status.WAITING);
+        when(bookingRepository.cancel(eq(bookingId), eq(7L), any())).thenReturn(0);
+        when(bookingRepository.findById(bookingId)).thenReturn(Optional.of(booking));
+
+        ValidationException thrown = assertThrows(ValidationException.class, () -> bookingService.cancelBooking(7L, bookingId));
+
+        assertEquals("Отменить бронирование может только его автор", thrown.getMessage());
+        verify(ownerBookingRepository, never()).updateStatus(any(), any());
+    }
+}
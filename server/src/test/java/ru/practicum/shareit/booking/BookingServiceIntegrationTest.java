@@ -1,5 +1,7 @@
 package ru.practicum.shareit.booking;
 
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
@@ -7,24 +9,43 @@ import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.context.SpringBootTest;
 import org.springframework.test.context.junit.jupiter.SpringExtension;
 import org.springframework.transaction.annotation.Transactional;
+import ru.practicum.shareit.booking.dto.BookingCursor;
+import ru.practicum.shareit.booking.dto.BookingDecision;
+import ru.practicum.shareit.booking.dto.BookingDecisionResult;
 import ru.practicum.shareit.booking.dto.NewBookingRequest;
 import ru.practicum.shareit.booking.dto.BookingDto;
+import ru.practicum.shareit.booking.dto.BookingHoldDto;
+import ru.practicum.shareit.booking.mapper.BookingMapper;
+import ru.practicum.shareit.booking.model.Booking;
+import ru.practicum.shareit.booking.model.Phase;
 import ru.practicum.shareit.booking.model.State;
 import ru.practicum.shareit.booking.model.Status;
 import ru.practicum.shareit.booking.repository.BookingRepository;
+import ru.practicum.shareit.booking.repository.OwnerBookingRepository;
+import ru.practicum.shareit.booking.service.BookingArchiver;
 import ru.practicum.shareit.booking.service.BookingService;
+import ru.practicum.shareit.booking.service.BookingStreamService;
 import ru.practicum.shareit.exception.NotFoundException;
 import ru.practicum.shareit.exception.ValidationException;
+import ru.practicum.shareit.item.dto.FreeSlotDto;
+import ru.practicum.shareit.item.dto.NewCommentRequest;
+import ru.practicum.shareit.item.dto.UpdateItemRequest;
 import ru.practicum.shareit.item.repository.ItemRepository;
+import ru.practicum.shareit.item.service.ItemService;
 import ru.practicum.shareit.item.mapper.ItemMapper;
 import ru.practicum.shareit.item.model.Item;
 import ru.practicum.shareit.user.model.User;
 import ru.practicum.shareit.user.repository.UserRepository;
+import ru.practicum.shareit.user.dto.UpdateUserRequest;
 import ru.practicum.shareit.user.service.UserService;
 import ru.practicum.shareit.user.mapper.UserMapper;
 
+import java.io.ByteArrayOutputStream;
+import java.nio.charset.StandardCharsets;
 import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
 import java.util.List;
+import java.util.Map;
 
 import static org.junit.jupiter.api.Assertions.*;
 
@@ -56,6 +77,16 @@ public class BookingServiceIntegrationTest {
     private Long bookingId;
     @Autowired
     private UserService userService;
+    @Autowired
+    private ItemService itemService;
+    @Autowired
+    private BookingStreamService bookingStreamService;
+    @Autowired
+    private ObjectMapper objectMapper;
+    @Autowired
+    private OwnerBookingRepository ownerBookingRepository;
+    @Autowired
+    private BookingArchiver bookingArchiver;
 
     @BeforeEach
     void setUp() {
@@ -152,7 +183,7 @@ public class BookingServiceIntegrationTest {
         BookingDto futureBookingDto = bookingService.createBooking(user2Id, futureBooking);
         Long futureBookingId = futureBookingDto.getId();
 
-        List<BookingDto> bookings = bookingService.getBookingsByBookerId(user2Id, String.valueOf(State.ALL));
+        List<BookingDto> bookings = bookingService.getBookingsByBookerId(user2Id, String.valueOf(State.ALL), 0, 10, null);
         assertFalse(bookings.isEmpty());
         assertEquals(3, bookings.size());
     }
@@ -186,7 +217,7 @@ public class BookingServiceIntegrationTest {
         BookingDto futureBookingDto = bookingService.createBooking(user2Id, futureBooking);
         Long futureBookingId = futureBookingDto.getId();
 
-        List<BookingDto> bookings = bookingService.getBookingsByBookerId(user2Id, String.valueOf(State.CURRENT));
+        List<BookingDto> bookings = bookingService.getBookingsByBookerId(user2Id, String.valueOf(State.CURRENT), 0, 10, null);
         assertFalse(bookings.isEmpty());
         assertEquals(1, bookings.size());
         assertEquals(currentBookingId, bookings.getFirst().getId());
@@ -221,7 +252,7 @@ public class BookingServiceIntegrationTest {
         BookingDto futureBookingDto = bookingService.createBooking(user2Id, futureBooking);
         Long futureBookingId = futureBookingDto.getId();
 
-        List<BookingDto> bookings = bookingService.getBookingsByBookerId(user2Id, String.valueOf(State.PAST));
+        List<BookingDto> bookings = bookingService.getBookingsByBookerId(user2Id, String.valueOf(State.PAST), 0, 10, null);
         assertFalse(bookings.isEmpty());
         assertEquals(1, bookings.size());
         assertEquals(pastBookingId, bookings.getFirst().getId());
@@ -256,7 +287,7 @@ public class BookingServiceIntegrationTest {
         BookingDto futureBookingDto = bookingService.createBooking(user2Id, futureBooking);
         Long futureBookingId = futureBookingDto.getId();
 
-        List<BookingDto> bookings = bookingService.getBookingsByBookerId(user2Id, String.valueOf(State.FUTURE));
+        List<BookingDto> bookings = bookingService.getBookingsByBookerId(user2Id, String.valueOf(State.FUTURE), 0, 10, null);
         assertFalse(bookings.isEmpty());
         assertEquals(1, bookings.size());
         assertEquals(futureBookingId, bookings.getFirst().getId());
@@ -294,7 +325,7 @@ public class BookingServiceIntegrationTest {
         bookingService.approveBooking(userId, pastBookingId, true);
         bookingService.approveBooking(userId, currentBookingId, true);
 
-        List<BookingDto> bookings = bookingService.getBookingsByBookerId(user2Id, String.valueOf(State.WAITING));
+        List<BookingDto> bookings = bookingService.getBookingsByBookerId(user2Id, String.valueOf(State.WAITING), 0, 10, null);
         assertFalse(bookings.isEmpty());
         assertEquals(1, bookings.size());
         assertEquals(futureBookingId, bookings.getFirst().getId());
@@ -332,7 +363,7 @@ public class BookingServiceIntegrationTest {
         bookingService.approveBooking(userId, pastBookingId, true);
         bookingService.approveBooking(userId, currentBookingId, false);
 
-        List<BookingDto> bookings = bookingService.getBookingsByBookerId(user2Id, String.valueOf(State.REJECTED));
+        List<BookingDto> bookings = bookingService.getBookingsByBookerId(user2Id, String.valueOf(State.REJECTED), 0, 10, null);
         assertFalse(bookings.isEmpty());
         assertEquals(1, bookings.size());
         assertEquals(currentBookingId, bookings.getFirst().getId());
@@ -377,7 +408,7 @@ public class BookingServiceIntegrationTest {
         //не получается вызвать нужную ошибку
 
         IllegalArgumentException thrown = assertThrows(IllegalArgumentException.class,
-                () -> bookingService.getBookingsByBookerId(user2Id, "TEXT"));
+                () -> bookingService.getBookingsByBookerId(user2Id, "TEXT", 0, 10, null));
     }
 
     @Test
@@ -390,7 +421,7 @@ public class BookingServiceIntegrationTest {
     @Test
     void testGetBookingsByOwnerIdStatusAll() {
         bookingService.createBooking(anotherUserId, bookingInputDto);
-        List<BookingDto> bookings = bookingService.getBookingsByOwnerId(userId, String.valueOf(State.ALL));
+        List<BookingDto> bookings = bookingService.getBookingsByOwnerId(userId, String.valueOf(State.ALL), 0, 10, null);
         assertFalse(bookings.isEmpty());
         assertEquals(1, bookings.size());
     }
@@ -424,7 +455,7 @@ public class BookingServiceIntegrationTest {
         BookingDto futureBookingDto = bookingService.createBooking(user2Id, futureBooking);
         Long futureBookingId = futureBookingDto.getId();
 
-        List<BookingDto> bookings = bookingService.getBookingsByOwnerId(userId, String.valueOf(State.CURRENT));
+        List<BookingDto> bookings = bookingService.getBookingsByOwnerId(userId, String.valueOf(State.CURRENT), 0, 10, null);
         assertFalse(bookings.isEmpty());
         assertEquals(1, bookings.size());
         assertEquals(currentBookingId, bookings.getFirst().getId());
@@ -459,7 +490,7 @@ public class BookingServiceIntegrationTest {
         BookingDto futureBookingDto = bookingService.createBooking(user2Id, futureBooking);
         Long futureBookingId = futureBookingDto.getId();
 
-        List<BookingDto> bookings = bookingService.getBookingsByOwnerId(userId, String.valueOf(State.PAST));
+        List<BookingDto> bookings = bookingService.getBookingsByOwnerId(userId, String.valueOf(State.PAST), 0, 10, null);
         assertFalse(bookings.isEmpty());
         assertEquals(1, bookings.size());
         assertEquals(pastBookingId, bookings.getFirst().getId());
@@ -494,7 +525,7 @@ public class BookingServiceIntegrationTest {
         BookingDto futureBookingDto = bookingService.createBooking(user2Id, futureBooking);
         Long futureBookingId = futureBookingDto.getId();
 
-        List<BookingDto> bookings = bookingService.getBookingsByOwnerId(userId, String.valueOf(State.FUTURE));
+        List<BookingDto> bookings = bookingService.getBookingsByOwnerId(userId, String.valueOf(State.FUTURE), 0, 10, null);
         assertFalse(bookings.isEmpty());
         assertEquals(1, bookings.size());
         assertEquals(futureBookingId, bookings.getFirst().getId());
@@ -532,7 +563,7 @@ public class BookingServiceIntegrationTest {
         bookingService.approveBooking(userId, pastBookingId, true);
         bookingService.approveBooking(userId, currentBookingId, true);
 
-        List<BookingDto> bookings = bookingService.getBookingsByOwnerId(userId, String.valueOf(State.WAITING));
+        List<BookingDto> bookings = bookingService.getBookingsByOwnerId(userId, String.valueOf(State.WAITING), 0, 10, null);
         assertFalse(bookings.isEmpty());
         assertEquals(1, bookings.size());
         assertEquals(futureBookingId, bookings.getFirst().getId());
@@ -570,7 +601,7 @@ public class BookingServiceIntegrationTest {
         bookingService.approveBooking(userId, pastBookingId, true);
         bookingService.approveBooking(userId, currentBookingId, false);
 
-        List<BookingDto> bookings = bookingService.getBookingsByOwnerId(userId, String.valueOf(State.REJECTED));
+        List<BookingDto> bookings = bookingService.getBookingsByOwnerId(userId, String.valueOf(State.REJECTED), 0, 10, null);
         assertFalse(bookings.isEmpty());
         assertEquals(1, bookings.size());
         assertEquals(currentBookingId, bookings.getFirst().getId());
@@ -615,7 +646,7 @@ public class BookingServiceIntegrationTest {
                 //не получается вызвать нужную ошибку
 
         IllegalArgumentException thrown = assertThrows(IllegalArgumentException.class,
-                       () -> bookingService.getBookingsByOwnerId(user2Id, "TEXT"));
+                       () -> bookingService.getBookingsByOwnerId(user2Id, "TEXT", 0, 10, null));
     }
 
     @Test
@@ -660,4 +691,279 @@ public class BookingServiceIntegrationTest {
                 () -> bookingService.createBooking(user2Id, crossedBooking));
         assertEquals("В это время вещь занята", thrown.getMessage());
     }
-}
\ No newline at end of file
+
+    @Test
+    void testCreateBookingOverRejectedBooking() {
+        BookingDto createdBooking = bookingService.createBooking(anotherUserId, bookingInputDto);
+        bookingService.approveBooking(userId, createdBooking.getId(), false);
+
+        User user2 = new User();
+        user2.setName("Test User 2");
+        user2.setEmail("test2@example.com");
+        user2 = userRepository.save(user2);
+
+        NewBookingRequest crossedBooking = new NewBookingRequest();
+        crossedBooking.setItemId(itemId);
+        crossedBooking.setStart(LocalDateTime.now().plusMinutes(70));
+        crossedBooking.setEnd(LocalDateTime.now().plusMinutes(80));
+        BookingDto newBooking = bookingService.createBooking(user2.getId(), crossedBooking);
+        assertEquals(Status.WAITING, newBooking.getStatus());
+    }
+
+    @Test
+    void testGetBookingsByBookerIdPageByCursor() {
+        // без долей секунды, которые БД округляет при сохранении
+        LocalDateTime start = LocalDateTime.now().plusDays(1).truncatedTo(ChronoUnit.SECONDS);
+        for (int i = 0; i < 5; i++) {
+            NewBookingRequest request = new NewBookingRequest();
+            request.setItemId(itemId);
+            request.setStart(start.plusDays(i));
+            request.setEnd(start.plusDays(i).plusHours(1));
+            bookingService.createBooking(anotherUserId, request);
+        }
+
+        List<BookingDto> firstPage = bookingService.getBookingsByBookerId(anotherUserId, String.valueOf(State.ALL), 0, 2, null);
+        String cursor = BookingCursor.after(firstPage.getLast()).encode();
+        List<BookingDto> secondPage = bookingService.getBookingsByBookerId(anotherUserId, String.valueOf(State.ALL), 0, 2, cursor);
+        List<BookingDto> byOffset = bookingService.getBookingsByBookerId(anotherUserId, String.valueOf(State.ALL), 2, 2, null);
+
+        assertEquals(2, firstPage.size());
+        assertEquals(start, firstPage.getFirst().getStart());
+        assertEquals(List.of(start.plusDays(2), start.plusDays(3)), secondPage.stream().map(BookingDto::getStart).toList());
+        assertEquals(secondPage, byOffset);
+    }
+
+    @Test
+    void testCreateBookingInFreeSlotBetweenBookings() {
+        LocalDateTime start = LocalDateTime.now().plusDays(1).truncatedTo(ChronoUnit.SECONDS);
+        for (int day : new int[]{0, 2}) {
+            NewBookingRequest request = new NewBookingRequest();
+            request.setItemId(itemId);
+            request.setStart(start.plusDays(day));
+            request.setEnd(start.plusDays(day + 1));
+            bookingService.createBooking(anotherUserId, request);
+        }
+
+        List<FreeSlotDto> slots = itemService.getAvailability(itemId, start, start.plusDays(3));
+        assertEquals(List.of(new FreeSlotDto(start.plusDays(1), start.plusDays(2))), slots);
+
+        NewBookingRequest request = new NewBookingRequest();
+        request.setItemId(itemId);
+        request.setStart(slots.getFirst().getStart());
+        request.setEnd(slots.getFirst().getEnd());
+        BookingDto booked = bookingService.createBooking(anotherUserId, request);
+
+        assertEquals(Status.WAITING, booked.getStatus());
+        assertTrue(itemService.getAvailability(itemId, start, start.plusDays(3)).isEmpty());
+    }
+
+    @Test
+    void testGetBookingsByBookerIdPageByOffsetNotMultipleOfSize() {
+        LocalDateTime start = LocalDateTime.now().plusDays(1).truncatedTo(ChronoUnit.SECONDS);
+        for (int i = 0; i < 5; i++) {
+            NewBookingRequest request = new NewBookingRequest();
+            request.setItemId(itemId);
+            request.setStart(start.plusDays(i));
+            request.setEnd(start.plusDays(i).plusHours(1));
+            bookingService.createBooking(anotherUserId, request);
+        }
+
+        List<BookingDto> page = bookingService.getBookingsByBookerId(anotherUserId, String.valueOf(State.ALL), 3, 2, null);
+        List<BookingDto> all = bookingService.getBookingsByBookerId(anotherUserId, String.valueOf(State.ALL), 0, null, null);
+
+        assertEquals(List.of(start.plusDays(3), start.plusDays(4)), page.stream().map(BookingDto::getStart).toList());
+        assertEquals(5, all.size());
+    }
+
+    @Test
+    void testGetBookingsByOwnerIdWithInvalidCursor() {
+        assertThrows(ValidationException.class,
+                () -> bookingService.getBookingsByOwnerId(userId, String.valueOf(State.ALL), 0, 10, "not a cursor"));
+    }
+
+    @Test
+    void testGetBookingsByOwnerIdReflectsItemAndBookerUpdates() {
+        BookingDto createdBooking = bookingService.createBooking(anotherUserId, bookingInputDto);
+        bookingService.approveBooking(userId, createdBooking.getId(), true);
+        itemService.updateItem(userId, itemId, new UpdateItemRequest("Renamed Item", null, null));
+        userService.updateUser(anotherUserId, new UpdateUserRequest("Renamed User", null));
+
+        List<BookingDto> bookings = bookingService.getBookingsByOwnerId(userId, String.valueOf(State.ALL), 0, 10, null);
+
+        assertEquals(1, bookings.size());
+        assertEquals(Status.APPROVED, bookings.getFirst().getStatus());
+        assertEquals("Renamed Item", bookings.getFirst().getItem().getName());
+        assertEquals("Test Description", bookings.getFirst().getItem().getDescription());
+        assertEquals("Renamed User", bookings.getFirst().getBooker().getName());
+        assertEquals("anothertest@example.com", bookings.getFirst().getBooker().getEmail());
+    }
+
+    @Test
+    void testApproveBookingsInBatch() {
+        User user2 = new User();
+        user2.setName("Test User 2");
+        user2.setEmail("test2@example.com");
+        user2 = userRepository.save(user2);
+        Item foreignItem = itemRepository.save(new Item(0L, "Foreign Item", "Foreign Description", user2, true, null));
+
+        long first = bookingService.createBooking(anotherUserId, bookingInputDto).getId();
+        long second = bookingService.createBooking(anotherUserId, new NewBookingRequest(
+                bookingInputDto.getStart().plusDays(1), bookingInputDto.getEnd().plusDays(1), itemId)).getId();
+        long decided = bookingService.createBooking(anotherUserId, new NewBookingRequest(
+                bookingInputDto.getStart().plusDays(2), bookingInputDto.getEnd().plusDays(2), itemId)).getId();
+        long foreign = bookingService.createBooking(anotherUserId, new NewBookingRequest(
+                bookingInputDto.getStart(), bookingInputDto.getEnd(), foreignItem.getId())).getId();
+        bookingService.approveBooking(userId, decided, true);
+
+        List<BookingDecisionResult> results = bookingService.approveBookings(userId, List.of(
+                new BookingDecision(first, true),
+                new BookingDecision(second, false),
+                new BookingDecision(decided, false),
+                new BookingDecision(foreign, true),
+                new BookingDecision(Long.MAX_VALUE, true)));
+
+        assertEquals(List.of(first, second, decided, foreign, Long.MAX_VALUE),
+                results.stream().map(BookingDecisionResult::getBookingId).toList());
+        assertEquals(Status.APPROVED, results.get(0).getStatus());
+        assertNull(results.get(0).getError());
+        assertEquals(Status.REJECTED, results.get(1).getStatus());
+        assertEquals(Status.APPROVED, results.get(2).getStatus());
+        assertNotNull(results.get(2).getError());
+        assertNotNull(results.get(3).getError());
+        assertNotNull(results.get(4).getError());
+
+        assertEquals(Status.APPROVED, bookingService.getBookingById(userId, first).getStatus());
+        assertEquals(Status.REJECTED, bookingService.getBookingById(userId, second).getStatus());
+        assertEquals(Status.WAITING, bookingService.getBookingById(user2.getId(), foreign).getStatus());
+        assertEquals(List.of(second), bookingService.getBookingsByOwnerId(userId, String.valueOf(State.REJECTED), 0, 10, null)
+                .stream().map(BookingDto::getId).toList());
+        bookingService.createBooking(anotherUserId, new NewBookingRequest(
+                bookingInputDto.getStart().plusDays(1), bookingInputDto.getEnd().plusDays(1), itemId));
+    }
+
+    @Test
+    void testStreamBookingsAsNdjson() throws Exception {
+        long first = bookingService.createBooking(anotherUserId, bookingInputDto).getId();
+        long second = bookingService.createBooking(anotherUserId, new NewBookingRequest(
+                bookingInputDto.getStart().plusDays(1), bookingInputDto.getEnd().plusDays(1), itemId)).getId();
+        bookingService.approveBooking(userId, second, false);
+        bookingRepository.flush();
+
+        ByteArrayOutputStream byBooker = new ByteArrayOutputStream();
+        bookingStreamService.streamBookingsByBookerId(anotherUserId, String.valueOf(State.ALL), byBooker);
+        ByteArrayOutputStream byOwner = new ByteArrayOutputStream();
+        bookingStreamService.streamBookingsByOwnerId(userId, String.valueOf(State.REJECTED), byOwner);
+
+        List<String> bookerLines = byBooker.toString(StandardCharsets.UTF_8).lines().toList();
+        assertEquals(2, bookerLines.size());
+        assertEquals(first, objectMapper.readTree(bookerLines.get(0)).get("id").asLong());
+        JsonNode rejected = objectMapper.readTree(bookerLines.get(1));
+        assertEquals(second, rejected.get("id").asLong());
+        assertEquals(Status.REJECTED.name(), rejected.get("status").asText());
+        assertEquals("Test Item", rejected.get("item").get("name").asText());
+        assertEquals(anotherUserId, rejected.get("booker").get("id").asLong());
+
+        List<String> ownerLines = byOwner.toString(StandardCharsets.UTF_8).lines().toList();
+        assertEquals(1, ownerLines.size());
+        assertEquals(second, objectMapper.readTree(ownerLines.getFirst()).get("id").asLong());
+        assertThrows(NotFoundException.class, () -> bookingStreamService.streamBookingsByOwnerId(
+                Long.MAX_VALUE, String.valueOf(State.ALL), new ByteArrayOutputStream()));
+    }
+
+    @Test
+    void testGetBookingStats() {
+        bookingService.createBooking(anotherUserId, bookingInputDto);
+        long rejectedId = bookingService.createBooking(anotherUserId, new NewBookingRequest(
+                bookingInputDto.getStart().plusDays(1), bookingInputDto.getEnd().plusDays(1), itemId)).getId();
+        bookingService.approveBooking(userId, rejectedId, false);
+
+        Map<State, Long> expected = Map.of(State.ALL, 2L, State.CURRENT, 0L, State.PAST, 0L,
+                State.FUTURE, 2L, State.WAITING, 1L, State.REJECTED, 1L);
+        assertEquals(expected, bookingService.getBookingStatsByBookerId(anotherUserId));
+        assertEquals(expected, bookingService.getBookingStatsByOwnerId(userId));
+        assertEquals(0L, bookingService.getBookingStatsByOwnerId(anotherUserId).get(State.ALL));
+    }
+
+    @Test
+    void testArchivedBookingsStayVisibleInPastAndAll() {
+        LocalDateTime start = LocalDateTime.now().minusDays(200);
+        Booking old = new Booking(0, start, start.plusDays(1), item, anotherUser, Status.APPROVED);
+        old.setPhase(Phase.FINISHED);
+        old = bookingRepository.save(old);
+        ownerBookingRepository.save(BookingMapper.mapToOwnerBooking(old));
+        long oldId = old.getId();
+        long freshId = bookingService.createBooking(anotherUserId, bookingInputDto).getId();
+
+        assertEquals(1, bookingArchiver.archiveEndedBefore(LocalDateTime.now().minusDays(90)));
+
+        assertTrue(bookingRepository.findById(oldId).isEmpty());
+        assertEquals(oldId, bookingService.getBookingById(userId, oldId).getId());
+        assertEquals(List.of(oldId), bookingService.getBookingsByBookerId(anotherUserId, "PAST", 0, 10, null)
+                .stream().map(BookingDto::getId).toList());
+        assertEquals(List.of(oldId, freshId), bookingService.getBookingsByBookerId(anotherUserId, "ALL", 0, 10, null)
+                .stream().map(BookingDto::getId).toList());
+        assertEquals(List.of(freshId), bookingService.getBookingsByOwnerId(userId, "ALL", 1, 1, null)
+                .stream().map(BookingDto::getId).toList());
+        assertEquals(List.of(freshId), bookingService.getBookingsByOwnerId(userId, "FUTURE", 0, 10, null)
+                .stream().map(BookingDto::getId).toList());
+        Map<State, Long> stats = bookingService.getBookingStatsByOwnerId(userId);
+        assertEquals(2L, stats.get(State.ALL));
+        assertEquals(1L, stats.get(State.PAST));
+        assertDoesNotThrow(() -> itemService.createComment(anotherUserId, itemId, new NewCommentRequest("Всё отлично")));
+    }
+
+    @Test
+    void testCreateBookingsAllOrNothing() {
+        Item secondItem = itemRepository.save(new Item(0, "Second Item", "Second Description", user, true, null));
+        NewBookingRequest second = new NewBookingRequest(bookingInputDto.getStart(), bookingInputDto.getEnd(), secondItem.getId());
+
+        List<BookingDto> created = bookingService.createBookings(anotherUserId, List.of(bookingInputDto, second));
+
+        assertEquals(2, created.size());
+        assertEquals(List.of(itemId, secondItem.getId()), created.stream().map(b -> b.getItem().getId()).toList());
+        assertEquals(Status.WAITING, bookingService.getBookingById(anotherUserId, created.getLast().getId()).getStatus());
+        assertEquals(2, bookingService.getBookingsByOwnerId(userId, "WAITING", 0, 10, null).size());
+
+        NewBookingRequest later = new NewBookingRequest(bookingInputDto.getStart().plusDays(5),
+                bookingInputDto.getEnd().plusDays(5), secondItem.getId());
+        assertThrows(ValidationException.class,
+                () -> bookingService.createBookings(anotherUserId, List.of(later, bookingInputDto)));
+        assertThrows(NotFoundException.class, () -> bookingService.createBookings(anotherUserId,
+                List.of(later, new NewBookingRequest(later.getStart(), later.getEnd(), Long.MAX_VALUE))));
+        assertEquals(2, bookingService.getBookingsByBookerId(anotherUserId, "ALL", 0, 10, null).size());
+    }
+
+    @Test
+    void testHoldIsConfirmedOnlyByItsToken() {
+        User thirdUser = userRepository.save(new User(0, "Third User", "third@example.com"));
+        BookingHoldDto hold = bookingService.holdBooking(anotherUserId, bookingInputDto);
+
+        assertEquals(itemId, hold.getItemId());
+        assertTrue(hold.getExpiresAt().isAfter(LocalDateTime.now()));
+        assertThrows(ValidationException.class, () -> bookingService.holdBooking(thirdUser.getId(), bookingInputDto));
+        assertThrows(ValidationException.class, () -> bookingService.createBooking(thirdUser.getId(), bookingInputDto));
+        NewBookingRequest foreignToken = new NewBookingRequest(bookingInputDto.getStart(), bookingInputDto.getEnd(),
+                itemId, hold.getToken());
+        assertThrows(ValidationException.class, () -> bookingService.createBooking(thirdUser.getId(), foreignToken));
+
+        BookingDto booking = bookingService.createBooking(anotherUserId, foreignToken);
+        assertEquals(anotherUserId, booking.getBooker().getId());
+        assertEquals(Status.WAITING, booking.getStatus());
+    }
+
+    @Test
+    void testCancelBookingFreesItsSlot() {
+        BookingDto booking = bookingService.createBooking(anotherUserId, bookingInputDto);
+
+        assertThrows(ValidationException.class, () -> bookingService.cancelBooking(userId, booking.getId()));
+        assertThrows(NotFoundException.class, () -> bookingService.cancelBooking(anotherUserId, Long.MAX_VALUE));
+
+        BookingDto canceled = bookingService.cancelBooking(anotherUserId, booking.getId());
+        assertEquals(Status.CANCELED, canceled.getStatus());
+        assertEquals(Status.CANCELED, bookingService.getBookingsByOwnerId(userId, "ALL", 0, 10, null).getFirst().getStatus());
+        assertThrows(ValidationException.class, () -> bookingService.cancelBooking(anotherUserId, booking.getId()));
+        assertThrows(ValidationException.class, () -> bookingService.approveBooking(userId, booking.getId(), true));
+
+        assertDoesNotThrow(() -> bookingService.createBooking(anotherUserId, bookingInputDto));
+    }
+}
@@ -0,0 +1,67 @@
+package ru.practicum.shareit.booking;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import ru.practicum.shareit.booking.service.StripedItemLock;
+
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class StripedItemLockTest {
+    private final StripedItemLock itemLock = new StripedItemLock(16);
+
+    @AfterEach
+    void tearDown() {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.clearSynchronization();
+        }
+    }
+
+    @Test
+    void lock_isHeldUntilTransactionCompletes() throws Exception {
+        TransactionSynchronizationManager.initSynchronization();
+        itemLock.lock(1L);
+
+        CompletableFuture<Void> competitor = CompletableFuture.runAsync(() -> {
+            TransactionSynchronizationManager.initSynchronization();
+            itemLock.lock(1L);
+            TransactionSynchronizationManager.getSynchronizations()
+                    .forEach(s -> s.afterCompletion(TransactionSynchronization.STATUS_COMMITTED));
+            TransactionSynchronizationManager.clearSynchronization();
+        });
+        assertThrows(TimeoutException.class, () -> competitor.get(200, TimeUnit.MILLISECONDS));
+
+        TransactionSynchronizationManager.getSynchronizations()
+                .forEach(s -> s.afterCompletion(TransactionSynchronization.STATUS_ROLLED_BACK));
+        competitor.get(5, TimeUnit.SECONDS);
+    }
+
+    @Test
+    void lockAll_withOppositeOrdersDoesNotDeadlock() throws Exception {
+        CompletableFuture<Void> forward = CompletableFuture.runAsync(() -> lockAllRepeatedly(List.of(1L, 2L, 3L)));
+        CompletableFuture<Void> backward = CompletableFuture.runAsync(() -> lockAllRepeatedly(List.of(3L, 2L, 1L)));
+
+        CompletableFuture.allOf(forward, backward).get(10, TimeUnit.SECONDS);
+    }
+
+    private void lockAllRepeatedly(List<Long> itemIds) {
+        for (int i = 0; i < 1_000; i++) {
+            TransactionSynchronizationManager.initSynchronization();
+            itemLock.lockAll(itemIds);
+            TransactionSynchronizationManager.getSynchronizations()
+                    .forEach(s -> s.afterCompletion(TransactionSynchronization.STATUS_COMMITTED));
+            TransactionSynchronizationManager.clearSynchronization();
+        }
+    }
+
+    @Test
+    void lock_outsideTransaction() {
+        assertThrows(IllegalStateException.class, () -> itemLock.lock(1L));
+    }
+}
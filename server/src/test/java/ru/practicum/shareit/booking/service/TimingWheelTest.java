@@ -0,0 +1,35 @@
+package ru.practicum.shareit.booking.service;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class TimingWheelTest {
+
+    @Test
+    void poll_returnsTasksInOrderIncludingOverflowWheels() throws InterruptedException {
+        long now = System.currentTimeMillis();
+        TimingWheel<String> wheel = new TimingWheel<>(10, 8, now);
+
+        assertFalse(wheel.add(now, "due"));
+        assertTrue(wheel.add(now + 300, "third"));
+        assertTrue(wheel.add(now + 40, "first"));
+        assertTrue(wheel.add(now + 120, "second"));
+
+        List<String> fired = new ArrayList<>();
+        long deadline = now + 3_000;
+        while (fired.size() < 3 && System.currentTimeMillis() < deadline) {
+            for (TimingWheel.Entry<String> entry : wheel.poll(50)) {
+                assertTrue(entry.expirationMs() < System.currentTimeMillis() + 10);
+                fired.add(entry.task());
+            }
+        }
+
+        assertEquals(List.of("first", "second", "third"), fired);
+    }
+}
@@ -0,0 +1,81 @@
+package ru.practicum.shareit.idempotency;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.transaction.annotation.Transactional;
+import ru.practicum.shareit.exception.ConflictException;
+import ru.practicum.shareit.idempotency.service.IdempotencyService;
+import ru.practicum.shareit.item.dto.ItemDto;
+import ru.practicum.shareit.item.dto.NewItemRequest;
+import ru.practicum.shareit.item.repository.ItemRepository;
+import ru.practicum.shareit.item.service.ItemService;
+import ru.practicum.shareit.user.model.User;
+import ru.practicum.shareit.user.repository.UserRepository;
+
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+@SpringBootTest
+@Transactional
+class IdempotencyServiceIntegrationTest {
+    private static final String OPERATION = "POST /items";
+
+    @Autowired
+    private IdempotencyService idempotencyService;
+    @Autowired
+    private ItemService itemService;
+    @Autowired
+    private ItemRepository itemRepository;
+    @Autowired
+    private UserRepository userRepository;
+
+    private long userId;
+    private final AtomicInteger calls = new AtomicInteger();
+
+    @BeforeEach
+    void setUp() {
+        userId = userRepository.save(new User(0, "owner", "idempotency@example.com")).getId();
+    }
+
+    @Test
+    void execute_retryWithSameKeyReturnsStoredResponse() {
+        NewItemRequest request = new NewItemRequest("Дрель", "Ударная", true, 0);
+
+        ItemDto first = createItem("key-1", request);
+        ItemDto retry = createItem("key-1", request);
+
+        assertEquals(1, calls.get());
+        assertEquals(first, retry);
+        assertEquals(1, itemRepository.findAllItemsByOwnerId(userId).size());
+    }
+
+    @Test
+    void execute_sameKeyWithOtherRequestIsRejected() {
+        createItem("key-2", new NewItemRequest("Дрель", "Ударная", true, 0));
+
+        assertThrows(ConflictException.class, () -> createItem("key-2", new NewItemRequest("Пила", "Ручная", true, 0)));
+        assertEquals(1, calls.get());
+    }
+
+    @Test
+    void execute_withoutKeyRunsEveryTime() {
+        NewItemRequest request = new NewItemRequest("Дрель", "Ударная", true, 0);
+
+        createItem(null, request);
+        createItem(null, request);
+
+        assertEquals(2, calls.get());
+        assertEquals(2, itemRepository.findAllItemsByOwnerId(userId).size());
+    }
+
+    private ItemDto createItem(String key, NewItemRequest request) {
+        return idempotencyService.execute(userId, key, OPERATION, request, ItemDto.class, () -> {
+            calls.incrementAndGet();
+            return itemService.createItem(userId, request);
+        });
+    }
+}
@@ -0,0 +1,101 @@
+package ru.practicum.shareit.item;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import ru.practicum.shareit.exception.NotFoundException;
+import ru.practicum.shareit.item.dto.AdvancedItemDto;
+import ru.practicum.shareit.item.service.AdvancedItemCache;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class AdvancedItemCacheTest {
+    private final AdvancedItemCache cache = new AdvancedItemCache(2, new SimpleMeterRegistry());
+
+    @Test
+    void get_loadsConcurrentMissesOnce() throws Exception {
+        AtomicInteger loads = new AtomicInteger();
+        CountDownLatch loading = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        ExecutorService executor = Executors.newFixedThreadPool(8);
+        try {
+            List<Future<AdvancedItemDto>> results = new ArrayList<>();
+            for (int i = 0; i < 8; i++) {
+                results.add(executor.submit(() -> cache.get(1L, () -> {
+                    loads.incrementAndGet();
+                    loading.countDown();
+                    await(release);
+                    return item(1L, null);
+                })));
+            }
+            loading.await(5, TimeUnit.SECONDS);
+            Thread.sleep(50);
+            release.countDown();
+
+            AdvancedItemDto first = results.getFirst().get(5, TimeUnit.SECONDS);
+            for (Future<AdvancedItemDto> result : results) {
+                assertSame(first, result.get(5, TimeUnit.SECONDS));
+            }
+            assertEquals(1, loads.get());
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    @Test
+    void get_reloadsAfterNextBookingStarts() {
+        AtomicInteger loads = new AtomicInteger();
+
+        cache.get(1L, () -> item(loads.incrementAndGet(), LocalDateTime.now().minusSeconds(1)));
+        cache.get(1L, () -> item(loads.incrementAndGet(), LocalDateTime.now().plusDays(1)));
+        cache.get(1L, () -> item(loads.incrementAndGet(), null));
+
+        assertEquals(2, loads.get());
+    }
+
+    @Test
+    void get_doesNotCacheFailedLoad() {
+        assertThrows(NotFoundException.class, () -> cache.get(1L, () -> {
+            throw new NotFoundException("Вещь с ID 1 не найдена");
+        }));
+
+        assertEquals(1L, cache.get(1L, () -> item(1L, null)).getId());
+    }
+
+    @Test
+    void get_evictsLeastRecentlyReadItem() {
+        AtomicInteger loads = new AtomicInteger();
+        cache.get(1L, () -> item(loads.incrementAndGet(), null));
+        cache.get(2L, () -> item(loads.incrementAndGet(), null));
+        cache.get(1L, () -> item(loads.incrementAndGet(), null));
+        cache.get(3L, () -> item(loads.incrementAndGet(), null));
+
+        cache.get(1L, () -> item(loads.incrementAndGet(), null));
+        assertEquals(3, loads.get());
+        cache.get(2L, () -> item(loads.incrementAndGet(), null));
+        assertEquals(4, loads.get());
+    }
+
+    private static AdvancedItemDto item(long id, LocalDateTime nextBooking) {
+        return new AdvancedItemDto(id, "name", "description", true, null, nextBooking, List.of(), 1L, 0L);
+    }
+
+    private static void await(CountDownLatch latch) {
+        try {
+            latch.await(5, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
@@ -2,15 +2,18 @@ package ru.practicum.shareit.item;
 
 import com.fasterxml.jackson.databind.ObjectMapper;
 import lombok.SneakyThrows;
+import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
 import org.springframework.boot.test.mock.mockito.MockBean;
 import org.springframework.http.MediaType;
 import org.springframework.test.web.servlet.MockMvc;
+import ru.practicum.shareit.idempotency.service.IdempotencyService;
 import ru.practicum.shareit.item.controller.ItemController;
 import ru.practicum.shareit.item.dto.AdvancedItemDto;
 import ru.practicum.shareit.item.dto.CommentDto;
+import ru.practicum.shareit.item.dto.FreeSlotDto;
 import ru.practicum.shareit.item.dto.ItemDto;
 import ru.practicum.shareit.item.dto.NewItemRequest;
 import ru.practicum.shareit.item.service.ItemService;
@@ -18,11 +21,13 @@ import ru.practicum.shareit.item.service.ItemService;
 import java.nio.charset.StandardCharsets;
 import java.time.LocalDateTime;
 import java.util.List;
+import java.util.function.Supplier;
 
 import static org.hamcrest.Matchers.is;
 import static org.junit.jupiter.api.Assertions.*;
 import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.anyString;
 import static org.mockito.Mockito.when;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.patch;
@@ -39,12 +44,21 @@ class ItemControllerIT {
     @MockBean
     ItemService itemService;
 
+    @MockBean
+    IdempotencyService idempotencyService;
+
     @Autowired
     private MockMvc mvc;
 
     private final String urlTemplate = "/items";
     private final String headerUserId = "X-Sharer-User-Id";
 
+    @BeforeEach
+    void passThroughIdempotency() {
+        when(idempotencyService.execute(anyLong(), any(), anyString(), any(), any(), any()))
+                .thenAnswer(invocation -> invocation.<Supplier<?>>getArgument(5).get());
+    }
+
     @SneakyThrows
     @Test
     void createItem() {
@@ -133,6 +147,24 @@ class ItemControllerIT {
                 .andExpect(jsonPath("$.comments[0].authorName").value(is(comment.getAuthorName()), String.class));
     }
 
+    @SneakyThrows
+    @Test
+    void getAvailability() {
+        LocalDateTime from = LocalDateTime.of(2022, 7, 3, 10, 0);
+        LocalDateTime to = LocalDateTime.of(2022, 7, 5, 10, 0);
+        List<FreeSlotDto> slots = List.of(new FreeSlotDto(from, from.plusHours(5)),
+                new FreeSlotDto(from.plusDays(1), to));
+
+        when(itemService.getAvailability(1L, from, to)).thenReturn(slots);
+
+        mvc.perform(get(urlTemplate + "/1/availability")
+                        .param("from", from.toString())
+                        .param("to", to.toString())
+                        .accept(MediaType.APPLICATION_JSON))
+                .andExpect(status().isOk())
+                .andExpect(content().json(mapper.writeValueAsString(slots)));
+    }
+
     @SneakyThrows
     @Test
     void createComment() {
@@ -0,0 +1,75 @@
+package ru.practicum.shareit.item;
+
+import jakarta.persistence.EntityManager;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.transaction.annotation.Transactional;
+import ru.practicum.shareit.StatementCounter;
+import ru.practicum.shareit.item.dto.AdvancedItemDto;
+import ru.practicum.shareit.item.dto.CommentDto;
+import ru.practicum.shareit.item.model.Comment;
+import ru.practicum.shareit.item.model.Item;
+import ru.practicum.shareit.item.repository.CommentRepository;
+import ru.practicum.shareit.item.repository.ItemRepository;
+import ru.practicum.shareit.item.service.ItemService;
+import ru.practicum.shareit.user.model.User;
+import ru.practicum.shareit.user.repository.UserRepository;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+@SpringBootTest(properties = "shareit.item.comment-chunk-size=" + ItemQueryCountTest.CHUNK_SIZE)
+@Transactional
+class ItemQueryCountTest {
+    static final int CHUNK_SIZE = 2;
+    private static final int ITEMS = 5;
+
+    @Autowired
+    private EntityManager entityManager;
+    @Autowired
+    private ItemService itemService;
+    @Autowired
+    private ItemRepository itemRepository;
+    @Autowired
+    private CommentRepository commentRepository;
+    @Autowired
+    private UserRepository userRepository;
+
+    private StatementCounter statementCounter;
+    private long ownerId;
+
+    @BeforeEach
+    void setUp() {
+        statementCounter = new StatementCounter(entityManager);
+        User owner = userRepository.save(new User(0, "owner", "item-count-owner@example.com"));
+        ownerId = owner.getId();
+        LocalDateTime now = LocalDateTime.now();
+        // у каждого отзыва свой автор, чтобы ленивая загрузка авторов была заметна
+        for (int i = 0; i < ITEMS; i++) {
+            Item item = itemRepository.save(new Item(0, "item " + i, "description " + i, owner, true, null));
+            for (int j = 0; j < 2; j++) {
+                User author = userRepository.save(new User(0, "author " + i + j, "item-count-author" + i + j + "@example.com"));
+                commentRepository.save(new Comment(0, "comment " + i + j, item, author, now.plusMinutes(j)));
+            }
+        }
+    }
+
+    @Test
+    void getAllItems_loadsCommentsInChunks() {
+        List<AdvancedItemDto> items = new ArrayList<>();
+        long statements = statementCounter.count(() -> items.addAll(itemService.getAllItems(ownerId)));
+
+        // вещи + по запросу отзывов на порцию; даты бронирований читает JdbcTemplate мимо статистики Hibernate
+        assertEquals(1 + (ITEMS + CHUNK_SIZE - 1) / CHUNK_SIZE, statements);
+        assertEquals(ITEMS, items.size());
+        for (AdvancedItemDto item : items) {
+            assertEquals(List.of("author " + item.getName().substring(5) + "0", "author " + item.getName().substring(5) + "1"),
+                    item.getComments().stream().map(CommentDto::getAuthorName).toList());
+        }
+    }
+}
@@ -0,0 +1,90 @@
+package ru.practicum.shareit.item;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import ru.practicum.shareit.item.dto.ItemDto;
+import ru.practicum.shareit.item.model.Item;
+import ru.practicum.shareit.item.service.ItemSearchCache;
+import ru.practicum.shareit.item.service.JpqlItemSearchEngine;
+import ru.practicum.shareit.item.service.PostgresItemSearchEngine;
+import ru.practicum.shareit.user.model.User;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class ItemSearchCacheTest {
+    private static final User OWNER = new User(1L, "owner", "owner@example.com");
+    private static final List<ItemDto> PAGE = List.of(new ItemDto(1L, "Дрель", "Ударная", true, 1L, 0L));
+
+    private SimpleMeterRegistry meterRegistry;
+    private ItemSearchCache cache;
+
+    @BeforeEach
+    void setUp() {
+        meterRegistry = new SimpleMeterRegistry();
+        cache = new ItemSearchCache(6, meterRegistry, new JpqlItemSearchEngine(null));
+    }
+
+    @Test
+    void get_sharesPageBetweenQueriesInDifferentCase() {
+        cache.put(ItemSearchCache.key("дрель", 0, 10), PAGE, cache.stamp());
+
+        assertEquals(PAGE, cache.get(ItemSearchCache.key("ДрЕлЬ", 0, 10)).orElseThrow());
+        assertTrue(cache.get(ItemSearchCache.key("дрель", 10, 10)).isEmpty());
+        assertEquals(1.0, meterRegistry.get("cache.gets").tag("result", "hit").functionCounter().count());
+        assertEquals(1.0, meterRegistry.get("cache.gets").tag("result", "miss").functionCounter().count());
+    }
+
+    @Test
+    void put_evictsLeastRecentlyReadPagesOverMaxWeight() {
+        cache.put(ItemSearchCache.key("a", 0, 10), PAGE, cache.stamp());
+        cache.put(ItemSearchCache.key("b", 0, 10), PAGE, cache.stamp());
+        cache.put(ItemSearchCache.key("c", 0, 10), PAGE, cache.stamp());
+        cache.get(ItemSearchCache.key("a", 0, 10));
+        cache.put(ItemSearchCache.key("d", 0, 10), PAGE, cache.stamp());
+
+        assertTrue(cache.get(ItemSearchCache.key("b", 0, 10)).isEmpty());
+        assertTrue(cache.get(ItemSearchCache.key("a", 0, 10)).isPresent());
+        assertEquals(3, cache.size());
+        assertEquals(1.0, meterRegistry.get("cache.evictions").functionCounter().count());
+    }
+
+    @Test
+    void invalidate_removesOnlyPagesMatchingOldOrNewState() {
+        Item item = new Item(1L, "Дрель", "Ударная", OWNER, true, null);
+        ItemSearchCache.ItemState previous = ItemSearchCache.ItemState.of(item);
+        cache.put(ItemSearchCache.key("дрель", 0, 10), PAGE, cache.stamp());
+        cache.put(ItemSearchCache.key("перфоратор", 0, 10), List.of(), cache.stamp());
+        cache.put(ItemSearchCache.key("пила", 0, 10), List.of(), cache.stamp());
+
+        item.setName("Перфоратор");
+        cache.invalidate(previous, item);
+
+        assertTrue(cache.get(ItemSearchCache.key("дрель", 0, 10)).isEmpty());
+        assertTrue(cache.get(ItemSearchCache.key("перфоратор", 0, 10)).isEmpty());
+        assertTrue(cache.get(ItemSearchCache.key("пила", 0, 10)).isPresent());
+    }
+
+    @Test
+    void invalidate_withFullTextEngineRemovesPagesMatchedByWords() {
+        ItemSearchCache fullText = new ItemSearchCache(6, meterRegistry, new PostgresItemSearchEngine(null, null));
+        fullText.put(ItemSearchCache.key("red drill", 0, 10), List.of(), fullText.stamp());
+
+        fullText.invalidate(null, new Item(2L, "Drill, red", "Cordless", OWNER, true, null));
+
+        assertTrue(fullText.get(ItemSearchCache.key("red drill", 0, 10)).isEmpty());
+    }
+
+    @Test
+    void put_ignoresPageReadBeforeInvalidation() {
+        long stamp = cache.stamp();
+        cache.invalidate(null, new Item(2L, "Пила", "Дисковая", OWNER, true, null));
+
+        cache.put(ItemSearchCache.key("пила", 0, 10), List.of(), stamp);
+
+        assertTrue(cache.get(ItemSearchCache.key("пила", 0, 10)).isEmpty());
+    }
+}
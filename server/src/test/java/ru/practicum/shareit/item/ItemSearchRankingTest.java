@@ -0,0 +1,54 @@
+package ru.practicum.shareit.item;
+
+import org.junit.jupiter.api.Test;
+import ru.practicum.shareit.item.model.ItemSearchCandidate;
+import ru.practicum.shareit.item.service.ItemSearchRanking;
+
+import java.util.List;
+import java.util.stream.LongStream;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class ItemSearchRankingTest {
+
+    @Test
+    void rank_prefersNameAndEarlierPosition() {
+        int namePrefix = ItemSearchRanking.rank("ДРЕЛЬ", "", "ДРЕЛЬ");
+        int nameInside = ItemSearchRanking.rank("УДАРНАЯ ДРЕЛЬ", "", "ДРЕЛЬ");
+        int description = ItemSearchRanking.rank("ПЕРФОРАТОР", "ДРЕЛЬ", "ДРЕЛЬ");
+
+        assertTrue(namePrefix < nameInside);
+        assertTrue(nameInside < description);
+        assertEquals(ItemSearchRanking.UNRANKED, ItemSearchRanking.rank("ПИЛА", "ДИСКОВАЯ", "ДРЕЛЬ"));
+    }
+
+    @Test
+    void topIds_returnsPageOfBestMatchesWithIdAsTieBreak() {
+        Stream<ItemSearchCandidate> candidates = Stream.of(
+                new ItemSearchCandidate(1L, "Набор", "Дрель и биты"),
+                new ItemSearchCandidate(2L, "Ударная дрель", ""),
+                new ItemSearchCandidate(3L, "Дрель", ""),
+                new ItemSearchCandidate(4L, "Дрель-шуруповёрт", ""),
+                new ItemSearchCandidate(5L, "Отвёртка", "Почти дрель"));
+
+        assertEquals(List.of(3L, 4L, 2L), ItemSearchRanking.topIds(candidates, "дрель", 0, 3));
+    }
+
+    @Test
+    void topK_keepsOnlyFromPlusSizeBestCandidates() {
+        ItemSearchRanking.TopK top = new ItemSearchRanking.TopK(2, 3);
+        LongStream.rangeClosed(1, 10_000).forEach(id -> top.offer(id, (int) (10_000 - id)));
+
+        assertEquals(List.of(9_998L, 9_997L, 9_996L), top.page());
+    }
+
+    @Test
+    void topK_whenFromNearIntegerMaxReturnsEmptyPage() {
+        ItemSearchRanking.TopK top = new ItemSearchRanking.TopK(Integer.MAX_VALUE, 1);
+        LongStream.rangeClosed(1, 10).forEach(id -> top.offer(id, 0));
+
+        assertTrue(top.page().isEmpty());
+    }
+}
@@ -1,12 +1,19 @@
 package ru.practicum.shareit.item;
 
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
+import org.mockito.Spy;
 import org.mockito.junit.jupiter.MockitoExtension;
+import ru.practicum.shareit.booking.repository.ArchivedBookingRepository;
 import ru.practicum.shareit.booking.repository.BookingRepository;
+import ru.practicum.shareit.booking.repository.ItemBookingDatesRepository;
+import ru.practicum.shareit.booking.repository.OwnerBookingRepository;
+import ru.practicum.shareit.booking.service.BookingIntervalIndex;
 import ru.practicum.shareit.exception.NotFoundException;
+import ru.practicum.shareit.exception.ValidationException;
 import ru.practicum.shareit.item.dto.AdvancedItemDto;
 import ru.practicum.shareit.item.dto.CommentDto;
 import ru.practicum.shareit.item.dto.ItemDto;
@@ -15,7 +22,11 @@ import ru.practicum.shareit.item.dto.UpdateItemRequest;
 import ru.practicum.shareit.item.model.Item;
 import ru.practicum.shareit.item.repository.CommentRepository;
 import ru.practicum.shareit.item.repository.ItemRepository;
+import ru.practicum.shareit.item.service.AdvancedItemCache;
+import ru.practicum.shareit.item.service.ItemSearchCache;
+import ru.practicum.shareit.item.service.ItemSearchEngine;
 import ru.practicum.shareit.item.service.ItemServiceImpl;
+import ru.practicum.shareit.paging.OffsetPageRequest;
 import ru.practicum.shareit.request.model.ItemRequest;
 import ru.practicum.shareit.request.repository.ItemRequestRepository;
 import ru.practicum.shareit.user.model.User;
@@ -27,8 +38,11 @@ import java.util.List;
 import java.util.Optional;
 
 import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
 import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyNoInteractions;
 import static org.mockito.Mockito.when;
 
 @ExtendWith(MockitoExtension.class)
@@ -48,6 +62,27 @@ class ItemServiceImplTest {
     @Mock
     private CommentRepository commentRepository;
 
+    @Mock
+    private OwnerBookingRepository ownerBookingRepository;
+
+    @Mock
+    private ItemBookingDatesRepository itemBookingDatesRepository;
+
+    @Mock
+    private ArchivedBookingRepository archivedBookingRepository;
+
+    @Mock
+    private BookingIntervalIndex bookingIntervalIndex;
+
+    @Mock
+    private ItemSearchEngine itemSearchEngine;
+
+    @Mock
+    private ItemSearchCache itemSearchCache;
+
+    @Spy
+    private AdvancedItemCache advancedItemCache = new AdvancedItemCache(100, new SimpleMeterRegistry());
+
     @InjectMocks
     private ItemServiceImpl itemService;
 
@@ -88,6 +123,95 @@ class ItemServiceImplTest {
         verify(itemRepository, never()).save(itemToSave);
     }
 
+    @Test
+    void searchItems_withoutPeriodDelegatesToSearchEngine() {
+        Item item = new Item(7L, "Дрель", "Ударная", new User(3L, "name", "email"), true, null);
+        when(itemSearchEngine.search("дрель", OffsetPageRequest.of(5, 5))).thenReturn(List.of(item));
+
+        List<ItemDto> found = itemService.searchItems("дрель", null, null, 5, 5);
+
+        assertEquals(List.of(7L), found.stream().map(ItemDto::getId).toList());
+        verify(itemRepository, never()).searchCandidates("дрель");
+        verify(itemSearchCache).put(ItemSearchCache.key("дрель", 5, 5), found, 0L);
+    }
+
+    @Test
+    void searchItems_startsPageExactlyAtFrom() {
+        Item item = new Item(7L, "Дрель", "Ударная", new User(3L, "name", "email"), true, null);
+        when(itemSearchEngine.search("дрель", OffsetPageRequest.of(3, 5))).thenReturn(List.of(item));
+
+        List<ItemDto> found = itemService.searchItems("дрель", null, null, 3, 5);
+
+        assertEquals(List.of(7L), found.stream().map(ItemDto::getId).toList());
+        verify(itemSearchCache).put(ItemSearchCache.key("дрель", 3, 5), found, 0L);
+    }
+
+    @Test
+    void searchItems_withoutSizeIsNotLimited() {
+        Item item = new Item(7L, "Дрель", "Ударная", new User(3L, "name", "email"), true, null);
+        when(itemSearchEngine.search("дрель", OffsetPageRequest.of(0, Integer.MAX_VALUE))).thenReturn(List.of(item));
+
+        List<ItemDto> found = itemService.searchItems("дрель", null, null, 0, null);
+
+        assertEquals(List.of(7L), found.stream().map(ItemDto::getId).toList());
+    }
+
+    @Test
+    void searchItems_withPeriodUsesSameSearchEngine() {
+        LocalDateTime start = LocalDateTime.of(2024, 7, 1, 12, 0);
+        Item item = new Item(7L, "Дрель", "Ударная", new User(3L, "name", "email"), true, null);
+        when(itemSearchEngine.searchFree("дрель", start, start.plusDays(1), OffsetPageRequest.of(0, 10))).thenReturn(List.of(item));
+
+        List<ItemDto> found = itemService.searchItems("дрель", start, start.plusDays(1), 0, 10);
+
+        assertEquals(List.of(7L), found.stream().map(ItemDto::getId).toList());
+        verify(itemRepository, never()).searchFreeCandidates(any(), any(), any());
+        verifyNoInteractions(itemSearchCache);
+    }
+
+    @Test
+    void searchItems_whenPageCachedSkipsSearchEngine() {
+        List<ItemDto> cached = List.of(new ItemDto());
+        when(itemSearchCache.get(ItemSearchCache.key("ДРЕЛЬ", 0, 10))).thenReturn(Optional.of(cached));
+
+        assertSame(cached, itemService.searchItems("дрель", null, null, 0, 10));
+        verifyNoInteractions(itemSearchEngine);
+    }
+
+    @Test
+    void searchItems_whenFromPlusSizeOverflows() {
+        ValidationException thrown = assertThrows(ValidationException.class,
+                () -> itemService.searchItems("дрель", null, null, Integer.MAX_VALUE, 1));
+
+        assertEquals("Сумма параметров from и size не может превышать " + Integer.MAX_VALUE, thrown.getMessage());
+        verifyNoInteractions(itemSearchEngine);
+    }
+
+    @Test
+    void getAvailability_whenPeriodInvalid() {
+        long itemId = 5L;
+        LocalDateTime from = LocalDateTime.now();
+        Item item = new Item(itemId, "name", "description", new User(3L, "name", "email"), true, null);
+        when(itemRepository.findById(itemId)).thenReturn(Optional.of(item));
+
+        ValidationException thrown = assertThrows(ValidationException.class,
+                () -> itemService.getAvailability(itemId, from, from));
+
+        assertEquals("Начало периода должно быть раньше конца", thrown.getMessage());
+        verifyNoInteractions(bookingIntervalIndex);
+    }
+
+    @Test
+    void getAvailability_whenItemUnavailable() {
+        long itemId = 5L;
+        LocalDateTime from = LocalDateTime.now();
+        Item item = new Item(itemId, "name", "description", new User(3L, "name", "email"), false, null);
+        when(itemRepository.findById(itemId)).thenReturn(Optional.of(item));
+
+        assertTrue(itemService.getAvailability(itemId, from, from.plusDays(1)).isEmpty());
+        verifyNoInteractions(bookingIntervalIndex);
+    }
+
     @Test
     void updateItem_positiveCasewhenOwnerFoundAndItemFound() {
         long ownerId = 3L;
@@ -195,6 +319,20 @@ class ItemServiceImplTest {
         verify(itemRepository).findById(itemId);
     }
 
+    @Test
+    void getItemById_readsRepositoryOnceUntilInvalidated() {
+        long itemId = 4L;
+        Item item = new Item(itemId, "name", "description", new User(3L, "name", "email"), true, null);
+        when(itemRepository.findById(itemId)).thenReturn(Optional.of(item));
+
+        itemService.getItemById(itemId);
+        itemService.getItemById(itemId);
+        advancedItemCache.invalidate(itemId);
+        itemService.getItemById(itemId);
+
+        verify(itemRepository, times(2)).findById(itemId);
+    }
+
     @Test
     void getItemById_whenItemNotFound() {
         long itemId = 4L;
@@ -10,6 +10,7 @@ import org.springframework.transaction.annotation.Transactional;
 import ru.practicum.shareit.booking.model.Booking;
 import ru.practicum.shareit.booking.repository.BookingRepository;
 import ru.practicum.shareit.booking.model.Status;
+import ru.practicum.shareit.booking.service.BookingService;
 import ru.practicum.shareit.exception.NotFoundException;
 import ru.practicum.shareit.exception.ValidationException;
 import ru.practicum.shareit.item.dto.AdvancedItemDto;
@@ -18,6 +19,7 @@ import ru.practicum.shareit.item.dto.CommentDto;
 import ru.practicum.shareit.item.dto.NewItemRequest;
 import ru.practicum.shareit.item.dto.ItemDto;
 import ru.practicum.shareit.item.dto.UpdateItemRequest;
+import ru.practicum.shareit.item.model.Item;
 import ru.practicum.shareit.item.repository.CommentRepository;
 import ru.practicum.shareit.item.repository.ItemRepository;
 import ru.practicum.shareit.item.service.ItemService;
@@ -54,6 +56,9 @@ public class ItemServiceIntegrationTest {
     @Autowired
     private BookingRepository bookingRepository;
 
+    @Autowired
+    private BookingService bookingService;
+
     private NewItemRequest itemInputDto;
     private UpdateItemRequest itemUpdateRequest;
     private ItemDto itemOutputDto;
@@ -110,6 +115,32 @@ public class ItemServiceIntegrationTest {
         assertEquals(itemOutputDto.getId(), items.get(0).getId());
     }
 
+    @Test
+    void testGetAllByUserIdFillsLastAndNextBookings() {
+        User booker = userRepository.save(new User(0, "Booker", "booker@example.com"));
+        Item item = itemRepository.findById(itemId).orElseThrow();
+        Item secondItem = itemRepository.save(new Item(0, "Second Item", "Second Description", item.getOwner(), true, null));
+        Item emptyItem = itemRepository.save(new Item(0, "Empty Item", "Empty Description", item.getOwner(), true, null));
+        LocalDateTime now = LocalDateTime.now().withNano(0);
+        bookingRepository.save(new Booking(0, now.minusDays(5), now.minusDays(4), item, booker, Status.APPROVED));
+        bookingRepository.save(new Booking(0, now.plusDays(3), now.plusDays(4), item, booker, Status.APPROVED));
+        bookingRepository.save(new Booking(0, now.plusDays(1), now.plusDays(2), item, booker, Status.WAITING));
+        bookingRepository.save(new Booking(0, now.plusDays(5), now.plusDays(6), item, booker, Status.APPROVED));
+        bookingRepository.save(new Booking(0, now.minusHours(1), now.plusHours(1), secondItem, booker, Status.APPROVED));
+        bookingRepository.save(new Booking(0, now.minusDays(1), now.plusDays(1), secondItem, booker, Status.REJECTED));
+
+        List<AdvancedItemDto> items = itemService.getAllItems(userId);
+
+        assertEquals(List.of(itemId, secondItem.getId(), emptyItem.getId()), items.stream().map(AdvancedItemDto::getId).toList());
+        assertTrue(items.get(0).getLastBooking().isAfter(now.minusDays(3)) && items.get(0).getLastBooking().isBefore(now));
+        assertEquals(now.plusDays(3), items.get(0).getNextBooking());
+        assertEquals(now.minusHours(1), items.get(1).getLastBooking());
+        assertNull(items.get(1).getNextBooking());
+        assertNull(items.get(2).getLastBooking());
+        assertNull(items.get(2).getNextBooking());
+        assertEquals(now.plusDays(3), itemService.getItemById(itemId).getNextBooking());
+    }
+
     @Test
     void testGetById() {
         AdvancedItemDto item = itemService.getItemById(itemId);
@@ -120,12 +151,69 @@ public class ItemServiceIntegrationTest {
         assertEquals(itemOutputDto.getAvailable(), item.getAvailable());
     }
 
+    @Test
+    void testGetByIdFollowsCommentsAndApprovals() {
+        assertTrue(itemService.getItemById(itemId).getComments().isEmpty());
+        itemService.createComment(userId, itemId, commentInputDto);
+        assertEquals(1, itemService.getItemById(itemId).getComments().size());
+
+        LocalDateTime start = LocalDateTime.now().plusDays(1).withNano(0);
+        Booking waiting = bookingRepository.save(new Booking(0, start, start.plusDays(1),
+                itemRepository.findById(itemId).orElseThrow(), userRepository.findById(userId).orElseThrow(), Status.WAITING));
+        assertNull(itemService.getItemById(itemId).getNextBooking());
+        bookingService.approveBooking(userId, waiting.getId(), true);
+        assertEquals(start, itemService.getItemById(itemId).getNextBooking());
+    }
+
     @Test
     void testFindByText() {
-        List<ItemDto> items = itemService.searchItems("Test");
+        List<ItemDto> items = itemService.searchItems("Test", null, null, 0, 10);
         assertFalse(items.isEmpty());
         assertEquals(1, items.size());
         assertEquals(itemOutputDto.getId(), items.get(0).getId());
+        assertEquals(items, itemService.searchItems("Test", null, null, 0, null));
+    }
+
+    @Test
+    void testFindByTextFollowsItemUpdates() {
+        UpdateItemRequest rename = new UpdateItemRequest();
+        rename.setName("Перфоратор");
+        itemService.updateItem(userId, itemId, rename);
+        assertEquals(List.of(itemId), itemService.searchItems("ПЕРФО", null, null, 0, 10).stream().map(ItemDto::getId).toList());
+
+        UpdateItemRequest hide = new UpdateItemRequest();
+        hide.setAvailable(false);
+        itemService.updateItem(userId, itemId, hide);
+        assertTrue(itemService.searchItems("перфо", null, null, 0, 10).isEmpty());
+    }
+
+    @Test
+    void testFindByTextFreeInWindow() {
+        NewItemRequest secondItem = new NewItemRequest("Second Test Item", "Test Description", true, itemRequestId);
+        long secondItemId = itemService.createItem(userId, secondItem).getId();
+        Booking booking = new Booking();
+        booking.setItem(itemRepository.findById(secondItemId).orElseThrow());
+        booking.setBooker(userRepository.findById(userId).orElseThrow());
+        booking.setStart(LocalDateTime.now().plusDays(1));
+        booking.setEnd(LocalDateTime.now().plusDays(3));
+        bookingRepository.save(booking);
+
+        List<ItemDto> busyWindow = itemService.searchItems("test", LocalDateTime.now().plusDays(2),
+                LocalDateTime.now().plusDays(4), 0, 10);
+        List<ItemDto> freeWindow = itemService.searchItems("test", LocalDateTime.now().plusDays(4),
+                LocalDateTime.now().plusDays(5), 0, 10);
+        List<ItemDto> secondPage = itemService.searchItems("test", LocalDateTime.now().plusDays(4),
+                LocalDateTime.now().plusDays(5), 1, 1);
+
+        assertEquals(List.of(itemId), busyWindow.stream().map(ItemDto::getId).toList());
+        assertEquals(List.of(itemId, secondItemId), freeWindow.stream().map(ItemDto::getId).toList());
+        assertEquals(List.of(secondItemId), secondPage.stream().map(ItemDto::getId).toList());
+    }
+
+    @Test
+    void testFindByTextWithHalfOpenWindow() {
+        assertThrows(ValidationException.class,
+                () -> itemService.searchItems("test", LocalDateTime.now(), null, 0, 10));
     }
 
     @Test
@@ -0,0 +1,155 @@
+package ru.practicum.shareit.item;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import ru.practicum.shareit.item.model.Item;
+import ru.practicum.shareit.item.repository.ItemRepository;
+import ru.practicum.shareit.item.service.ItemTrigramIndex;
+import ru.practicum.shareit.user.model.User;
+
+import java.util.HashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.stream.LongStream;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+class ItemTrigramIndexTest {
+    private static final User OWNER = new User(1L, "owner", "owner@example.com");
+    private static final List<Item> ITEMS = List.of(
+            new Item(1L, "Дрель", "Ударная дрель Bosch", OWNER, true, null),
+            new Item(2L, "Отвёртка", "Аккумуляторная отвёртка", OWNER, true, null),
+            new Item(3L, "Drill", "Cordless DRILL 18V", OWNER, true, null),
+            new Item(4L, "Пила", "Дисковая пила", OWNER, true, null),
+            new Item(5L, "Лестница", "Стремянка, 5 ступеней", OWNER, true, null));
+
+    @Mock
+    private ItemRepository itemRepository;
+
+    private ItemTrigramIndex index;
+
+    @BeforeEach
+    void setUp() {
+        index = new ItemTrigramIndex(itemRepository, 2);
+        when(itemRepository.findAvailableAfter(0L, PageRequest.of(0, 2))).thenReturn(ITEMS.subList(0, 2));
+        when(itemRepository.findAvailableAfter(2L, PageRequest.of(0, 2))).thenReturn(ITEMS.subList(2, 4));
+        when(itemRepository.findAvailableAfter(4L, PageRequest.of(0, 2))).thenReturn(ITEMS.subList(4, 5));
+        index.build();
+    }
+
+    @AfterEach
+    void tearDown() {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.clearSynchronization();
+        }
+    }
+
+    @Test
+    void search_matchesSameItemsAsCaseInsensitiveSubstring() {
+        assertTrue(index.isReady());
+        for (String text : List.of("дрель", "ДРЕ", "drill", "rdl", "отвёр", "ка", "5", "пила ", "я, 5 с", "нет такого", "e")) {
+            List<Long> expected = ITEMS.stream()
+                    .filter(item -> item.getName().toUpperCase(Locale.ROOT).contains(text.toUpperCase(Locale.ROOT))
+                            || item.getDescription().toUpperCase(Locale.ROOT).contains(text.toUpperCase(Locale.ROOT)))
+                    .map(Item::getId)
+                    .toList();
+            assertEquals(new HashSet<>(expected), new HashSet<>(index.search(text, 0, 10)), text);
+        }
+    }
+
+    @Test
+    void search_pagesInRankOrder() {
+        assertEquals(List.of(1L, 2L, 3L, 4L, 5L), index.search("", 0, 10));
+        // «Пила» — с 4-го символа названия, «Отвёртка» и «Лестница» — с 8-го, у «Дрели» только в описании
+        assertEquals(List.of(4L, 2L), index.search("а", 0, 2));
+        assertEquals(List.of(5L, 1L), index.search("а", 2, 2));
+    }
+
+    @Test
+    void search_skipsFilteredOutItemsBeforePaging() {
+        assertEquals(List.of(4L, 2L, 5L), index.search("а", 0, 10, id -> id != 1L));
+        assertEquals(List.of(5L), index.search("а", 2, 2, id -> id != 1L));
+    }
+
+    @Test
+    void index_followsItemChanges() {
+        index.index(new Item(6L, "Шуруповёрт", "Почти как дрель", OWNER, true, null));
+        assertEquals(List.of(1L, 6L), index.search("дрель", 0, 10));
+
+        index.index(new Item(1L, "Перфоратор", "Ударный", OWNER, true, null));
+        assertEquals(List.of(6L), index.search("дрель", 0, 10));
+        assertEquals(List.of(1L), index.search("перфо", 0, 10));
+
+        index.index(new Item(6L, "Шуруповёрт", "Почти как дрель", OWNER, false, null));
+        assertTrue(index.search("дрель", 0, 10).isEmpty());
+    }
+
+    @Test
+    void index_isRolledBackWithTransaction() {
+        TransactionSynchronizationManager.initSynchronization();
+        index.index(new Item(3L, "Saw", "Circular saw", OWNER, true, null));
+        index.index(new Item(7L, "Saw blade", "For circular saw", OWNER, true, null));
+        assertEquals(List.of(3L, 7L), index.search("saw", 0, 10));
+
+        TransactionSynchronizationManager.getSynchronizations()
+                .forEach(s -> s.afterCompletion(TransactionSynchronization.STATUS_ROLLED_BACK));
+
+        assertTrue(index.search("saw", 0, 10).isEmpty());
+        assertEquals(List.of(3L), index.search("drill", 0, 10));
+    }
+
+    @Test
+    void build_skipsStaleCopyOfItemChangedDuringBuild() {
+        ItemTrigramIndex building = new ItemTrigramIndex(itemRepository, 2);
+        // порция прочитана до того, как updateItem сделал «Дрель» недоступной
+        when(itemRepository.findAvailableAfter(0L, PageRequest.of(0, 2))).thenAnswer(invocation -> {
+            building.index(new Item(1L, "Дрель", "Ударная дрель Bosch", OWNER, false, null));
+            return ITEMS.subList(0, 2);
+        });
+
+        building.build();
+
+        assertTrue(building.search("дрель", 0, 10).isEmpty());
+        assertEquals(List.of(2L), building.search("отвёр", 0, 10));
+    }
+
+    @Test
+    void build_restoresSkippedCopyWhenChangeDuringBuildIsRolledBack() {
+        ItemTrigramIndex building = new ItemTrigramIndex(itemRepository, 2);
+        TransactionSynchronizationManager.initSynchronization();
+        when(itemRepository.findAvailableAfter(0L, PageRequest.of(0, 2))).thenAnswer(invocation -> {
+            building.index(new Item(1L, "Перфоратор", "Ударный", OWNER, true, null));
+            return ITEMS.subList(0, 2);
+        });
+        when(itemRepository.findAvailableAfter(2L, PageRequest.of(0, 2))).thenAnswer(invocation -> {
+            TransactionSynchronizationManager.getSynchronizations()
+                    .forEach(s -> s.afterCompletion(TransactionSynchronization.STATUS_ROLLED_BACK));
+            return ITEMS.subList(2, 4);
+        });
+
+        building.build();
+
+        assertTrue(building.search("перфо", 0, 10).isEmpty());
+        assertEquals(List.of(1L), building.search("дрель", 0, 10));
+    }
+
+    @Test
+    void search_onLargeIndexReturnsOnlyVerifiedCandidates() {
+        LongStream.rangeClosed(100, 2_000).forEach(id -> index.index(new Item(id, "abc" + id, "bcz", OWNER, true, null)));
+
+        // обе триграммы запроса есть у каждой вещи (ABC в названии, BCZ в описании), но подстрока целиком — ни у одной
+        assertTrue(index.search("abcz", 0, 10).isEmpty());
+        assertEquals(List.of(100L, 101L), index.search("abc", 0, 2));
+        assertEquals(List.of(777L), index.search("C777", 0, 10));
+    }
+}
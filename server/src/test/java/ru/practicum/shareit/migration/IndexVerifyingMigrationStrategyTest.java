@@ -0,0 +1,34 @@
+package ru.practicum.shareit.migration;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+
+import javax.sql.DataSource;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertDoesNotThrow;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+@SpringBootTest
+class IndexVerifyingMigrationStrategyTest {
+    @Autowired
+    private DataSource dataSource;
+
+    @Test
+    void verifyIndexes_whenAllMigrationsApplied() {
+        assertDoesNotThrow(() -> IndexVerifyingMigrationStrategy.verifyIndexes(dataSource,
+                IndexVerifyingMigrationStrategy.REQUIRED_INDEXES));
+    }
+
+    @Test
+    void verifyIndexes_whenIndexMissing() {
+        IllegalStateException thrown = assertThrows(IllegalStateException.class,
+                () -> IndexVerifyingMigrationStrategy.verifyIndexes(dataSource,
+                        Map.of("bookings", List.of("idx_bookings_booker_start", "idx_bookings_missing"))));
+
+        assertTrue(thrown.getMessage().contains("bookings.idx_bookings_missing"));
+    }
+}